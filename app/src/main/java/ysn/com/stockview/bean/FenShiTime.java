@@ -34,6 +34,12 @@ public class FenShiTime implements IFenShi {
     @SerializedName(value = "totalCount", alternate = {"nodeNumber"})
     private int totalCount;
 
+    /**
+     * date 解析后的时间戳(date 变化时重新解析), 不参与序列化
+     */
+    private transient String parsedDate;
+    private transient long parsedTime;
+
     public String getDate() {
         return date;
     }
@@ -100,7 +106,14 @@ public class FenShiTime implements IFenShi {
 
     @Override
     public long getFenShiTime() {
-        return date == null ? 0 : TimeUtils.formatYyyyMmDd(date);
+        if (date == null) {
+            return 0;
+        }
+        if (!date.equals(parsedDate)) {
+            parsedTime = TimeUtils.formatYyyyMmDd(date);
+            parsedDate = date;
+        }
+        return parsedTime;
     }
 
     public static class DataBean implements IFenShiData {
@@ -5,9 +5,9 @@ import android.support.v7.app.AppCompatActivity;
 import android.widget.CheckBox;
 import android.widget.CompoundButton;
 
+import ysn.com.stock.bean.CapitalColumnData;
 import ysn.com.stock.view.CapitalView;
 import ysn.com.stockview.R;
-import ysn.com.stockview.bean.CapitalTime;
 import ysn.com.stockview.utils.JsonUtils;
 import ysn.com.stockview.widget.interceptor.CapitalInterceptor;
 
@@ -29,16 +29,16 @@ public class CapitalActivity extends AppCompatActivity implements CompoundButton
 
         setTitle(R.string.text_capital);
 
-        CapitalTime newData = JsonUtils.getData((this), ("json/capital1.json"), CapitalTime.class);
+        CapitalColumnData newData = JsonUtils.getCapital((this), ("json/capital1.json"));
 
         CapitalView capitalView1 = findViewById(R.id.capital_activity_view1);
         capitalView1.setDrawMainInFlow(true)
                 .setDrawRetailInFlow(true)
-                .setNewData(newData.getData());
+                .setNewData(newData);
 
         capitalView2 = findViewById(R.id.capital_activity_view2);
         capitalView2.setInterceptor(new CapitalInterceptor())
-                .setNewData(newData.getData());
+                .setNewData(newData);
 
         CheckBox checkBox1 = findViewById(R.id.capital_activity_check_box1);
         checkBox1.setOnCheckedChangeListener(this);
@@ -5,7 +5,6 @@ import android.support.v7.app.AppCompatActivity;
 
 import ysn.com.stock.view.FenShiView;
 import ysn.com.stockview.R;
-import ysn.com.stockview.bean.FenShiTime;
 import ysn.com.stockview.utils.JsonUtils;
 import ysn.com.stockview.widget.interceptor.FenShiInterceptor;
 
@@ -26,10 +25,10 @@ public class FenShiActivity extends AppCompatActivity {
         setTitle(R.string.text_fen_shi);
 
         FenShiView fenShiView1 = findViewById(R.id.fen_shi_activity_view1);
-        fenShiView1.setData(JsonUtils.getData((this), ("json/fen_shi1.json"), FenShiTime.class));
+        fenShiView1.setData(JsonUtils.getFenShi((this), ("json/fen_shi1.json")));
 
         FenShiView fenShiView2 = findViewById(R.id.fen_shi_activity_view2);
         fenShiView2.setInterceptor(new FenShiInterceptor());
-        fenShiView2.setData(JsonUtils.getData((this), ("json/fen_shi2.json"), FenShiTime.class));
+        fenShiView2.setData(JsonUtils.getFenShi((this), ("json/fen_shi2.json")));
     }
 }
\ No newline at end of file
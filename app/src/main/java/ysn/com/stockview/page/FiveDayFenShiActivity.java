@@ -5,9 +5,9 @@ import android.support.v7.app.AppCompatActivity;
 
 import java.util.List;
 
+import ysn.com.stock.bean.FenShiColumnData;
 import ysn.com.stock.view.FiveDayFenShiView;
 import ysn.com.stockview.R;
-import ysn.com.stockview.bean.FenShiTime;
 import ysn.com.stockview.utils.JsonUtils;
 import ysn.com.stockview.widget.interceptor.FiveDayFenShiInterceptor;
 
@@ -27,8 +27,8 @@ public class FiveDayFenShiActivity extends AppCompatActivity {
 
         setTitle(R.string.text_five_day_fen_shi);
 
-        List<FenShiTime> dataList = JsonUtils.getDataList((this), ("json/five_day_fen_shi_top_four.json"));
-        dataList.add(JsonUtils.getData((this), ("json/five_day_fen_shi_last.json"), FenShiTime.class));
+        List<FenShiColumnData> dataList = JsonUtils.getFenShiList((this), ("json/five_day_fen_shi_top_four.json"));
+        dataList.add(JsonUtils.getFenShi((this), ("json/five_day_fen_shi_last.json")));
 
         FiveDayFenShiView fiveDayFenShiView1 = findViewById(R.id.five_day_fen_shi_activity_view1);
         FiveDayFenShiView fiveDayFenShiView2 = findViewById(R.id.five_day_fen_shi_activity_view2);
@@ -8,9 +8,9 @@ import android.widget.TextView;
 import java.util.ArrayList;
 import java.util.List;
 
+import ysn.com.stock.bean.FenShiColumnData;
 import ysn.com.stock.view.MiniFenShiView;
 import ysn.com.stockview.R;
-import ysn.com.stockview.bean.FenShiTime;
 import ysn.com.stockview.utils.JsonUtils;
 import ysn.com.stockview.widget.adapter.MiniFenShiAdapter;
 import ysn.com.stockview.widget.view.FlipperRecyclerView;
@@ -31,11 +31,11 @@ public class MiniFenShiActivity extends AppCompatActivity {
 
         setTitle(R.string.text_mini_fen_shi);
 
-        List<FenShiTime> fenShiList = new ArrayList<>();
-        fenShiList.add(JsonUtils.getData((this), ("json/fen_shi2.json"), FenShiTime.class));
-        fenShiList.add(JsonUtils.getData((this), ("json/fen_shi3.json"), FenShiTime.class));
-        fenShiList.add(JsonUtils.getData((this), ("json/fen_shi4.json"), FenShiTime.class));
-        fenShiList.add(JsonUtils.getData((this), ("json/fen_shi5.json"), FenShiTime.class));
+        List<FenShiColumnData> fenShiList = new ArrayList<>();
+        fenShiList.add(JsonUtils.getFenShi((this), ("json/fen_shi2.json")));
+        fenShiList.add(JsonUtils.getFenShi((this), ("json/fen_shi3.json")));
+        fenShiList.add(JsonUtils.getFenShi((this), ("json/fen_shi4.json")));
+        fenShiList.add(JsonUtils.getFenShi((this), ("json/fen_shi5.json")));
 
         FlipperRecyclerView recyclerViewFlipper = findViewById(R.id.mini_fen_shi_activity_flipper_recycler_view);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
@@ -45,26 +45,26 @@ public class MiniFenShiActivity extends AppCompatActivity {
 
         MiniFenShiView miniFenShiView1 = findViewById(R.id.mini_fen_shi_activity_view1);
         TextView codeTextView1 = findViewById(R.id.mini_fen_shi_activity_code1);
-        FenShiTime fenShiTime1 = fenShiList.get(0);
+        FenShiColumnData fenShiTime1 = fenShiList.get(0);
         miniFenShiView1.setNewData(fenShiTime1);
-        codeTextView1.setText(fenShiTime1.getCode());
+        codeTextView1.setText(fenShiTime1.getFenShiCode());
 
         MiniFenShiView miniFenShiView2 = findViewById(R.id.mini_fen_shi_activity_view2);
         TextView codeTextView2 = findViewById(R.id.mini_fen_shi_activity_code2);
-        FenShiTime fenShiTime2 = fenShiList.get(1);
+        FenShiColumnData fenShiTime2 = fenShiList.get(1);
         miniFenShiView2.setNewData(fenShiTime2);
-        codeTextView2.setText(fenShiTime2.getCode());
+        codeTextView2.setText(fenShiTime2.getFenShiCode());
 
         MiniFenShiView miniFenShiView3 = findViewById(R.id.mini_fen_shi_activity_view3);
         TextView codeTextView3 = findViewById(R.id.mini_fen_shi_activity_code3);
-        FenShiTime fenShiTime3 = fenShiList.get(2);
+        FenShiColumnData fenShiTime3 = fenShiList.get(2);
         miniFenShiView3.setNewData(fenShiTime3);
-        codeTextView3.setText(fenShiTime3.getCode());
+        codeTextView3.setText(fenShiTime3.getFenShiCode());
 
         MiniFenShiView miniFenShiView4 = findViewById(R.id.mini_fen_shi_activity_view4);
         TextView codeTextView4 = findViewById(R.id.mini_fen_shi_activity_code4);
-        FenShiTime fenShiTime4 = fenShiList.get(3);
+        FenShiColumnData fenShiTime4 = fenShiList.get(3);
         miniFenShiView4.setNewData(fenShiTime4);
-        codeTextView4.setText(fenShiTime4.getCode());
+        codeTextView4.setText(fenShiTime4.getFenShiCode());
     }
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+package ysn.com.stockview.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.TimeUtils;
+import ysn.com.stockview.bean.FenShiTime;
+
+/**
+ * @Author yangsanning
+ * @ClassName ColumnJsonReader
+ * @Description 流式解析 json, 直接写入按列存放的数据(字段别名、null 的处理同 Gson 解析 {@link FenShiTime}、{@link ysn.com.stockview.bean.CapitalTime})
+ * 不依赖 Android, 转换工具 BinaryAssetConverter(src/test)也使用该类
+ * @Date 2020/8/27
+ */
+public class ColumnJsonReader {
+
+    /**
+     * 读取分时数组(如五日分时)
+     */
+    public static List<FenShiColumnData> readFenShiList(JsonReader reader) throws IOException {
+        List<FenShiColumnData> fenShiList = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            fenShiList.add(readFenShi(reader));
+        }
+        reader.endArray();
+        return fenShiList;
+    }
+
+    /**
+     * 读取资金对象(字段同 {@link ysn.com.stockview.bean.CapitalTime})
+     */
+    public static CapitalColumnData readCapital(JsonReader reader) throws IOException {
+        CapitalColumnData capital = new CapitalColumnData();
+        String date = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "code":
+                    capital.setCode(nextString(reader));
+                    break;
+                case "date":
+                    date = nextString(reader);
+                    break;
+                case "data":
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        readCapitalData(reader, capital);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        capital.setTime(date == null ? 0 : TimeUtils.formatYyyyMmDd(date));
+        return capital;
+    }
+
+    /**
+     * 读取一个分时对象(字段同 {@link FenShiTime})
+     */
+    public static FenShiColumnData readFenShi(JsonReader reader) throws IOException {
+        FenShiColumnData fenShi = new FenShiColumnData();
+        String date = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "date":
+                    date = nextString(reader);
+                    break;
+                case "settlement":
+                case "preSettlement":
+                    fenShi.setLastClose(nextFloat(reader, fenShi.getFenShiLastClose()));
+                    break;
+                case "code":
+                case "stockCode":
+                case "bkcode":
+                case "zscode":
+                    fenShi.setCode(nextString(reader));
+                    break;
+                case "totalCount":
+                case "nodeNumber":
+                    fenShi.setTotalCount((int) nextFloat(reader, fenShi.getTotalCount()));
+                    break;
+                case "data":
+                    readFenShiData(reader, fenShi);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        fenShi.setTime(date == null ? 0 : TimeUtils.formatYyyyMmDd(date));
+        return fenShi;
+    }
+
+    private static void readFenShiData(JsonReader reader, FenShiColumnData fenShi) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String time = null;
+            float price = 0, avePrice = 0, volume = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "dateTime":
+                    case "realDateTime":
+                    case "date":
+                        time = nextString(reader);
+                        break;
+                    case "trade":
+                    case "close":
+                        price = nextFloat(reader, price);
+                        break;
+                    case "avgPrice":
+                        avePrice = nextFloat(reader, avePrice);
+                        break;
+                    case "volume":
+                        volume = nextFloat(reader, volume);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            fenShi.add(time, price, avePrice, volume);
+        }
+        reader.endArray();
+    }
+
+    private static void readCapitalData(JsonReader reader, CapitalColumnData capital) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            float price = 0, financeInFlow = 0, mainInFlow = 0, retailInFlow = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "price":
+                        price = nextFloat(reader, price);
+                        break;
+                    case "financeInFlow":
+                        financeInFlow = nextFloat(reader, financeInFlow);
+                        break;
+                    case "mainInFlow":
+                        mainInFlow = nextFloat(reader, mainInFlow);
+                        break;
+                    case "retailInFlow":
+                        retailInFlow = nextFloat(reader, retailInFlow);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            capital.add(price, financeInFlow, mainInFlow, retailInFlow);
+        }
+        reader.endArray();
+    }
+
+    /**
+     * 读取字符串, null 返回 null
+     */
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * 读取数值(兼容带引号的数值), null 时保留原值(同 Gson)
+     */
+    private static float nextFloat(JsonReader reader, float value) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return value;
+        }
+        return (float) reader.nextDouble();
+    }
+}
@@ -1,17 +1,29 @@
 package ysn.com.stockview.utils;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
 import android.text.TextUtils;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Scanner;
 
-import ysn.com.stock.bean.IFenShi;
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.StockBinaryUtils;
 import ysn.com.stockview.bean.FenShiTime;
 
 /**
@@ -23,6 +35,9 @@ import ysn.com.stockview.bean.FenShiTime;
  */
 public class JsonUtils {
 
+    private static final String JSON_SUFFIX = ".json";
+    private static final String BINARY_SUFFIX = ".bin";
+
     /**
      * 获取去最原始的数据信息
      *
@@ -63,6 +78,126 @@ public class JsonUtils {
         return null;
     }
 
+    /**
+     * 读取分时数据, 存在同名的 .bin 文件时读取二进制格式(见 {@link StockBinaryUtils}), 否则流式解析 json
+     * 两种方式都直接写入按列存放的数据, 不会创建整个 json 字符串及每个点的对象
+     */
+    public static FenShiColumnData getFenShi(Context context, String fileName) {
+        if (TextUtils.isEmpty(fileName)) {
+            return null;
+        }
+        ByteBuffer buffer = openBinary(context, fileName);
+        if (buffer != null) {
+            try {
+                return StockBinaryUtils.decodeFenShi(buffer);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        try (JsonReader reader = openReader(context, fileName)) {
+            return ColumnJsonReader.readFenShi(reader);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 读取分时数据数组(如五日分时), 优先读取同名的 .bin 文件
+     */
+    public static List<FenShiColumnData> getFenShiList(Context context, String fileName) {
+        if (TextUtils.isEmpty(fileName)) {
+            return null;
+        }
+        ByteBuffer buffer = openBinary(context, fileName);
+        if (buffer != null) {
+            try {
+                return StockBinaryUtils.decodeFenShiList(buffer);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        try (JsonReader reader = openReader(context, fileName)) {
+            return ColumnJsonReader.readFenShiList(reader);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 读取资金数据(字段同 {@link ysn.com.stockview.bean.CapitalTime}), 优先读取同名的 .bin 文件
+     */
+    public static CapitalColumnData getCapital(Context context, String fileName) {
+        if (TextUtils.isEmpty(fileName)) {
+            return null;
+        }
+        ByteBuffer buffer = openBinary(context, fileName);
+        if (buffer != null) {
+            try {
+                return StockBinaryUtils.decodeCapital(buffer);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        try (JsonReader reader = openReader(context, fileName)) {
+            return ColumnJsonReader.readCapital(reader);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 打开 json 文件同名的 .bin 文件, 不存在时返回 null
+     * 未压缩的资源(build.gradle 中 noCompress "bin")直接映射, 否则读入内存
+     */
+    private static ByteBuffer openBinary(Context context, String fileName) {
+        if (!fileName.endsWith(JSON_SUFFIX)) {
+            return null;
+        }
+        String binaryName = fileName.substring(0, fileName.length() - JSON_SUFFIX.length()) + BINARY_SUFFIX;
+        AssetManager assets = context.getAssets();
+        AssetFileDescriptor fileDescriptor = null;
+        try {
+            fileDescriptor = assets.openFd(binaryName);
+            try (FileInputStream inputStream = fileDescriptor.createInputStream();
+                 FileChannel channel = inputStream.getChannel()) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, fileDescriptor.getStartOffset(), fileDescriptor.getLength());
+            }
+        } catch (IOException e) {
+            // 文件不存在或被压缩, 被压缩时读入内存
+            return readBinary(assets, binaryName);
+        } finally {
+            if (fileDescriptor != null) {
+                try {
+                    fileDescriptor.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer readBinary(AssetManager assets, String binaryName) {
+        try (InputStream inputStream = assets.open(binaryName)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(inputStream.available(), 1024));
+            byte[] bytes = new byte[8192];
+            int length;
+            while ((length = inputStream.read(bytes)) != -1) {
+                outputStream.write(bytes, 0, length);
+            }
+            return ByteBuffer.wrap(outputStream.toByteArray());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static JsonReader openReader(Context context, String fileName) throws IOException {
+        InputStream inputStream = context.getAssets().open(fileName);
+        return new JsonReader(new BufferedReader(new InputStreamReader(inputStream, Charset.forName("UTF-8"))));
+    }
+
     /**
      * input 流转换为字符串
      */
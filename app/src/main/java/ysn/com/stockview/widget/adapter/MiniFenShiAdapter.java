@@ -2,6 +2,7 @@ package ysn.com.stockview.widget.adapter;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -12,9 +13,10 @@ import android.widget.Toast;
 
 import java.util.List;
 
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.helper.MiniFenShiCache;
 import ysn.com.stock.view.MiniFenShiView;
 import ysn.com.stockview.R;
-import ysn.com.stockview.bean.FenShiTime;
 
 /**
  * @Author yangsanning
@@ -25,32 +27,123 @@ import ysn.com.stockview.bean.FenShiTime;
  */
 public class MiniFenShiAdapter extends RecyclerView.Adapter<MiniFenShiAdapter.MiniFenShiHolder> {
 
-    private List<FenShiTime> data;
+    /**
+     * 滚动时在后台预处理最后一个可见项之后的几项
+     */
+    private static final int PREFETCH_COUNT = 2;
+
+    private List<FenShiColumnData> data;
     private int size;
     private LayoutInflater inflate;
 
-    public MiniFenShiAdapter(List<FenShiTime> data, Context context) {
+    /**
+     * keys: 每项的缓存键(代码、数据版本), 数据变化时更新版本
+     * cache: 迷你分时预处理缓存(第一次创建控件时使用控件的配置创建)
+     * lastPrefetchPosition: 上一次预处理时最后一个可见项的位置
+     */
+    private MiniFenShiCache.Key[] keys;
+    private MiniFenShiCache cache;
+    private int lastPrefetchPosition = RecyclerView.NO_POSITION;
+
+    /**
+     * 滚动时预处理之后的几项(最后一个可见项变化时才处理), 绑定时只使用缓存
+     */
+    private RecyclerView.OnScrollListener prefetchScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+            if (cache == null || !(layoutManager instanceof LinearLayoutManager)) {
+                return;
+            }
+            int position = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+            if (position == RecyclerView.NO_POSITION || position == lastPrefetchPosition) {
+                return;
+            }
+            lastPrefetchPosition = position;
+            for (int i = 1; i <= PREFETCH_COUNT; i++) {
+                // 总数为 Integer.MAX_VALUE, 用 long 计算避免越界
+                prefetch((int) (((long) position + i) % size));
+            }
+        }
+    };
+
+    public MiniFenShiAdapter(List<FenShiColumnData> data, Context context) {
         this.data = data;
         size = this.data.size();
+        keys = new MiniFenShiCache.Key[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = new MiniFenShiCache.Key(getSymbol(i), 0);
+        }
         inflate = LayoutInflater.from(context);
     }
 
+    /**
+     * 更新某一项的数据(fenShi 设置之后不能再被修改)
+     */
+    public void updateData(int index, FenShiColumnData fenShi) {
+        data.set(index, fenShi);
+        keys[index] = keys[index].next();
+        lastPrefetchPosition = RecyclerView.NO_POSITION;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        recyclerView.addOnScrollListener(prefetchScrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(prefetchScrollListener);
+    }
+
     @NonNull
     @Override
     public MiniFenShiHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = inflate.inflate(R.layout.item_mini_fen_shi, parent, false);
-        return new MiniFenShiHolder(view);
+        MiniFenShiHolder holder = new MiniFenShiHolder(view);
+        if (cache == null) {
+            cache = new MiniFenShiCache(holder.miniFenShiView.getConfig());
+            for (int i = 0; i < Math.min(size, PREFETCH_COUNT + 1); i++) {
+                prefetch(i);
+            }
+        }
+        // 点击事件在创建时设置, 绑定时不创建对象
+        holder.itemView.setOnClickListener(itemView -> {
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            String code = data.get(position % size).getFenShiCode();
+            Toast.makeText(itemView.getContext(), code, Toast.LENGTH_SHORT).show();
+            Log.d("test", String.valueOf(code));
+        });
+        return holder;
     }
 
+    /**
+     * 直接使用预处理好的数据(与点数无关)
+     */
     @Override
     public void onBindViewHolder(@NonNull MiniFenShiHolder holder, int position) {
-        FenShiTime fenShiTime = data.get(position % size);
-        holder.codeTextView.setText(fenShiTime.getCode());
-        holder.miniFenShiView.setNewData(fenShiTime);
-        holder.itemView.setOnClickListener(view -> {
-            Toast.makeText(view.getContext(), fenShiTime.getCode(), Toast.LENGTH_SHORT).show();
-            Log.d("test", fenShiTime.getCode());
-        });
+        int index = position % size;
+        FenShiColumnData fenShi = data.get(index);
+        holder.codeTextView.setText(fenShi.getFenShiCode());
+        holder.miniFenShiView.setNewData(cache, keys[index], fenShi);
+    }
+
+    private void prefetch(int index) {
+        cache.prefetch(keys[index], data.get(index));
+    }
+
+    /**
+     * 缓存使用的代码, 没有代码时使用位置
+     */
+    private String getSymbol(int index) {
+        String code = data.get(index).getFenShiCode();
+        return code != null ? code : String.valueOf(index);
     }
 
     @Override
@@ -0,0 +1,79 @@
+package ysn.com.stockview.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.StockBinaryUtils;
+
+/**
+ * @Author yangsanning
+ * @ClassName BinaryAssetConverter
+ * @Description 把 assets/json 下的分时、资金 json 转换为同名的 .bin 文件(见 {@link StockBinaryUtils}), {@link JsonUtils} 优先读取 .bin 文件
+ * 开发工具, 放在 src/test 中不打包进 apk; 在电脑上运行(不依赖 Android), 修改 json 或格式版本后需要重新转换:
+ * java -cp gson.jar:stock 的 classes:app 的 classes 及 test classes ysn.com.stockview.utils.BinaryAssetConverter [app/src/main/assets/json]
+ * @Date 2020/8/27
+ */
+public class BinaryAssetConverter {
+
+    private static final String DEFAULT_DIRECTORY = "app/src/main/assets/json";
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            System.err.println("not a directory: " + directory);
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            File binaryFile = new File(directory, name.substring(0, name.length() - ".json".length()) + ".bin");
+            byte[] bytes = convert(file);
+            if (bytes == null) {
+                System.out.println("skip " + name);
+                continue;
+            }
+            try (OutputStream outputStream = new FileOutputStream(binaryFile)) {
+                outputStream.write(bytes);
+            }
+            System.out.println(name + " (" + file.length() + " bytes) -> " + binaryFile.getName() + " (" + bytes.length + " bytes)");
+        }
+    }
+
+    /**
+     * @return 转换后的数据, 不是分时、资金数据时返回 null
+     */
+    private static byte[] convert(File file) throws IOException {
+        byte[] fileBytes = new byte[(int) file.length()];
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(file))) {
+            inputStream.readFully(fileBytes);
+        }
+        String json = new String(fileBytes, Charset.forName("UTF-8"));
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (json.contains("\"financeInFlow\"")) {
+                CapitalColumnData capital = ColumnJsonReader.readCapital(reader);
+                return capital.size() > 0 ? StockBinaryUtils.encodeCapital(capital) : null;
+            }
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                List<FenShiColumnData> fenShiList = ColumnJsonReader.readFenShiList(reader);
+                return fenShiList.isEmpty() ? null : StockBinaryUtils.encodeFenShiList(fenShiList);
+            }
+            FenShiColumnData fenShi = ColumnJsonReader.readFenShi(reader);
+            return fenShi.size() > 0 ? StockBinaryUtils.encodeFenShi(fenShi) : null;
+        } catch (RuntimeException | IOException e) {
+            // 其它结构的 json(如盈亏数据)
+            return null;
+        }
+    }
+}
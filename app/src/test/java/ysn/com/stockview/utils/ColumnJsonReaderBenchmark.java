@@ -0,0 +1,85 @@
+package ysn.com.stockview.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.StockBinaryUtils;
+import ysn.com.stockview.bean.FenShiTime;
+
+/**
+ * @Author yangsanning
+ * @ClassName ColumnJsonReaderBenchmark
+ * @Description 五日分时的读取对比: 原 Gson 方式(整个字符串 + 每个点的对象)、{@link ColumnJsonReader} 流式解析、.bin 文件解码
+ * 文件预先读入内存, 只比较解析(路径相对于 app 模块目录, 即 jmh 任务的工作目录); 运行: ./gradlew :app:jmh -PjmhArgs="ColumnJsonReaderBenchmark -prof gc"
+ * @Date 2020/8/30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnJsonReaderBenchmark {
+
+    private static final String FILE_NAME = "src/main/assets/json/five_day_fen_shi_top_four";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Type FEN_SHI_LIST_TYPE = new TypeToken<List<FenShiTime>>() {
+    }.getType();
+
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        jsonBytes = Files.readAllBytes(Paths.get(FILE_NAME + ".json"));
+        binaryBytes = Files.readAllBytes(Paths.get(FILE_NAME + ".bin"));
+    }
+
+    /**
+     * 原 JsonUtils.getDataList
+     */
+    @Benchmark
+    public List<FenShiTime> gson() {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(jsonBytes), "UTF-8").useDelimiter("\\A");
+        return new Gson().fromJson(scanner.next(), FEN_SHI_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<FenShiColumnData> columnJsonReader() throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(jsonBytes), UTF_8))) {
+            return ColumnJsonReader.readFenShiList(reader);
+        }
+    }
+
+    @Benchmark
+    public List<FenShiColumnData> binary() {
+        return StockBinaryUtils.decodeFenShiList(ByteBuffer.wrap(binaryBytes));
+    }
+}
@@ -0,0 +1,112 @@
+package ysn.com.stock.config;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import ysn.com.stock.R;
+import ysn.com.stock.utils.ResUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * @Author yangsanning
+ * @ClassName StockPaletteBenchmark
+ * @Description 分时图每帧的取色开销: 逐点 Resources.getColor 与读取 {@link StockPalette}
+ * 按 240 个点且启用下表格计算: 每个点取一次柱形图涨跌色和一次价格线颜色, 另有坐标文本等固定的 8 次取色
+ * 在真机上运行(Resources 的开销与设备相关), 结果输出到 logcat(tag: StockPaletteBenchmark)
+ * @Date 2020/8/30
+ */
+@RunWith(AndroidJUnit4.class)
+public class StockPaletteBenchmark {
+
+    private static final String TAG = "StockPaletteBenchmark";
+
+    private static final int POINT_COUNT = 240;
+    private static final int FIXED_LOOKUP_COUNT = 8;
+    private static final int WARM_UP_FRAMES = 200;
+    private static final int FRAMES = 2000;
+
+    private Context context;
+    private StockPalette palette;
+
+    /**
+     * 累加取到的颜色, 避免取色被优化掉
+     */
+    private int sink;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        palette = new StockPalette(context);
+    }
+
+    @Test
+    public void paletteMatchesResources() {
+        assertEquals(ResUtils.getColor(context, R.color.stock_red), palette.redColor);
+        assertEquals(ResUtils.getColor(context, R.color.stock_green), palette.greenColor);
+        assertEquals(ResUtils.getColor(context, R.color.stock_price_line), palette.priceLineColor);
+        assertEquals(ResUtils.getColor(context, R.color.stock_ave_price_line), palette.avePriceLineColor);
+        assertEquals(ResUtils.getColor(context, R.color.stock_text_title), palette.textTitleColor);
+        assertEquals(ResUtils.getColor(context, R.color.stock_middle_round_rect), palette.middleRoundRectColor);
+    }
+
+    @Test
+    public void perFrameColorLookup() {
+        float[] prices = new float[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            prices[i] = 10 + (float) Math.sin(i / 10.0);
+        }
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            resourcesFrame(prices);
+            paletteFrame(prices);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            resourcesFrame(prices);
+        }
+        long resourcesNanos = (System.nanoTime() - start) / FRAMES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            paletteFrame(prices);
+        }
+        long paletteNanos = (System.nanoTime() - start) / FRAMES;
+
+        Log.i(TAG, "Resources.getColor: " + resourcesNanos + " ns/frame, StockPalette: " + paletteNanos
+                + " ns/frame, saved " + (resourcesNanos - paletteNanos) + " ns/frame");
+        assertNotEquals(0, sink);
+    }
+
+    /**
+     * 改动前每帧的取色方式
+     */
+    private void resourcesFrame(float[] prices) {
+        for (int i = 0; i < FIXED_LOOKUP_COUNT; i++) {
+            sink += ResUtils.getColor(context, R.color.stock_text_title);
+        }
+        for (int i = 0; i < POINT_COUNT; i++) {
+            float compare = i == 0 ? 10 : prices[i - 1];
+            sink += ResUtils.getColor(context, prices[i] >= compare ? R.color.stock_red : R.color.stock_green);
+            sink += ResUtils.getColor(context, R.color.stock_price_line);
+        }
+    }
+
+    private void paletteFrame(float[] prices) {
+        for (int i = 0; i < FIXED_LOOKUP_COUNT; i++) {
+            sink += palette.textTitleColor;
+        }
+        for (int i = 0; i < POINT_COUNT; i++) {
+            sink += palette.getTrendColor(prices[i], i == 0 ? 10 : prices[i - 1]);
+            sink += palette.priceLineColor;
+        }
+    }
+}
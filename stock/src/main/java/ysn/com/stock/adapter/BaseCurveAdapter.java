@@ -11,6 +11,56 @@ import android.graphics.Paint;
  */
 public abstract class BaseCurveAdapter {
 
+    /**
+     * 批量模式的线段缓存(每 4 个值为一条线段), 以及有效长度
+     */
+    private float[] segments = new float[0];
+    private int segmentLength;
+
+    /**
+     * 批量模式: 将整条曲线投影到线段缓存中, 只需在数据或尺寸变化时调用
+     * 与 {@link #draw(Canvas, Paint, int)} 一样跳过为 0 以及超出表格范围的点
+     *
+     * @param size 数据长度
+     */
+    public void prepare(int size) {
+        segmentLength = 0;
+        if (size < 2) {
+            return;
+        }
+        int length = (size - 1) * 4;
+        if (segments.length < length) {
+            segments = new float[length];
+        }
+
+        float maxY = getMaxY(), minY = getMinY();
+        float value = getValue(0);
+        float startY = getDrawY(value);
+        for (int position = 0; position < size - 1; position++) {
+            int nextPosition = position + 1;
+            float nextValue = getValue(nextPosition);
+            float stopY = getDrawY(nextValue);
+            if (value != 0 && nextValue != 0 && !isOutOfRange(maxY, minY, startY) && !isOutOfRange(maxY, minY, stopY)) {
+                segments[segmentLength++] = getDrawX(position);
+                segments[segmentLength++] = startY;
+                segments[segmentLength++] = getDrawX(nextPosition);
+                segments[segmentLength++] = stopY;
+            }
+            // 下一段的起点即为本段的终点, 不需要重复取值与投影
+            value = nextValue;
+            startY = stopY;
+        }
+    }
+
+    /**
+     * 批量模式: 使用 {@link #prepare(int)} 生成的线段缓存一次绘制整条曲线
+     */
+    public void drawPrepared(Canvas canvas, Paint paint) {
+        if (segmentLength > 0) {
+            canvas.drawLines(segments, 0, segmentLength, paint);
+        }
+    }
+
     /**
      * 绘制曲线
      * 注意: 最后一个点不用传进来，否则会引起空指针
@@ -0,0 +1,145 @@
+package ysn.com.stock.bean;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * @Author yangsanning
+ * @ClassName CapitalColumnData
+ * @Description 按列存放的资金数据(价格、总资金净流入、主力净流入、散户净流入), 解析时直接写入, 不会为每个点创建对象
+ * 代码、昨收、总点数、日期随数据一同保存(见 StockBinaryUtils)
+ * @Date 2020/8/26
+ */
+public class CapitalColumnData {
+
+    private String code;
+    private float lastClose;
+    private int totalCount;
+    private long time;
+
+    private float[] prices;
+    private float[] financeInFlows;
+    private float[] mainInFlows;
+    private float[] retailInFlows;
+    private int size;
+
+    public CapitalColumnData() {
+        this(256);
+    }
+
+    public CapitalColumnData(int capacity) {
+        capacity = Math.max(capacity, 1);
+        prices = new float[capacity];
+        financeInFlows = new float[capacity];
+        mainInFlows = new float[capacity];
+        retailInFlows = new float[capacity];
+    }
+
+    /**
+     * 追加一个点
+     */
+    public void add(float price, float financeInFlow, float mainInFlow, float retailInFlow) {
+        if (size == prices.length) {
+            int capacity = size + (size >> 1) + 1;
+            prices = Arrays.copyOf(prices, capacity);
+            financeInFlows = Arrays.copyOf(financeInFlows, capacity);
+            mainInFlows = Arrays.copyOf(mainInFlows, capacity);
+            retailInFlows = Arrays.copyOf(retailInFlows, capacity);
+        }
+        prices[size] = price;
+        financeInFlows[size] = financeInFlow;
+        mainInFlows[size] = mainInFlow;
+        retailInFlows[size] = retailInFlow;
+        size++;
+    }
+
+    /**
+     * 直接使用已解码的列(不复制), 之后不能再修改传入的数组
+     *
+     * @param size 有效长度
+     */
+    public void setColumns(@NonNull float[] prices, @NonNull float[] financeInFlows, @NonNull float[] mainInFlows,
+                           @NonNull float[] retailInFlows, @IntRange(from = 0) int size) {
+        this.prices = prices;
+        this.financeInFlows = financeInFlows;
+        this.mainInFlows = mainInFlows;
+        this.retailInFlows = retailInFlows;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public void setLastClose(float lastClose) {
+        this.lastClose = lastClose;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @param time 日期的时间戳
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public float getLastClose() {
+        return lastClose;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return 日期的时间戳
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public float getPrice(@IntRange(from = 0) int position) {
+        return prices[position];
+    }
+
+    /**
+     * 价格列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] prices() {
+        return prices;
+    }
+
+    /**
+     * 总资金净流入列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] financeInFlows() {
+        return financeInFlows;
+    }
+
+    /**
+     * 主力净流入列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] mainInFlows() {
+        return mainInFlows;
+    }
+
+    /**
+     * 散户净流入列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] retailInFlows() {
+        return retailInFlows;
+    }
+}
@@ -6,7 +6,7 @@ package ysn.com.stock.bean;
  * @Description 极值(最大值 、 最小值 、 极差)
  * @Date 2020/7/9
  */
-public class Extremum implements IExtremum{
+public class Extremum implements IExtremum {
 
     /**
      * 最大值
@@ -49,14 +49,90 @@ public class Extremum implements IExtremum{
     /**
      * 进行最大值和最小值比较
      */
+    public void convert(float value) {
+        if (maximum < value) {
+            maximum = value;
+        }
+        if (minimum > value) {
+            minimum = value;
+        }
+    }
+
+    /**
+     * 进行最大值和最小值比较(每次调用都会创建数组, 批量数据请使用 {@link #convert(float[], int, int)})
+     */
     public void convert(float... values) {
         for (float value : values) {
-            if (maximum < value) {
-                maximum = value;
-            } else if (minimum > value) {
-                minimum = value;
-            }
+            convert(value);
+        }
+    }
+
+    /**
+     * 批量比较 [from, to) 范围内的值
+     *
+     * @param values 数据
+     * @param from   起始位置(包含)
+     * @param to     结束位置(不包含)
+     */
+    public void convert(float[] values, int from, int to) {
+        float max = maximum, min = minimum;
+        // 两组比较值交替使用, 减少前后比较之间的依赖
+        float max2 = max, min2 = min;
+        int i = from;
+        for (int end = to - 3; i < end; i += 4) {
+            float v0 = values[i], v1 = values[i + 1], v2 = values[i + 2], v3 = values[i + 3];
+            max = max(max, v0, v1);
+            min = min(min, v0, v1);
+            max2 = max(max2, v2, v3);
+            min2 = min(min2, v2, v3);
+        }
+        for (; i < to; i++) {
+            float value = values[i];
+            max = max < value ? value : max;
+            min = min > value ? value : min;
+        }
+        maximum = max < max2 ? max2 : max;
+        minimum = min > min2 ? min2 : min;
+    }
+
+    /**
+     * 与 {@link #convert(float)} 一致, 使用比较而不是 Math.max, NaN 不参与比较
+     */
+    private static float max(float max, float v0, float v1) {
+        max = max < v0 ? v0 : max;
+        return max < v1 ? v1 : max;
+    }
+
+    private static float min(float min, float v0, float v1) {
+        min = min > v0 ? v0 : min;
+        return min > v1 ? v1 : min;
+    }
+
+    /**
+     * 一次遍历计算多组数据 [from, to) 范围内的极值(最大值 、 最小值 、 极差)
+     * 数据为空时重置极值
+     *
+     * @param seriesList 多组数据, 长度均不小于 to
+     */
+    public void calculate(int from, int to, float[]... seriesList) {
+        if (from >= to || seriesList.length == 0) {
+            reset();
+            return;
         }
+        init(seriesList[0][from]);
+        for (float[] series : seriesList) {
+            convert(series, from, to);
+        }
+        calculatePeek();
+    }
+
+    /**
+     * 合并两个极值(取两者的最大值和最小值), 并计算极差
+     */
+    public void merge(IExtremum first, IExtremum second) {
+        maximum = Math.max(first.getMaximum(), second.getMaximum());
+        minimum = Math.min(first.getMinimum(), second.getMinimum());
+        calculatePeek();
     }
 
     public void setMaximum(float maximum) {
@@ -0,0 +1,192 @@
+package ysn.com.stock.bean;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @Author yangsanning
+ * @ClassName FenShiColumnData
+ * @Description 按列存放的分时数据(价格、均价、成交量、时间), 解析时直接写入, 不会为每个点创建对象
+ * 数据管理器识别该类型时直接读取列, {@link #getFenShiData()} 仅用于兼容按点读取的场景
+ * @Date 2020/8/26
+ */
+public class FenShiColumnData implements IFenShi {
+
+    private String code;
+    private float lastClose;
+    private int totalCount;
+    private long time;
+
+    private float[] prices;
+    private float[] avePrices;
+    private float[] volumes;
+    private String[] times;
+    private int size;
+
+    /**
+     * 按点读取的视图, 首次调用 {@link #getFenShiData()} 时创建
+     */
+    private List<IFenShiData> pointList;
+
+    public FenShiColumnData() {
+        this(256);
+    }
+
+    public FenShiColumnData(int capacity) {
+        capacity = Math.max(capacity, 1);
+        prices = new float[capacity];
+        avePrices = new float[capacity];
+        volumes = new float[capacity];
+        times = new String[capacity];
+    }
+
+    /**
+     * 追加一个点
+     */
+    public void add(@Nullable String time, float price, float avePrice, float volume) {
+        if (size == prices.length) {
+            int capacity = size + (size >> 1) + 1;
+            prices = Arrays.copyOf(prices, capacity);
+            avePrices = Arrays.copyOf(avePrices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        times[size] = time;
+        prices[size] = price;
+        avePrices[size] = avePrice;
+        volumes[size] = volume;
+        size++;
+    }
+
+    /**
+     * 直接使用已解码的列(不复制), 之后不能再修改传入的数组
+     *
+     * @param size 有效长度
+     */
+    public void setColumns(@NonNull String[] times, @NonNull float[] prices, @NonNull float[] avePrices,
+                           @NonNull float[] volumes, @IntRange(from = 0) int size) {
+        this.times = times;
+        this.prices = prices;
+        this.avePrices = avePrices;
+        this.volumes = volumes;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getPrice(@IntRange(from = 0) int position) {
+        return prices[position];
+    }
+
+    public float getAvePrice(@IntRange(from = 0) int position) {
+        return avePrices[position];
+    }
+
+    public float getVolume(@IntRange(from = 0) int position) {
+        return volumes[position];
+    }
+
+    public String getTime(@IntRange(from = 0) int position) {
+        return times[position];
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public void setLastClose(float lastClose) {
+        this.lastClose = lastClose;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @param time 日期的时间戳
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    @Override
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public String getFenShiCode() {
+        return code;
+    }
+
+    @NonNull
+    @Override
+    public List<? extends IFenShiData> getFenShiData() {
+        if (pointList == null) {
+            pointList = new AbstractList<IFenShiData>() {
+                @Override
+                public IFenShiData get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+                    }
+                    return new Point(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return pointList;
+    }
+
+    @Override
+    public float getFenShiLastClose() {
+        return lastClose;
+    }
+
+    @Override
+    public long getFenShiTime() {
+        return time;
+    }
+
+    /**
+     * 单个点的视图
+     */
+    private class Point implements IFenShiData {
+
+        private final int position;
+
+        Point(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public String getFenShiTime() {
+            return times[position];
+        }
+
+        @Override
+        public float getFenShiPrice() {
+            return prices[position];
+        }
+
+        @Override
+        public float getFenShiVolume() {
+            return volumes[position];
+        }
+
+        @Override
+        public float getFenShiAvgPrice() {
+            return avePrices[position];
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package ysn.com.stock.bean;
+
+import android.support.annotation.IntRange;
+
+import java.util.Arrays;
+
+/**
+ * @Author yangsanning
+ * @ClassName FenShiColumns
+ * @Description 分时点的列式存储(价格、均价、成交量、分钟索引), 避免 List<Float> 装箱
+ * @Date 2020/8/10
+ */
+public class FenShiColumns {
+
+    /**
+     * 默认容量(A股一个交易日 240 个点, 预留开盘点及收盘点)
+     */
+    private static final int DEFAULT_CAPACITY = 242;
+
+    /**
+     * prices: 价格列
+     * avePrices: 均价列
+     * volumes: 成交量列
+     * slots: 分钟索引列(即该点在表格上的位置)
+     */
+    private float[] prices;
+    private float[] avePrices;
+    private float[] volumes;
+    private int[] slots;
+
+    /**
+     * 涨跌位图, 第 n 位为 1 表示第 n 个点上涨(价格大于等于对比价), 数据录入时计算, 用于成交量柱形图按颜色批量绘制
+     */
+    private long[] risingBits;
+
+    /**
+     * 价格、均价、成交量的区间极值索引, 随数据录入增量更新
+     */
+    private RangeExtremum priceRange;
+    private RangeExtremum avePriceRange;
+    private RangeExtremum volumeRange;
+
+    /**
+     * 当前点数
+     */
+    private int size;
+
+    public FenShiColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FenShiColumns(int capacity) {
+        capacity = Math.max(capacity, 1);
+        prices = new float[capacity];
+        avePrices = new float[capacity];
+        volumes = new float[capacity];
+        slots = new int[capacity];
+        risingBits = new long[getBitsLength(capacity)];
+        priceRange = new RangeExtremum(capacity);
+        avePriceRange = new RangeExtremum(capacity);
+        volumeRange = new RangeExtremum(capacity);
+    }
+
+    private static int getBitsLength(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * 清空数据(保留已分配的数组)
+     */
+    public void clear() {
+        size = 0;
+        priceRange.clear();
+        avePriceRange.clear();
+        volumeRange.clear();
+    }
+
+    /**
+     * 移除前 count 个点, 后面的点整体前移(用于多日数据滚动)
+     */
+    public void removeFirst(@IntRange(from = 0) int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (count >= size) {
+            clear();
+            return;
+        }
+        int newSize = size - count;
+        System.arraycopy(prices, count, prices, 0, newSize);
+        System.arraycopy(avePrices, count, avePrices, 0, newSize);
+        System.arraycopy(volumes, count, volumes, 0, newSize);
+        System.arraycopy(slots, count, slots, 0, newSize);
+        shiftRisingBits(count, newSize);
+        priceRange.removeFirst(count);
+        avePriceRange.removeFirst(count);
+        volumeRange.removeFirst(count);
+        size = newSize;
+    }
+
+    /**
+     * 涨跌位图整体右移 count 位(即第 count 个点变为第 0 个点)
+     */
+    private void shiftRisingBits(int count, int newSize) {
+        int wordShift = count >>> 6;
+        int bitShift = count & 63;
+        int words = getBitsLength(newSize);
+        for (int i = 0; i < words; i++) {
+            long low = risingBits[i + wordShift] >>> bitShift;
+            int highIndex = i + wordShift + 1;
+            long high = bitShift == 0 || highIndex >= risingBits.length ? 0 : risingBits[highIndex] << (64 - bitShift);
+            risingBits[i] = low | high;
+        }
+    }
+
+    /**
+     * 只保留前 newSize 个点(用于替换最后一天的数据)
+     */
+    public void truncate(@IntRange(from = 0) int newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        size = newSize;
+        priceRange.truncate(newSize);
+        avePriceRange.truncate(newSize);
+        volumeRange.truncate(newSize);
+    }
+
+    /**
+     * 确保容量足够, 不够时按 1.5 倍扩容
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= prices.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, prices.length + (prices.length >> 1));
+        prices = Arrays.copyOf(prices, newCapacity);
+        avePrices = Arrays.copyOf(avePrices, newCapacity);
+        volumes = Arrays.copyOf(volumes, newCapacity);
+        slots = Arrays.copyOf(slots, newCapacity);
+        risingBits = Arrays.copyOf(risingBits, getBitsLength(newCapacity));
+    }
+
+    /**
+     * 追加一个点
+     *
+     * @return 新增点的 position
+     */
+    public int add(int slot, float price, float avePrice, float volume) {
+        ensureCapacity(size + 1);
+        slots[size] = slot;
+        prices[size] = price;
+        avePrices[size] = avePrice;
+        volumes[size] = volume;
+        priceRange.add(price);
+        avePriceRange.add(avePrice);
+        volumeRange.add(volume);
+        return size++;
+    }
+
+    /**
+     * 覆盖指定 position 的点
+     */
+    public void set(@IntRange(from = 0) int position, int slot, float price, float avePrice, float volume) {
+        slots[position] = slot;
+        prices[position] = price;
+        avePrices[position] = avePrice;
+        volumes[position] = volume;
+        priceRange.set(position, price);
+        avePriceRange.set(position, avePrice);
+        volumeRange.set(position, volume);
+    }
+
+    /**
+     * 设置指定 position 的涨跌
+     *
+     * @param isRising 是否上涨(价格大于等于对比价)
+     */
+    public void setRising(@IntRange(from = 0) int position, boolean isRising) {
+        if (isRising) {
+            risingBits[position >>> 6] |= 1L << position;
+        } else {
+            risingBits[position >>> 6] &= ~(1L << position);
+        }
+    }
+
+    /**
+     * 指定 position 是否上涨
+     */
+    public boolean isRising(@IntRange(from = 0) int position) {
+        return (risingBits[position >>> 6] & (1L << position)) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getLastPosition() {
+        return size - 1;
+    }
+
+    public float getPrice(@IntRange(from = 0) int position) {
+        return position < size ? prices[position] : 0;
+    }
+
+    public float getAvePrice(@IntRange(from = 0) int position) {
+        return position < size ? avePrices[position] : 0;
+    }
+
+    public float getVolume(@IntRange(from = 0) int position) {
+        return position < size ? volumes[position] : 0;
+    }
+
+    public int getSlot(@IntRange(from = 0) int position) {
+        return position < size ? slots[position] : 0;
+    }
+
+    /**
+     * 价格区间极值索引
+     */
+    public RangeExtremum getPriceRange() {
+        return priceRange;
+    }
+
+    /**
+     * 均价区间极值索引
+     */
+    public RangeExtremum getAvePriceRange() {
+        return avePriceRange;
+    }
+
+    /**
+     * 成交量区间极值索引
+     */
+    public RangeExtremum getVolumeRange() {
+        return volumeRange;
+    }
+
+    /**
+     * 价格列原始数组, 有效长度为 {@link #size()}, 只读, 供批量计算使用
+     */
+    public float[] prices() {
+        return prices;
+    }
+
+    /**
+     * 均价列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] avePrices() {
+        return avePrices;
+    }
+
+    /**
+     * 成交量列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public float[] volumes() {
+        return volumes;
+    }
+
+    /**
+     * 分钟索引列原始数组, 有效长度为 {@link #size()}, 只读
+     */
+    public int[] slots() {
+        return slots;
+    }
+}
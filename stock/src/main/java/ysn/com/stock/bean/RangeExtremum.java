@@ -0,0 +1,200 @@
+package ysn.com.stock.bean;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * @Author yangsanning
+ * @ClassName RangeExtremum
+ * @Description 区间极值索引(稀疏表)
+ * 第 k 层第 i 个值为 [i, i + 2^k) 范围内的极值, 任意区间的最大值、最小值查询为 O(1);
+ * 追加点以及更新最后一个点只需重新计算包含该点的 log(n) 个值, 缩放、平移时可按可见区间实时计算坐标范围;
+ * 移除前面的值(多日数据滚动)只需将每层整体前移
+ * @Date 2020/8/19
+ */
+public class RangeExtremum {
+
+    /**
+     * maxTable: 最大值稀疏表
+     * minTable: 最小值稀疏表
+     */
+    private float[][] maxTable;
+    private float[][] minTable;
+
+    /**
+     * capacity: 每层数组的容量
+     * size: 当前点数
+     */
+    private int capacity;
+    private int size;
+
+    public RangeExtremum(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        maxTable = new float[][]{new float[this.capacity]};
+        minTable = new float[][]{new float[this.capacity]};
+    }
+
+    /**
+     * 清空数据(保留已分配的数组)
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加一个值
+     */
+    public void add(float value) {
+        ensureCapacity(size + 1);
+        int position = size++;
+        ensureLevels();
+        maxTable[0][position] = minTable[0][position] = value;
+        update(position);
+    }
+
+    /**
+     * 覆盖指定 position 的值, 更新最后一个点为 O(log n), 其余位置最坏为 O(n)
+     */
+    public void set(@IntRange(from = 0) int position, float value) {
+        if (position >= size) {
+            return;
+        }
+        maxTable[0][position] = minTable[0][position] = value;
+        update(position);
+    }
+
+    /**
+     * 移除前 count 个值, 区间内容不变, 每层整体前移即可, 不需要重新比较
+     */
+    public void removeFirst(@IntRange(from = 0) int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (count >= size) {
+            clear();
+            return;
+        }
+        int newSize = size - count;
+        for (int level = 0; level < maxTable.length; level++) {
+            // 第 level 层有效的值为 [0, size - 2^level]
+            int length = newSize - (1 << level) + 1;
+            if (length <= 0) {
+                break;
+            }
+            System.arraycopy(maxTable[level], count, maxTable[level], 0, length);
+            System.arraycopy(minTable[level], count, minTable[level], 0, length);
+        }
+        size = newSize;
+    }
+
+    /**
+     * 只保留前 newSize 个值, 剩余区间不受影响
+     */
+    public void truncate(@IntRange(from = 0) int newSize) {
+        if (newSize < size) {
+            size = newSize;
+        }
+    }
+
+    /**
+     * 重新计算包含 position 的所有区间
+     */
+    private void update(int position) {
+        for (int level = 1; level < maxTable.length; level++) {
+            int length = 1 << level;
+            int half = length >> 1;
+            float[] max = maxTable[level], min = minTable[level];
+            float[] lowerMax = maxTable[level - 1], lowerMin = minTable[level - 1];
+            int end = Math.min(position, size - length);
+            for (int i = Math.max(0, position - length + 1); i <= end; i++) {
+                max[i] = Math.max(lowerMax[i], lowerMax[i + half]);
+                min[i] = Math.min(lowerMin[i], lowerMin[i + half]);
+            }
+        }
+    }
+
+    /**
+     * 点数达到 2^k 时增加第 k 层
+     */
+    private void ensureLevels() {
+        int levels = getLevel(size) + 1;
+        if (levels > maxTable.length) {
+            int oldLevels = maxTable.length;
+            maxTable = Arrays.copyOf(maxTable, levels);
+            minTable = Arrays.copyOf(minTable, levels);
+            for (int level = oldLevels; level < levels; level++) {
+                maxTable[level] = new float[capacity];
+                minTable[level] = new float[capacity];
+            }
+        }
+    }
+
+    private void ensureCapacity(int newSize) {
+        if (newSize <= capacity) {
+            return;
+        }
+        capacity = Math.max(newSize, capacity + (capacity >> 1));
+        for (int level = 0; level < maxTable.length; level++) {
+            maxTable[level] = Arrays.copyOf(maxTable[level], capacity);
+            minTable[level] = Arrays.copyOf(minTable[level], capacity);
+        }
+    }
+
+    /**
+     * 向下取整的 log2
+     */
+    private static int getLevel(int length) {
+        return 31 - Integer.numberOfLeadingZeros(length);
+    }
+
+    /**
+     * [from, to) 范围内的最大值, 范围为空时返回 0
+     *
+     * @param from 起始位置(包含)
+     * @param to   结束位置(不包含)
+     */
+    public float getMaximum(@IntRange(from = 0) int from, int to) {
+        to = Math.min(to, size);
+        if (from >= to) {
+            return 0;
+        }
+        int level = getLevel(to - from);
+        float[] max = maxTable[level];
+        return Math.max(max[from], max[to - (1 << level)]);
+    }
+
+    /**
+     * [from, to) 范围内的最小值, 范围为空时返回 0
+     *
+     * @param from 起始位置(包含)
+     * @param to   结束位置(不包含)
+     */
+    public float getMinimum(@IntRange(from = 0) int from, int to) {
+        to = Math.min(to, size);
+        if (from >= to) {
+            return 0;
+        }
+        int level = getLevel(to - from);
+        float[] min = minTable[level];
+        return Math.min(min[from], min[to - (1 << level)]);
+    }
+
+    /**
+     * 计算 [from, to) 范围内的极值(最大值 、 最小值 、 极差), 范围为空时重置极值
+     */
+    public void getExtremum(@IntRange(from = 0) int from, int to, @NonNull Extremum extremum) {
+        if (from >= Math.min(to, size)) {
+            extremum.reset();
+            return;
+        }
+        extremum.setMaximum(getMaximum(from, to));
+        extremum.setMinimum(getMinimum(from, to));
+        extremum.calculatePeek();
+    }
+}
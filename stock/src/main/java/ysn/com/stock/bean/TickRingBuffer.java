@@ -0,0 +1,279 @@
+package ysn.com.stock.bean;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ysn.com.stock.utils.TradingSession;
+
+/**
+ * @Author yangsanning
+ * @ClassName TickRingBuffer
+ * @Description 单生产者、单消费者的无锁 tick 环形缓冲(位置、分钟、价格、均价、成交量按列存放)
+ * 网络线程通过 {@link #offer(int, int, float, float, float)} 写入, 主线程每帧通过 {@link #drain(TickConsumer)} 读取,
+ * 读取时同一位置的连续 tick 只保留最后一个; 写入、读取都不会创建对象
+ * 缓冲已满时新的 tick 按位置写入溢出表(每个位置只保留最新一个), 位置总数有限, 内存占用固定, 不会丢失整个位置的数据
+ * @Date 2020/8/24
+ */
+public class TickRingBuffer {
+
+    /**
+     * 默认容量
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * 没有待处理的溢出记录
+     */
+    private static final long NO_OVERFLOW = Long.MAX_VALUE;
+
+    /**
+     * 溢出表中每条记录的值(分钟、价格、均价、成交量)
+     */
+    private static final int OVERFLOW_STRIDE = 4;
+
+    private final int capacity;
+    private final int mask;
+    private final int slotCount;
+
+    /**
+     * 按列存放的 tick
+     */
+    private final int[] slots;
+    private final int[] minutes;
+    private final float[] prices;
+    private final float[] avePrices;
+    private final float[] volumes;
+
+    /**
+     * head: 下一个读取的序号(只由消费者写入)
+     * tail: 下一个写入的序号(只由生产者写入)
+     * headCache: 生产者缓存的 head, 缓冲看起来已满时才重新读取
+     */
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long headCache;
+
+    /**
+     * 溢出表(按位置, 每条记录由各自的顺序锁保护: 写入时为奇数, 写完后为偶数)
+     * overflowSequences: 每个位置的顺序锁
+     * overflowPositions: 溢出时的 tail, 读取到该序号时先处理溢出记录, 保证时间顺序
+     * overflowValues: 分钟以及价格、均价、成交量(float 按位存放)
+     * overflowVersion: 每写入一条溢出记录递增
+     */
+    private final AtomicIntegerArray overflowSequences;
+    private final AtomicLongArray overflowPositions;
+    private final AtomicIntegerArray overflowValues;
+    private final AtomicInteger overflowVersion = new AtomicInteger();
+
+    /**
+     * 消费者记录(只由消费者读写)
+     * appliedSequences: 每个位置已处理的溢出记录
+     * scannedVersion: 上次扫描溢出表时的 overflowVersion
+     * nextOverflowPosition: 待处理的溢出记录中最小的序号, 没有时为 {@link #NO_OVERFLOW}
+     */
+    private final int[] appliedSequences;
+    private int scannedVersion;
+    private long nextOverflowPosition = NO_OVERFLOW;
+
+    /**
+     * 溢出次数(写入溢出表或因位置无效而丢弃)
+     */
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    public TickRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 容量, 向上取 2 的幂
+     */
+    public TickRingBuffer(@IntRange(from = 2) int capacity) {
+        this(capacity, TradingSession.SLOT_COUNT);
+    }
+
+    /**
+     * @param capacity  容量, 向上取 2 的幂
+     * @param slotCount 位置总数(溢出表大小), 非 A 股时段按实际点数设置
+     */
+    public TickRingBuffer(@IntRange(from = 2) int capacity, @IntRange(from = 1) int slotCount) {
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slotCount = Math.max(slotCount, 1);
+        mask = this.capacity - 1;
+        slots = new int[this.capacity];
+        minutes = new int[this.capacity];
+        prices = new float[this.capacity];
+        avePrices = new float[this.capacity];
+        volumes = new float[this.capacity];
+        overflowSequences = new AtomicIntegerArray(this.slotCount);
+        overflowPositions = new AtomicLongArray(this.slotCount);
+        overflowValues = new AtomicIntegerArray(this.slotCount * OVERFLOW_STRIDE);
+        appliedSequences = new int[this.slotCount];
+    }
+
+    /**
+     * 写入一个 tick(只能在生产者线程调用), 分钟未知
+     *
+     * @see #offer(int, int, float, float, float)
+     */
+    public boolean offer(int slot, float price, float avePrice, float volume) {
+        return offer(slot, TradingSession.INVALID, price, avePrice, volume);
+    }
+
+    /**
+     * 写入一个 tick(只能在生产者线程调用)
+     *
+     * @param slot        表格位置
+     * @param minuteOfDay tick 的实际时间(一天中的第几分钟), 未知时为 {@link TradingSession#INVALID}
+     * @return 是否写入缓冲, 缓冲已满时返回 false, 此时写入溢出表(位置超出溢出表时丢弃)
+     */
+    public boolean offer(int slot, int minuteOfDay, float price, float avePrice, float volume) {
+        long position = tail.get();
+        if (position - headCache >= capacity) {
+            headCache = head.get();
+            if (position - headCache >= capacity) {
+                writeOverflow(position, slot, minuteOfDay, price, avePrice, volume);
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        slots[index] = slot;
+        minutes[index] = minuteOfDay;
+        prices[index] = price;
+        avePrices[index] = avePrice;
+        volumes[index] = volume;
+        // 有序写入, 保证消费者读到 tail 时数据已经写入
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    private void writeOverflow(long position, int slot, int minuteOfDay, float price, float avePrice, float volume) {
+        overflowCount.incrementAndGet();
+        if (slot < 0 || slot >= slotCount) {
+            return;
+        }
+        int offset = slot * OVERFLOW_STRIDE;
+        overflowSequences.incrementAndGet(slot);
+        overflowPositions.set(slot, position);
+        overflowValues.set(offset, minuteOfDay);
+        overflowValues.set(offset + 1, Float.floatToRawIntBits(price));
+        overflowValues.set(offset + 2, Float.floatToRawIntBits(avePrice));
+        overflowValues.set(offset + 3, Float.floatToRawIntBits(volume));
+        overflowSequences.incrementAndGet(slot);
+        overflowVersion.incrementAndGet();
+    }
+
+    /**
+     * 读取所有 tick(只能在消费者线程调用), 同一位置的连续 tick 只回调最后一个
+     *
+     * @return 回调次数
+     */
+    public int drain(@NonNull TickConsumer consumer) {
+        long position = head.get();
+        long end = tail.get();
+        if (overflowVersion.get() != scannedVersion) {
+            scanOverflow();
+        }
+        int count = 0;
+        while (position < end) {
+            if (nextOverflowPosition <= position) {
+                count += drainOverflow(position, consumer);
+            }
+            int index = (int) position & mask;
+            int slot = slots[index];
+            position++;
+            if (position < end && slots[(int) position & mask] == slot && nextOverflowPosition != position) {
+                // 下一个 tick 为同一位置, 当前 tick 已过期
+                continue;
+            }
+            consumer.onTick(slot, minutes[index], prices[index], avePrices[index], volumes[index]);
+            count++;
+        }
+        // 读取期间写入的溢出记录
+        if (overflowVersion.get() != scannedVersion) {
+            scanOverflow();
+        }
+        if (nextOverflowPosition <= position) {
+            count += drainOverflow(position, consumer);
+        }
+        head.lazySet(position);
+        return count;
+    }
+
+    /**
+     * 重新计算待处理的溢出记录中最小的序号
+     */
+    private void scanOverflow() {
+        scannedVersion = overflowVersion.get();
+        long next = NO_OVERFLOW;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (overflowSequences.get(slot) != appliedSequences[slot]) {
+                next = Math.min(next, overflowPositions.get(slot));
+            }
+        }
+        nextOverflowPosition = next;
+    }
+
+    /**
+     * 按位置顺序处理序号不大于 position 的溢出记录, 正在写入的记录留到之后读取
+     */
+    private int drainOverflow(long position, TickConsumer consumer) {
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int sequence = overflowSequences.get(slot);
+            if (sequence == appliedSequences[slot] || (sequence & 1) != 0 || overflowPositions.get(slot) > position) {
+                continue;
+            }
+            int offset = slot * OVERFLOW_STRIDE;
+            int minuteOfDay = overflowValues.get(offset);
+            float price = Float.intBitsToFloat(overflowValues.get(offset + 1));
+            float avePrice = Float.intBitsToFloat(overflowValues.get(offset + 2));
+            float volume = Float.intBitsToFloat(overflowValues.get(offset + 3));
+            if (overflowSequences.get(slot) != sequence) {
+                continue;
+            }
+            appliedSequences[slot] = sequence;
+            consumer.onTick(slot, minuteOfDay, price, avePrice, volume);
+            count++;
+        }
+        scanOverflow();
+        return count;
+    }
+
+    /**
+     * 是否没有待读取的 tick(消费者线程调用时准确, 其它线程仅供参考)
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get() && overflowVersion.get() == scannedVersion && nextOverflowPosition == NO_OVERFLOW;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * 缓冲已满导致写入溢出表(同一位置会被覆盖)或丢弃的次数
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * tick 回调
+     */
+    public interface TickConsumer {
+
+        /**
+         * @param minuteOfDay tick 的实际时间(一天中的第几分钟), 未知时为 {@link TradingSession#INVALID}
+         */
+        void onTick(int slot, int minuteOfDay, float price, float avePrice, float volume);
+    }
+}
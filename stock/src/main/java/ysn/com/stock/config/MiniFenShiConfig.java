@@ -38,11 +38,6 @@ public class MiniFenShiConfig {
     public PathEffect pathEffect;
     public boolean alwaysShowDottedLine;
 
-    /**
-     * 当前颜色
-     */
-    public int currentColor;
-
     public Paint priceAreaPaint;
 
     public MiniFenShiConfig(Context context, @Nullable AttributeSet attrs) {
@@ -0,0 +1,84 @@
+package ysn.com.stock.config;
+
+import android.content.Context;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+
+import ysn.com.stock.R;
+import ysn.com.stock.utils.ResUtils;
+
+/**
+ * @Author yangsanning
+ * @ClassName StockPalette
+ * @Description 已解析的颜色表
+ * 创建时(以及主题、配置变化时)统一解析 colors_stock.xml 中的颜色, 绘制时直接读取 int 值, 不再逐点调用 Resources.getColor
+ * @Date 2020/8/17
+ */
+public class StockPalette {
+
+    /**
+     * textTitleColor: 文本颜色
+     * redColor: 上涨颜色
+     * greenColor: 下跌颜色
+     */
+    public int textTitleColor;
+    public int redColor;
+    public int greenColor;
+
+    /**
+     * priceLineColor: 价格线颜色
+     * avePriceLineColor: 均价线颜色
+     */
+    public int priceLineColor;
+    public int avePriceLineColor;
+
+    /**
+     * lineColor: 表格边框颜色
+     * dottedColumnLineColor: 竖虚线颜色
+     * dottedRowLineColor: 横虚线(加深)颜色
+     */
+    public int lineColor;
+    public int dottedColumnLineColor;
+    public int dottedRowLineColor;
+
+    /**
+     * slideLineColor: 滑动线以及滑动框边框颜色
+     * slideAreaColor: 滑动框背景颜色
+     * middleRoundRectColor: 中间表格圆角矩形颜色
+     */
+    public int slideLineColor;
+    public int slideAreaColor;
+    public int middleRoundRectColor;
+
+    public StockPalette(@NonNull Context context) {
+        resolve(context);
+    }
+
+    /**
+     * 解析颜色(主题或配置变化时重新调用)
+     */
+    public void resolve(@NonNull Context context) {
+        textTitleColor = ResUtils.getColor(context, R.color.stock_text_title);
+        redColor = ResUtils.getColor(context, R.color.stock_red);
+        greenColor = ResUtils.getColor(context, R.color.stock_green);
+        priceLineColor = ResUtils.getColor(context, R.color.stock_price_line);
+        avePriceLineColor = ResUtils.getColor(context, R.color.stock_ave_price_line);
+        lineColor = ResUtils.getColor(context, R.color.stock_line);
+        dottedColumnLineColor = ResUtils.getColor(context, R.color.stock_dotted_column_line);
+        dottedRowLineColor = ResUtils.getColor(context, R.color.stock_dotted_row_line);
+        slideLineColor = ResUtils.getColor(context, R.color.stock_slide_line);
+        slideAreaColor = ResUtils.getColor(context, R.color.stock_area_fq);
+        middleRoundRectColor = ResUtils.getColor(context, R.color.stock_middle_round_rect);
+    }
+
+    /**
+     * 根据涨跌获取颜色(大于等于对比值为上涨)
+     *
+     * @param value        当前值
+     * @param compareValue 对比值(如昨收、上一个点的价格)
+     */
+    @ColorInt
+    public int getTrendColor(float value, float compareValue) {
+        return value >= compareValue ? redColor : greenColor;
+    }
+}
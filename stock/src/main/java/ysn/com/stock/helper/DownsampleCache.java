@@ -0,0 +1,83 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName DownsampleCache
+ * @Description 降采样结果缓存
+ * 以 目标点数(宽度) + 数据版本 + 数据范围 作为缓存标识, 标识不变时直接使用上次选出的点
+ * @Date 2020/8/20
+ */
+public class DownsampleCache {
+
+    private final Downsampler downsampler;
+
+    /**
+     * indices: 选出的 position(升序)
+     * count: 选出的点数
+     */
+    private int[] indices = new int[0];
+    private int count;
+
+    /**
+     * 缓存标识
+     */
+    private int threshold = -1, from = -1, to = -1;
+    private long version = -1;
+
+    public DownsampleCache(@NonNull Downsampler downsampler) {
+        this.downsampler = downsampler;
+    }
+
+    /**
+     * 根据当前数据更新缓存, 标识不变时不做任何处理
+     *
+     * @param values    数据
+     * @param size      数据长度
+     * @param threshold 目标点数(一般为像素宽度)
+     * @param version   数据版本(数据变化时需要改变)
+     */
+    public void update(@NonNull float[] values, int size, int threshold, long version) {
+        update(values, 0, size, threshold, version);
+    }
+
+    /**
+     * 根据 [from, to) 范围内的数据更新缓存, 标识不变时不做任何处理
+     *
+     * @param from 起始位置(包含)
+     * @param to   结束位置(不包含)
+     */
+    public void update(@NonNull float[] values, int from, int to, int threshold, long version) {
+        if (this.threshold == threshold && this.from == from && this.to == to && this.version == version) {
+            return;
+        }
+        this.threshold = threshold;
+        this.from = from;
+        this.to = to;
+        this.version = version;
+        int capacity = Math.max(to - from, downsampler.getMaxCount(threshold));
+        if (indices.length < capacity) {
+            indices = new int[capacity];
+        }
+        count = downsampler.sample(values, from, to, threshold, indices);
+    }
+
+    /**
+     * 使缓存失效
+     */
+    public void invalidate() {
+        version = -1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 第 i 个选出点的 position
+     */
+    public int get(int i) {
+        return indices[i];
+    }
+}
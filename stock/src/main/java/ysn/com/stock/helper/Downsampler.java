@@ -0,0 +1,30 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName Downsampler
+ * @Description 降采样算法
+ * 数据点远多于像素时, 从 [from, to) 中选出需要绘制的点, 绘制复杂度只与控件宽度相关
+ * @Date 2020/8/20
+ */
+public interface Downsampler {
+
+    /**
+     * 选出需要绘制的点
+     *
+     * @param values    数据(点的 x 坐标等距分布)
+     * @param from      起始位置(包含)
+     * @param to        结束位置(不包含)
+     * @param threshold 目标点数(一般为像素宽度)
+     * @param indices   输出的 position(升序), 长度不小于 to - from 以及 {@link #getMaxCount(int)}
+     * @return 选出的点数
+     */
+    int sample(@NonNull float[] values, int from, int to, int threshold, @NonNull int[] indices);
+
+    /**
+     * 指定目标点数时最多输出的点数
+     */
+    int getMaxCount(int threshold);
+}
@@ -0,0 +1,96 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import ysn.com.stock.bean.IFenShi;
+
+/**
+ * @Author yangsanning
+ * @ClassName FenShiHub
+ * @Description 分时数据分发中心, 按股票代码({@link IFenShi#getFenShiCode()})订阅
+ * 每个代码只保存最新的一份数据; 只有已添加且可见的控件才会收到更新(见 {@link FenShiSubscription}),
+ * 没有可见订阅者的代码发布时只替换最新数据, 不会进入主线程
+ * @Date 2020/8/25
+ */
+public class FenShiHub {
+
+    private static final FenShiHub INSTANCE = new FenShiHub();
+
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+
+    public static FenShiHub get() {
+        return INSTANCE;
+    }
+
+    /**
+     * 发布数据(任意线程), 数据发布后不能再被修改
+     */
+    @AnyThread
+    public void publish(@NonNull IFenShi fenShi) {
+        String fenShiCode = fenShi.getFenShiCode();
+        if (fenShiCode == null) {
+            return;
+        }
+        Topic topic = getTopic(fenShiCode);
+        topic.latest = fenShi;
+        for (FenShiSubscription subscription : topic.subscriptions) {
+            subscription.offer(fenShi);
+        }
+    }
+
+    /**
+     * 代码对应的最新数据, 没有发布过时为 null
+     */
+    @Nullable
+    public IFenShi getLatest(@NonNull String fenShiCode) {
+        Topic topic = topics.get(fenShiCode);
+        return topic == null ? null : topic.latest;
+    }
+
+    /**
+     * 移除代码对应的最新数据(不再关注该代码时调用, 订阅者不受影响)
+     */
+    public void remove(@NonNull String fenShiCode) {
+        Topic topic = topics.get(fenShiCode);
+        if (topic != null) {
+            topic.latest = null;
+        }
+    }
+
+    void register(@NonNull String fenShiCode, @NonNull FenShiSubscription subscription) {
+        getTopic(fenShiCode).subscriptions.addIfAbsent(subscription);
+    }
+
+    void unregister(@NonNull String fenShiCode, @NonNull FenShiSubscription subscription) {
+        Topic topic = topics.get(fenShiCode);
+        if (topic != null) {
+            topic.subscriptions.remove(subscription);
+        }
+    }
+
+    private Topic getTopic(String fenShiCode) {
+        Topic topic = topics.get(fenShiCode);
+        if (topic == null) {
+            Topic newTopic = new Topic();
+            topic = topics.putIfAbsent(fenShiCode, newTopic);
+            if (topic == null) {
+                topic = newTopic;
+            }
+        }
+        return topic;
+    }
+
+    /**
+     * 单个代码的最新数据以及订阅者(订阅者变化很少, 发布很频繁, 使用写时复制)
+     */
+    private static class Topic {
+
+        volatile IFenShi latest;
+        final CopyOnWriteArrayList<FenShiSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    }
+}
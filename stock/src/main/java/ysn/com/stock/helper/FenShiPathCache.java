@@ -0,0 +1,267 @@
+package ysn.com.stock.helper;
+
+import android.graphics.Path;
+
+import java.util.Arrays;
+
+import ysn.com.stock.bean.FenShiColumns;
+import ysn.com.stock.manager.FenShiDataManager;
+
+/**
+ * @Author yangsanning
+ * @ClassName FenShiPathCache
+ * @Description 分时图坐标以及路径缓存
+ * 以数据版本、控件尺寸以及极值作为缓存标识, 标识不变时 onDraw 只需绘制缓存的路径;
+ * 追加点时仅投影新增的点并延长路径, 不会整体重建;
+ * 点数超过控件宽度时, 曲线使用 LTTB、柱形图使用 M4 降采样后的点, 路径复杂度只与宽度相关
+ * @Date 2020/8/12
+ */
+public class FenShiPathCache {
+
+    /**
+     * xs: 每个点的 x 坐标
+     * priceYs: 价格 y 坐标
+     * avePriceYs: 均价 y 坐标
+     * volumeYs: 成交量柱形图顶部 y 坐标
+     */
+    public float[] xs = new float[0];
+    public float[] priceYs = new float[0];
+    public float[] avePriceYs = new float[0];
+    public float[] volumeYs = new float[0];
+
+    /**
+     * pricePath: 价格曲线
+     * avePricePath: 均价曲线
+     * priceAreaPath: 价格区域(闭合)
+     */
+    public Path pricePath = new Path();
+    public Path avePricePath = new Path();
+    public Path priceAreaPath = new Path();
+
+    /**
+     * 已缓存的点数
+     */
+    private int size;
+
+    /**
+     * 降采样缓存(价格、均价使用 LTTB, 成交量使用 M4)
+     * isSampled: 当前路径是否由降采样后的点构成
+     */
+    private DownsampleCache priceSampleCache = new DownsampleCache(new LttbDownsampler());
+    private DownsampleCache avePriceSampleCache = new DownsampleCache(new LttbDownsampler());
+    private DownsampleCache volumeSampleCache = new DownsampleCache(new M4Downsampler());
+    private boolean isSampled;
+    private FenShiColumns columns;
+
+    /**
+     * 缓存标识
+     */
+    private int dataVersion = -1, updateVersion;
+    private int viewWidth, viewHeight, totalCount;
+    private float minPrice, maxPrice, maxVolume;
+
+    /**
+     * 价格区域闭合时的最小 x 坐标以及底部 y 坐标
+     */
+    private float areaMinX, areaMaxY;
+
+    /**
+     * 根据当前数据更新缓存，标识不变时不做任何处理
+     *
+     * @param areaMinX   价格区域闭合的最小 x 坐标
+     * @param areaMaxY   价格区域闭合的底部 y 坐标
+     * @param projection 坐标转换
+     */
+    public void update(FenShiDataManager dataManager, int viewWidth, int viewHeight, int totalCount,
+                       float areaMinX, float areaMaxY, Projection projection) {
+        FenShiColumns columns = dataManager.columns;
+        this.columns = columns;
+        int newSize = columns.size();
+        if (isLayoutChanged(dataManager, viewWidth, viewHeight, totalCount, areaMinX, areaMaxY) || newSize < size) {
+            // 整体重建
+            this.dataVersion = dataManager.dataVersion;
+            this.updateVersion = dataManager.updateVersion;
+            this.viewWidth = viewWidth;
+            this.viewHeight = viewHeight;
+            this.totalCount = totalCount;
+            this.minPrice = dataManager.minPrice;
+            this.maxPrice = dataManager.maxPrice;
+            this.maxVolume = dataManager.maxVolume;
+            this.areaMinX = areaMinX;
+            this.areaMaxY = areaMaxY;
+            size = 0;
+            project(columns, 0, newSize, projection);
+            rebuildPath();
+            return;
+        }
+
+        boolean isLastUpdated = updateVersion != dataManager.updateVersion;
+        if (!isLastUpdated && newSize == size) {
+            return;
+        }
+
+        int from = size;
+        if (isLastUpdated && size > 0) {
+            // 最后一个点被更新过, 需要重新投影
+            from = size - 1;
+            updateVersion = dataManager.updateVersion;
+        }
+        int oldSize = size;
+        project(columns, from, newSize, projection);
+
+        if (from < oldSize) {
+            // 已绘制的点发生变化, 路径无法局部修改, 使用缓存坐标重建(不需要重新投影)
+            rebuildPath();
+        } else {
+            extendPath(oldSize);
+        }
+    }
+
+    /**
+     * 缓存标识是否改变
+     */
+    private boolean isLayoutChanged(FenShiDataManager dataManager, int viewWidth, int viewHeight, int totalCount,
+                                    float areaMinX, float areaMaxY) {
+        return dataVersion != dataManager.dataVersion
+                || this.viewWidth != viewWidth || this.viewHeight != viewHeight || this.totalCount != totalCount
+                || minPrice != dataManager.minPrice || maxPrice != dataManager.maxPrice || maxVolume != dataManager.maxVolume
+                || this.areaMinX != areaMinX || this.areaMaxY != areaMaxY;
+    }
+
+    /**
+     * 投影 [from, to) 的点
+     */
+    private void project(FenShiColumns columns, int from, int to, Projection projection) {
+        ensureCapacity(to);
+        for (int i = from; i < to; i++) {
+            xs[i] = projection.getX(i);
+            priceYs[i] = projection.getPriceY(columns.getPrice(i));
+            avePriceYs[i] = projection.getPriceY(columns.getAvePrice(i));
+            volumeYs[i] = projection.getVolumeY(columns.getVolume(i));
+        }
+        size = to;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1));
+        xs = Arrays.copyOf(xs, newCapacity);
+        priceYs = Arrays.copyOf(priceYs, newCapacity);
+        avePriceYs = Arrays.copyOf(avePriceYs, newCapacity);
+        volumeYs = Arrays.copyOf(volumeYs, newCapacity);
+    }
+
+    /**
+     * 使用缓存坐标重建路径
+     */
+    private void rebuildPath() {
+        pricePath.rewind();
+        avePricePath.rewind();
+        if (size == 0) {
+            isSampled = false;
+            priceAreaPath.rewind();
+        } else if (isNeedSample()) {
+            // 降采样只与原始数据相关(y 坐标为线性变换, 不影响选点), 以数据版本作为标识
+            isSampled = true;
+            long version = ((long) dataVersion << 32) | (updateVersion & 0xFFFFFFFFL);
+            priceSampleCache.update(columns.prices(), size, viewWidth, version);
+            avePriceSampleCache.update(columns.avePrices(), size, viewWidth, version);
+            volumeSampleCache.update(columns.volumes(), size, viewWidth, version);
+            addPath(pricePath, priceYs, priceSampleCache);
+            addPath(avePricePath, avePriceYs, avePriceSampleCache);
+            closePriceArea();
+        } else {
+            pricePath.moveTo(xs[0], priceYs[0]);
+            avePricePath.moveTo(xs[0], avePriceYs[0]);
+            extendPath(1);
+        }
+    }
+
+    /**
+     * 点数是否超过控件宽度
+     */
+    private boolean isNeedSample() {
+        return viewWidth > 0 && size > viewWidth;
+    }
+
+    /**
+     * 使用降采样后的点构建路径
+     */
+    private void addPath(Path path, float[] ys, DownsampleCache sampleCache) {
+        int position = sampleCache.get(0);
+        path.moveTo(xs[position], ys[position]);
+        for (int i = 1; i < sampleCache.size(); i++) {
+            position = sampleCache.get(i);
+            path.lineTo(xs[position], ys[position]);
+        }
+    }
+
+    /**
+     * 从 from 开始延长路径，并重新闭合价格区域
+     */
+    private void extendPath(int from) {
+        if (from == 0 || isNeedSample()) {
+            // 降采样时新增点会改变选点, 需要整体重建
+            rebuildPath();
+            return;
+        }
+        isSampled = false;
+        for (int i = from; i < size; i++) {
+            pricePath.lineTo(xs[i], priceYs[i]);
+            avePricePath.lineTo(xs[i], avePriceYs[i]);
+        }
+        closePriceArea();
+    }
+
+    private void closePriceArea() {
+        // 价格颜色区域需要进行闭合处理
+        priceAreaPath.set(pricePath);
+        priceAreaPath.lineTo(xs[size - 1], areaMaxY);
+        priceAreaPath.lineTo(areaMinX, areaMaxY);
+        priceAreaPath.close();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 需要绘制的柱子数量(降采样时为选出的点数)
+     */
+    public int getPillarCount() {
+        return isSampled ? volumeSampleCache.size() : size;
+    }
+
+    /**
+     * 第 i 根柱子对应的 position
+     */
+    public int getPillarPosition(int i) {
+        return isSampled ? volumeSampleCache.get(i) : i;
+    }
+
+    public float getLastX() {
+        return xs[size - 1];
+    }
+
+    public float getLastPriceY() {
+        return priceYs[size - 1];
+    }
+
+    /**
+     * 坐标转换
+     */
+    public interface Projection {
+
+        float getX(int position);
+
+        float getPriceY(float price);
+
+        float getVolumeY(float volume);
+    }
+}
@@ -0,0 +1,174 @@
+package ysn.com.stock.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.AnyThread;
+import android.support.annotation.IntRange;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import ysn.com.stock.bean.IFenShi;
+
+/**
+ * @Author yangsanning
+ * @ClassName FenShiSubscription
+ * @Description 控件对 {@link FenShiHub} 的订阅
+ * 控件添加到窗口时注册, 移除时取消; 只有控件可见时才接收更新, 重新可见时补发最新数据;
+ * 控件来不及处理时只保留最新一份数据, 两次更新的间隔不小于 {@link #setMinInterval(long)}
+ * @Date 2020/8/25
+ */
+public class FenShiSubscription {
+
+    /**
+     * 默认最小更新间隔(毫秒)
+     */
+    public static final long DEFAULT_MIN_INTERVAL = 100;
+
+    private final View view;
+    private final OnFenShiListener onFenShiListener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FenShiHub hub;
+
+    /**
+     * fenShiCode: 订阅的代码
+     * isAttached: 控件是否已添加到窗口
+     * isActive: 是否接收更新(已注册且可见)
+     */
+    private String fenShiCode;
+    private boolean isAttached;
+    private volatile boolean isActive;
+
+    /**
+     * pending: 待处理的最新数据(合并期间的所有更新)
+     * lastDeliveryTime: 上一次处理的时间
+     */
+    private final AtomicReference<IFenShi> pending = new AtomicReference<>();
+    private volatile long lastDeliveryTime;
+    private volatile long minInterval = DEFAULT_MIN_INTERVAL;
+
+    private final Runnable deliverRunnable = this::deliver;
+
+    public FenShiSubscription(@NonNull View view, @NonNull OnFenShiListener onFenShiListener) {
+        this(view, FenShiHub.get(), onFenShiListener);
+    }
+
+    public FenShiSubscription(@NonNull View view, @NonNull FenShiHub hub, @NonNull OnFenShiListener onFenShiListener) {
+        this.view = view;
+        this.hub = hub;
+        this.onFenShiListener = onFenShiListener;
+    }
+
+    /**
+     * 设置订阅的代码, null 表示取消订阅
+     */
+    @MainThread
+    public void setFenShiCode(@Nullable String fenShiCode) {
+        if (fenShiCode == null ? this.fenShiCode == null : fenShiCode.equals(this.fenShiCode)) {
+            return;
+        }
+        unregister();
+        this.fenShiCode = fenShiCode;
+        register();
+    }
+
+    @Nullable
+    public String getFenShiCode() {
+        return fenShiCode;
+    }
+
+    /**
+     * 设置最小更新间隔(毫秒), 间隔内的多次更新合并为最后一次
+     */
+    public void setMinInterval(@IntRange(from = 0) long minInterval) {
+        this.minInterval = Math.max(0, minInterval);
+    }
+
+    @MainThread
+    public void onAttachedToWindow() {
+        isAttached = true;
+        register();
+    }
+
+    @MainThread
+    public void onDetachedFromWindow() {
+        unregister();
+        isAttached = false;
+    }
+
+    /**
+     * 控件或窗口可见性变化时调用
+     */
+    @MainThread
+    public void onVisibilityChanged() {
+        setActive(isAttached && fenShiCode != null && view.isShown());
+    }
+
+    private void register() {
+        if (isAttached && fenShiCode != null) {
+            hub.register(fenShiCode, this);
+            onVisibilityChanged();
+        }
+    }
+
+    private void unregister() {
+        if (fenShiCode != null) {
+            hub.unregister(fenShiCode, this);
+        }
+        setActive(false);
+    }
+
+    private void setActive(boolean isActive) {
+        if (this.isActive == isActive) {
+            return;
+        }
+        this.isActive = isActive;
+        // 清除停止接收前残留的数据, 保证之后的更新能重新调度
+        pending.set(null);
+        if (isActive) {
+            // 重新可见, 补发不可见期间的最新数据
+            IFenShi latest = hub.getLatest(fenShiCode);
+            if (latest != null) {
+                offer(latest);
+            }
+        } else {
+            handler.removeCallbacks(deliverRunnable);
+        }
+    }
+
+    /**
+     * 收到新的数据(任意线程), 不可见时直接忽略, 已有待处理的数据时只替换数据
+     */
+    @AnyThread
+    void offer(@NonNull IFenShi fenShi) {
+        if (!isActive) {
+            return;
+        }
+        if (pending.getAndSet(fenShi) == null) {
+            long delay = lastDeliveryTime + minInterval - SystemClock.uptimeMillis();
+            handler.postDelayed(deliverRunnable, Math.max(0, delay));
+        }
+    }
+
+    private void deliver() {
+        IFenShi fenShi = pending.getAndSet(null);
+        if (fenShi == null || !isActive) {
+            return;
+        }
+        lastDeliveryTime = SystemClock.uptimeMillis();
+        onFenShiListener.onFenShi(fenShi);
+    }
+
+    /**
+     * 数据更新回调(主线程)
+     */
+    public interface OnFenShiListener {
+
+        @MainThread
+        void onFenShi(@NonNull IFenShi fenShi);
+    }
+}
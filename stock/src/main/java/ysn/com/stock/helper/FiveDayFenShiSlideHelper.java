@@ -4,14 +4,12 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
-import android.support.annotation.ColorRes;
 import android.view.MotionEvent;
 
-import ysn.com.stock.R;
+import ysn.com.stock.config.StockPalette;
 import ysn.com.stock.interceptor.FenShiUnitInterceptor;
-import ysn.com.stock.manager.FenShiDataManager;
 import ysn.com.stock.manager.FiveDayFenShiDataManager;
-import ysn.com.stock.utils.NumberUtils;
+import ysn.com.stock.utils.NumberFormatter;
 import ysn.com.stock.view.FiveDayFenShiView;
 import ysn.com.stock.view.base.StockView;
 
@@ -47,23 +45,39 @@ public class FiveDayFenShiSlideHelper {
      * 数据管理
      */
     private FiveDayFenShiDataManager fiveDayFenShiDataManager;
-    private FenShiDataManager fenShiDataManager;
 
+    private StockPalette palette;
     private Paint slidePaint;
     private Paint slideAreaPaint;
     private Path path;
 
-    private int slidePosition;
+    /**
+     * 滑动所在的天
+     */
+    private int slideDay;
     private float slideX, slideY;
     private float textRectHalfHeight;
     private float slideLineY;
     private String slideValue;
     private int slideNum;
 
+    /**
+     * 滑动值文本缓存标识
+     */
+    private float slideValueCache;
+    private boolean isSlideValueVolume;
+    private boolean isSlideValueValid;
+
+    /**
+     * 没有设置拦截器时, 滑动值直接格式化到字符缓冲中(此时 slideValue 为 null)
+     */
+    private NumberFormatter slideFormatter = new NumberFormatter();
+    private boolean isSlideValueFormatted;
+
     private boolean isLongPress;
     private Runnable longPressRunnable = () -> {
         isLongPress = true;
-        fiveDayFenShiView.postInvalidate();
+        fiveDayFenShiView.postInvalidateOnAnimation();
     };
 
     /**
@@ -74,22 +88,30 @@ public class FiveDayFenShiSlideHelper {
     public FiveDayFenShiSlideHelper(FiveDayFenShiView fiveDayFenShiView, FiveDayFenShiDataManager fiveDayFenShiDataManager) {
         this.fiveDayFenShiView = fiveDayFenShiView;
         this.fiveDayFenShiDataManager = fiveDayFenShiDataManager;
+        this.palette = fiveDayFenShiView.getPalette();
         initPaint();
     }
 
     private void initPaint() {
         slidePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        slidePaint.setColor(getColor(R.color.stock_slide_line));
         slidePaint.setStrokeWidth(2.0f);
         slidePaint.setStyle(Paint.Style.STROKE);
 
         slideAreaPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        slideAreaPaint.setColor(getColor(R.color.stock_area_fq));
         slideAreaPaint.setStyle(Paint.Style.FILL);
+        onPaletteChanged();
 
         path = new Path();
     }
 
+    /**
+     * 颜色表变化时重新设置画笔颜色
+     */
+    public void onPaletteChanged() {
+        slidePaint.setColor(palette.slideLineColor);
+        slideAreaPaint.setColor(palette.slideAreaColor);
+    }
+
     public void dispatchTouchEvent(MotionEvent ev) {
         fiveDayFenShiView.getParent().requestDisallowInterceptTouchEvent(isLongPress);
     }
@@ -113,19 +135,20 @@ public class FiveDayFenShiSlideHelper {
                 if (isLongPress) {
                     slideX = x;
                     slideY = y;
-                    fiveDayFenShiView.postInvalidate();
+                    // 同一帧内的多个滑动事件只刷新一次
+                    fiveDayFenShiView.postInvalidateOnAnimation();
                 } else {
                     if (Math.abs(slideX - x) > TOUCH_SLOP || Math.abs(slideY - y) > TOUCH_SLOP) {
                         fiveDayFenShiView.removeCallbacks(longPressRunnable);
                         isLongPress = false;
-                        fiveDayFenShiView.postInvalidate();
+                        fiveDayFenShiView.postInvalidateOnAnimation();
                     }
                 }
                 break;
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_OUTSIDE:
                 isLongPress = false;
-                fiveDayFenShiView.postInvalidate();
+                fiveDayFenShiView.postInvalidateOnAnimation();
                 break;
             default:
                 break;
@@ -135,15 +158,15 @@ public class FiveDayFenShiSlideHelper {
 
     public void draw(Canvas canvas) {
         if (isLongPress) {
+            if (fiveDayFenShiDataManager.isEmpty()) {
+                return;
+            }
+
             // 初始化FenShiView相关参数
             initFenShiViewParam();
 
             // 初始化滑动数据
             initSlideData();
-
-            if (fenShiDataManager.isPriceEmpty()) {
-                return;
-            }
             // 绘制滑动线
             drawSlideLine(canvas);
 
@@ -187,36 +210,37 @@ public class FiveDayFenShiSlideHelper {
      * 初始化滑动数据
      */
     private void initSlideData() {
-        int dataSize = fiveDayFenShiDataManager.dataManagerMap.size();
+        int dayCount = fiveDayFenShiDataManager.getDayCount();
 
-        if (slideX <= tableMargin) {
+        // 每天的宽度相同, 直接计算所在的天
+        if (slideX <= tableMargin || dataWidth <= 0) {
             slideX = 0;
-            slideNum = 0;
-            slidePosition = 0;
+            slideDay = 0;
         } else {
-            for (int i = 0; i < dataSize; i++) {
-                if (i * dataWidth <= slideX && slideX < (i + 1) * dataWidth) {
-                    slidePosition = i;
-                    break;
-                }
-            }
+            slideDay = Math.min((int) (slideX / dataWidth), dayCount - 1);
         }
 
-        for (int i = slidePosition; i < dataSize; i++) {
-            fenShiDataManager = fiveDayFenShiDataManager.dataManagerMap.get(i);
-            if (fenShiDataManager.isPriceNoEmpty()) {
-                float minSlideArea = i * dataWidth;
-                slideX = (i - slidePosition) == 0 ? slideX : minSlideArea;
-                slideNum = (int) ((slideX - minSlideArea) / dataWidth * fiveDayFenShiView.getTotalCount(fenShiDataManager));
-                slidePosition = i;
-                break;
+        // 所在的天没有数据时, 取后面第一个有数据的天, 后面都没有数据时取前面最后一个有数据的天
+        int day = slideDay;
+        while (day < dayCount && fiveDayFenShiDataManager.isDayEmpty(day)) {
+            day++;
+        }
+        if (day == dayCount) {
+            day = slideDay;
+            while (fiveDayFenShiDataManager.isDayEmpty(day)) {
+                day--;
             }
         }
+        float minSlideArea = day * dataWidth;
+        if (day != slideDay) {
+            slideX = day > slideDay ? minSlideArea : minSlideArea + dataWidth - 1;
+            slideDay = day;
+        }
+        slideNum = Math.max(0, (int) ((slideX - minSlideArea) / dataWidth * fiveDayFenShiView.getTotalCount(slideDay)));
 
-        int priceSize = fenShiDataManager.priceSize();
-
-        if (slideNum >= priceSize) {
-            slideNum = priceSize - 1;
+        int daySize = fiveDayFenShiDataManager.getDaySize(slideDay);
+        if (slideNum >= daySize) {
+            slideNum = daySize - 1;
         }
 
         // 分别对有下表格情况以及没有下表格情况进程处理
@@ -258,9 +282,9 @@ public class FiveDayFenShiSlideHelper {
      * 绘制滑动时间
      */
     private void drawSlideTime(Canvas canvas) {
-        textPaint.setColor(getColor(R.color.stock_text_title));
-        String timeText = fenShiDataManager.getTime(slideNum);
-        textPaint.getTextBounds(timeText, 0, timeText.length(), textRect);
+        textPaint.setColor(palette.textTitleColor);
+        String timeText = fiveDayFenShiDataManager.getTime(fiveDayFenShiDataManager.getDayStart(slideDay) + slideNum);
+        fiveDayFenShiView.measureText(timeText);
 
         float rectWidth = textRect.width() + textMargin * 4;
         float rectHalfWidth = rectWidth / 2;
@@ -292,7 +316,11 @@ public class FiveDayFenShiSlideHelper {
      * 绘制成滑动值
      */
     private void drawSlideValue(Canvas canvas) {
-        textPaint.getTextBounds(slideValue, 0, slideValue.length(), textRect);
+        if (isSlideValueFormatted) {
+            slideFormatter.getTextBounds(textPaint, textRect);
+        } else {
+            fiveDayFenShiView.measureText(slideValue);
+        }
         float slideRectTop = slideLineY - textRectHalfHeight;
         float slideRectBottom = slideLineY + textRectHalfHeight;
         float slideRectLeft;
@@ -318,7 +346,13 @@ public class FiveDayFenShiSlideHelper {
         canvas.drawPath(path, slidePaint);
 
         // 绘制文本
-        canvas.drawText(slideValue, (slideRectLeft + (tableMargin + 1) * 4), (slideLineY + textRect.height() / 2f), textPaint);
+        float textX = slideRectLeft + (tableMargin + 1) * 4;
+        float textY = slideLineY + textRect.height() / 2f;
+        if (isSlideValueFormatted) {
+            slideFormatter.drawText(canvas, textX, textY, textPaint);
+        } else {
+            canvas.drawText(slideValue, textX, textY, textPaint);
+        }
     }
 
     /**
@@ -334,7 +368,7 @@ public class FiveDayFenShiSlideHelper {
             slipPrice = (Math.abs(slideY) * (fiveDayFenShiDataManager.maxPrice
                     - fiveDayFenShiDataManager.minPrice)) / topTableHeight + fiveDayFenShiDataManager.minPrice;
         }
-        return fenShiUnitInterceptor == null ? NumberUtils.decimalFormat(slipPrice) : fenShiUnitInterceptor.slipPrice(slipPrice);
+        return formatSlideValue(slipPrice, false);
     }
 
     /**
@@ -349,21 +383,40 @@ public class FiveDayFenShiSlideHelper {
         } else {
             slipVolume = (bottomTableHeight - (slideY - bottomTableMinY)) / bottomTableHeight * fiveDayFenShiDataManager.maxVolume;
         }
-        return fenShiUnitInterceptor == null ? NumberUtils.decimalFormat(slipVolume) : fenShiUnitInterceptor.slipVolume(slipVolume);
+        return formatSlideValue(slipVolume, true);
     }
 
     /**
-     * 获取颜色
+     * 格式化滑动值, 滑动值不变时沿用上一次的文本
      */
-    private int getColor(@ColorRes int colorRes) {
-        return fiveDayFenShiView.getContext().getResources().getColor(colorRes);
+    private String formatSlideValue(float value, boolean isVolume) {
+        if (isSlideValueValid && slideValueCache == value && isSlideValueVolume == isVolume) {
+            return slideValue;
+        }
+        isSlideValueValid = true;
+        slideValueCache = value;
+        isSlideValueVolume = isVolume;
+        isSlideValueFormatted = fenShiUnitInterceptor == null;
+        if (isSlideValueFormatted) {
+            // 与 NumberUtils.decimalFormat 一致, 直接写入字符缓冲
+            slideFormatter.formatDecimal(value, 2);
+            return null;
+        }
+        return isVolume ? fenShiUnitInterceptor.slipVolume(value) : fenShiUnitInterceptor.slipPrice(value);
     }
 
     /**
      * 根据点获取X坐标
      */
     private float getX(int slideNum) {
-        return fiveDayFenShiView.getPriceX(fenShiDataManager, slideNum, slidePosition);
+        return fiveDayFenShiView.getPriceX(slideDay, slideNum);
+    }
+
+    /**
+     * 数据管理器整体替换时更新引用
+     */
+    public void setDataManager(FiveDayFenShiDataManager fiveDayFenShiDataManager) {
+        this.fiveDayFenShiDataManager = fiveDayFenShiDataManager;
     }
 
     /**
@@ -371,5 +424,6 @@ public class FiveDayFenShiSlideHelper {
      */
     public void setFenShiUnitInterceptor(FenShiUnitInterceptor fenShiUnitInterceptor) {
         this.fenShiUnitInterceptor = fenShiUnitInterceptor;
+        this.isSlideValueValid = false;
     }
 }
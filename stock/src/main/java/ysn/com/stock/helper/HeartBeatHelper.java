@@ -0,0 +1,155 @@
+package ysn.com.stock.helper;
+
+import android.animation.ValueAnimator;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * @Author yangsanning
+ * @ClassName HeartBeatHelper
+ * @Description 心跳(闪烁点)辅助类
+ * 闪烁点以 Drawable 的形式添加到控件的 ViewOverlay 上，动画由本类统一管理，各控件不再各自维护动画;
+ * 注意: ViewOverlay 属于宿主控件的显示列表，刷新闪烁点会使宿主重新执行 onDraw，
+ * 宿主需要启用数据图层缓存(见 {@link ysn.com.stock.view.base.StockView#isEnabledDataLayerCache()})，
+ * 此时闪烁的每一帧只绘制缓存的图层，不会重新绘制曲线、柱形图等数据内容
+ * @Date 2020/8/13
+ */
+public class HeartBeatHelper extends Drawable {
+
+    /**
+     * heartRadius: 心脏半径
+     * heartDiameter: 心脏直径
+     * heartInitAlpha: 初始透明度
+     * heartBeatRate: 心率
+     */
+    private int heartRadius;
+    private int heartDiameter;
+    private int heartInitAlpha;
+    private long heartBeatRate;
+
+    /**
+     * isBeat: 是否跳动
+     * beatFraction: 变化率
+     * hasCenter: 是否已设置圆心
+     */
+    private boolean isBeat = false;
+    private float beatFraction;
+    private boolean hasCenter;
+    private float centerX, centerY;
+
+    private Paint heartPaint;
+    private int heartColor;
+    private ValueAnimator beatAnimator;
+    private Handler beatHandler = new Handler();
+    private Runnable beatRunnable = new Runnable() {
+        @Override
+        public void run() {
+            beatAnimator.start();
+            beatHandler.postDelayed(this, heartBeatRate);
+        }
+    };
+
+    public HeartBeatHelper(@NonNull View view, @ColorInt int heartColor, int heartRadius, int heartDiameter,
+                           int heartInitAlpha, long heartBeatRate, long heartBeatFractionRate) {
+        this.heartColor = heartColor;
+        this.heartRadius = heartRadius;
+        this.heartDiameter = heartDiameter;
+        this.heartInitAlpha = heartInitAlpha;
+        this.heartBeatRate = heartBeatRate;
+
+        heartPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        heartPaint.setAntiAlias(true);
+        beatAnimator = ValueAnimator.ofFloat(0, 1f).setDuration(heartBeatFractionRate);
+        beatAnimator.addUpdateListener(animation -> {
+            beatFraction = (float) animation.getAnimatedValue();
+            // 刷新闪烁点(宿主只绘制缓存的图层)
+            invalidateSelf();
+        });
+
+        view.getOverlay().add(this);
+    }
+
+    /**
+     * 设置闪烁点圆心(控件坐标系)，位置不变时不做处理
+     */
+    public void setCenter(float centerX, float centerY) {
+        if (hasCenter && this.centerX == centerX && this.centerY == centerY) {
+            return;
+        }
+        this.hasCenter = true;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        int maxRadius = heartRadius + heartDiameter + 1;
+        setBounds((int) centerX - maxRadius, (int) centerY - maxRadius,
+                (int) centerX + maxRadius, (int) centerY + maxRadius);
+        invalidateSelf();
+    }
+
+    /**
+     * 开始心跳
+     */
+    public void start() {
+        stop();
+        isBeat = true;
+        beatHandler.post(beatRunnable);
+    }
+
+    /**
+     * 停止心跳
+     */
+    public void stop() {
+        isBeat = false;
+        beatHandler.removeCallbacks(beatRunnable);
+        beatAnimator.cancel();
+        invalidateSelf();
+    }
+
+    /**
+     * 设置闪烁点颜色
+     */
+    public void setHeartColor(@ColorInt int heartColor) {
+        this.heartColor = heartColor;
+        invalidateSelf();
+    }
+
+    public boolean isBeat() {
+        return isBeat;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (!isBeat || !hasCenter) {
+            return;
+        }
+
+        // 绘制扩散圆
+        heartPaint.setColor(heartColor);
+        heartPaint.setAlpha((int) (heartInitAlpha - heartInitAlpha * beatFraction));
+        canvas.drawCircle(centerX, centerY, (heartRadius + heartDiameter * beatFraction), heartPaint);
+
+        // 绘制中心圆
+        heartPaint.setAlpha(255);
+        canvas.drawCircle(centerX, centerY, heartRadius, heartPaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        heartPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,105 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName LttbDownsampler
+ * @Description Largest-Triangle-Three-Buckets 降采样, 用于价格、均价曲线
+ * 首尾点固定保留, 中间每个桶选出与前一个选中点、下一个桶均值构成的三角形面积最大的点;
+ * 包含最大值或最小值的桶直接保留极值点, 保证极值不会被丢弃
+ * @Date 2020/8/20
+ */
+public class LttbDownsampler implements Downsampler {
+
+    @Override
+    public int sample(@NonNull float[] values, int from, int to, int threshold, @NonNull int[] indices) {
+        int size = to - from;
+        if (threshold < 3 || size <= threshold) {
+            for (int i = 0; i < size; i++) {
+                indices[i] = from + i;
+            }
+            return Math.max(size, 0);
+        }
+
+        // 全局极值位置
+        int maxIndex = from, minIndex = from;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > values[maxIndex]) {
+                maxIndex = i;
+            } else if (values[i] < values[minIndex]) {
+                minIndex = i;
+            }
+        }
+
+        int count = 0;
+        indices[count++] = from;
+        // 首尾点之外的点分配到 threshold - 2 个桶中
+        int bucketCount = threshold - 2;
+        float bucketSize = (size - 2) / (float) bucketCount;
+        int selected = from;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int start = from + getBucketStart(bucket, bucketSize);
+            // 最后一个桶的结束位置固定为尾点, 避免浮点误差漏掉点
+            int end = bucket == bucketCount - 1 ? to - 1 : from + getBucketStart(bucket + 1, bucketSize);
+
+            boolean hasMax = maxIndex >= start && maxIndex < end;
+            boolean hasMin = minIndex >= start && minIndex < end;
+            if (hasMax || hasMin) {
+                if (hasMax && hasMin) {
+                    indices[count++] = Math.min(maxIndex, minIndex);
+                    selected = Math.max(maxIndex, minIndex);
+                } else {
+                    selected = hasMax ? maxIndex : minIndex;
+                }
+                indices[count++] = selected;
+                continue;
+            }
+
+            // 下一个桶的均值(最后一个桶使用尾点)
+            int nextStart = end;
+            int nextEnd;
+            if (bucket == bucketCount - 1) {
+                nextEnd = to;
+            } else if (bucket == bucketCount - 2) {
+                nextEnd = to - 1;
+            } else {
+                nextEnd = from + getBucketStart(bucket + 2, bucketSize);
+            }
+            float avgX = 0, avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            float selectedX = selected, selectedY = values[selected];
+            float maxArea = -1;
+            int maxAreaIndex = start;
+            for (int i = start; i < end; i++) {
+                // 三角形面积的两倍
+                float area = Math.abs((selectedX - avgX) * (values[i] - selectedY) - (selectedX - i) * (avgY - selectedY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxAreaIndex = i;
+                }
+            }
+            selected = maxAreaIndex;
+            indices[count++] = selected;
+        }
+        indices[count++] = to - 1;
+        return count;
+    }
+
+    private static int getBucketStart(int bucket, float bucketSize) {
+        return (int) (bucket * bucketSize) + 1;
+    }
+
+    @Override
+    public int getMaxCount(int threshold) {
+        // 极值在同一个桶时该桶会多输出一个点
+        return threshold + 1;
+    }
+}
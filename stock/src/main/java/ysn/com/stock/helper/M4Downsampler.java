@@ -0,0 +1,62 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName M4Downsampler
+ * @Description M4 降采样(每个像素列保留首点、最小值、最大值、尾点), 用于成交量柱形图
+ * 每列的最高柱子以及首尾点都会保留, 与绘制全部点的像素结果一致
+ * @Date 2020/8/20
+ */
+public class M4Downsampler implements Downsampler {
+
+    @Override
+    public int sample(@NonNull float[] values, int from, int to, int threshold, @NonNull int[] indices) {
+        int size = to - from;
+        if (threshold < 1 || size <= threshold * 4) {
+            for (int i = 0; i < size; i++) {
+                indices[i] = from + i;
+            }
+            return Math.max(size, 0);
+        }
+
+        int count = 0;
+        float bucketSize = size / (float) threshold;
+        for (int bucket = 0; bucket < threshold; bucket++) {
+            int start = from + (int) (bucket * bucketSize);
+            int end = bucket == threshold - 1 ? to : from + (int) ((bucket + 1) * bucketSize);
+            if (start >= end) {
+                continue;
+            }
+
+            int minIndex = start, maxIndex = start;
+            for (int i = start + 1; i < end; i++) {
+                if (values[i] > values[maxIndex]) {
+                    maxIndex = i;
+                } else if (values[i] < values[minIndex]) {
+                    minIndex = i;
+                }
+            }
+
+            // 按 position 升序输出并去重
+            count = add(indices, count, start);
+            count = add(indices, count, Math.min(minIndex, maxIndex));
+            count = add(indices, count, Math.max(minIndex, maxIndex));
+            count = add(indices, count, end - 1);
+        }
+        return count;
+    }
+
+    private static int add(int[] indices, int count, int index) {
+        if (count == 0 || indices[count - 1] < index) {
+            indices[count++] = index;
+        }
+        return count;
+    }
+
+    @Override
+    public int getMaxCount(int threshold) {
+        return threshold * 4;
+    }
+}
@@ -0,0 +1,180 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ysn.com.stock.bean.IFenShi;
+import ysn.com.stock.config.MiniFenShiConfig;
+import ysn.com.stock.manager.MiniFenShiDataManager;
+
+/**
+ * @Author yangsanning
+ * @ClassName MiniFenShiCache
+ * @Description 迷你分时预处理缓存(价格列、极值、颜色), 按代码和数据版本查找, 每个代码只保留最新版本
+ * 列表滚动前通过 {@link #prefetch(Key, IFenShi)} 在后台准备, 绑定时直接使用准备好的数据管理器, 绑定耗时与点数无关
+ * 缓存中的数据管理器在多个控件之间共用, 不能再修改; 同一缓存只用于配置相同的控件(如同一列表)
+ * @Date 2020/8/29
+ */
+public class MiniFenShiCache {
+
+    /**
+     * 默认缓存的代码数
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    /**
+     * 预处理线程(串行执行, 不影响绘制)
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-mini-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MiniFenShiConfig config;
+
+    /**
+     * entryMap: 代码 -> 最新版本的数据管理器(按访问顺序淘汰)
+     * pendingSet: 已提交还未完成的 代码/版本, 避免重复准备
+     */
+    private final Map<String, Entry> entryMap;
+    private final Set<Key> pendingSet = new HashSet<>();
+
+    public MiniFenShiCache(@NonNull MiniFenShiConfig config) {
+        this(config, DEFAULT_MAX_SIZE);
+    }
+
+    public MiniFenShiCache(@NonNull MiniFenShiConfig config, @IntRange(from = 1) int maxSize) {
+        this.config = config;
+        entryMap = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取准备好的数据管理器, 没有准备或版本不一致时返回 null
+     */
+    @AnyThread
+    @Nullable
+    public synchronized MiniFenShiDataManager get(@NonNull Key key) {
+        Entry entry = entryMap.get(key.symbol);
+        return entry != null && entry.version == key.version ? entry.dataManager : null;
+    }
+
+    /**
+     * 在后台准备数据(已准备或正在准备时忽略), fenShi 在准备完成之前不能再被修改
+     */
+    @AnyThread
+    public void prefetch(@NonNull Key key, @NonNull IFenShi fenShi) {
+        synchronized (this) {
+            if (get(key) != null || !pendingSet.add(key)) {
+                return;
+            }
+        }
+        EXECUTOR.execute(() -> {
+            try {
+                prepare(key, fenShi);
+            } finally {
+                synchronized (MiniFenShiCache.this) {
+                    pendingSet.remove(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取或准备数据管理器(后台线程调用), 准备完成后放入缓存
+     */
+    @WorkerThread
+    @NonNull
+    public MiniFenShiDataManager prepare(@NonNull Key key, @NonNull IFenShi fenShi) {
+        MiniFenShiDataManager dataManager = get(key);
+        if (dataManager != null) {
+            return dataManager;
+        }
+        dataManager = new MiniFenShiDataManager(config);
+        dataManager.setNewData(fenShi);
+        synchronized (this) {
+            Entry entry = entryMap.get(key.symbol);
+            // 准备期间可能已放入更新的版本
+            if (entry == null || entry.version <= key.version) {
+                entryMap.put(key.symbol, new Entry(key.version, dataManager));
+            }
+        }
+        return dataManager;
+    }
+
+    /**
+     * 移除代码对应的数据
+     */
+    public synchronized void remove(@NonNull String symbol) {
+        entryMap.remove(symbol);
+    }
+
+    public synchronized void clear() {
+        entryMap.clear();
+    }
+
+    /**
+     * 缓存键(代码、数据版本), 由使用方在数据变化时创建并保存, 查找和预处理时不再拼接字符串
+     */
+    public static final class Key {
+
+        private final String symbol;
+        private final int version;
+
+        public Key(@NonNull String symbol, int version) {
+            this.symbol = symbol;
+            this.version = version;
+        }
+
+        /**
+         * 数据变化后的下一个版本
+         */
+        @NonNull
+        public Key next() {
+            return new Key(symbol, version + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return version == key.version && symbol.equals(key.symbol);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * symbol.hashCode() + version;
+        }
+    }
+
+    private static class Entry {
+
+        private final int version;
+        private final MiniFenShiDataManager dataManager;
+
+        Entry(int version, MiniFenShiDataManager dataManager) {
+            this.version = version;
+            this.dataManager = dataManager;
+        }
+    }
+}
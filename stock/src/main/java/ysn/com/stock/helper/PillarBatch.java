@@ -0,0 +1,86 @@
+package ysn.com.stock.helper;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * @Author yangsanning
+ * @ClassName PillarBatch
+ * @Description 成交量柱形图批量绘制
+ * 按涨跌将柱子收集到两个可复用的点数组中, 每种颜色只调用一次 {@link Canvas#drawLines(float[], int, int, Paint)},
+ * 绘制次数与柱子数量无关
+ * @Date 2020/8/18
+ */
+public class PillarBatch {
+
+    /**
+     * risingPts: 上涨柱子的线段坐标(每 4 个值为一条线段)
+     * fallingPts: 下跌柱子的线段坐标
+     */
+    private float[] risingPts = new float[0];
+    private float[] fallingPts = new float[0];
+    private int risingCount, fallingCount;
+
+    /**
+     * 清空已收集的柱子(保留已分配的数组)
+     *
+     * @param capacity 预计的柱子数量
+     */
+    public void reset(int capacity) {
+        risingCount = 0;
+        fallingCount = 0;
+        int length = capacity * 4;
+        if (risingPts.length < length) {
+            risingPts = new float[length];
+            fallingPts = new float[length];
+        }
+    }
+
+    /**
+     * 添加一根柱子
+     *
+     * @param isRising 是否上涨
+     * @param x        柱子 x 坐标
+     * @param startY   柱子底部 y 坐标
+     * @param stopY    柱子顶部 y 坐标
+     */
+    public void add(boolean isRising, float x, float startY, float stopY) {
+        if (isRising) {
+            risingPts = ensureCapacity(risingPts, risingCount + 4);
+            risingCount = put(risingPts, risingCount, x, startY, stopY);
+        } else {
+            fallingPts = ensureCapacity(fallingPts, fallingCount + 4);
+            fallingCount = put(fallingPts, fallingCount, x, startY, stopY);
+        }
+    }
+
+    private static float[] ensureCapacity(float[] pts, int length) {
+        return length <= pts.length ? pts : Arrays.copyOf(pts, Math.max(length, pts.length * 2));
+    }
+
+    private static int put(float[] pts, int count, float x, float startY, float stopY) {
+        pts[count] = x;
+        pts[count + 1] = startY;
+        pts[count + 2] = x;
+        pts[count + 3] = stopY;
+        return count + 4;
+    }
+
+    /**
+     * 绘制已收集的柱子, 上涨、下跌各一次绘制
+     */
+    public void draw(@NonNull Canvas canvas, @NonNull Paint paint, @ColorInt int risingColor, @ColorInt int fallingColor) {
+        if (risingCount > 0) {
+            paint.setColor(risingColor);
+            canvas.drawLines(risingPts, 0, risingCount, paint);
+        }
+        if (fallingCount > 0) {
+            paint.setColor(fallingColor);
+            canvas.drawLines(fallingPts, 0, fallingCount, paint);
+        }
+    }
+}
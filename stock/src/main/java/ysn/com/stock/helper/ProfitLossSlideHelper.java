@@ -11,7 +11,6 @@ import ysn.com.stock.config.ProfitLossConfig;
 import ysn.com.stock.interceptor.ProfitLossUnitInterceptor;
 import ysn.com.stock.manager.ProfitLossDataManager;
 import ysn.com.stock.paint.LazyPaint;
-import ysn.com.stock.utils.LogUtils;
 import ysn.com.stock.view.ProfitLossView;
 
 /**
@@ -36,6 +35,12 @@ public class ProfitLossSlideHelper {
     protected int slideNum;
     protected Point point = new Point();
 
+    /**
+     * 滑动值文本缓存(slideNum 不变时不重新格式化)
+     */
+    private String slidePrice;
+    private int slidePriceNum = -1;
+
     private boolean isLongPress;
     private Runnable longPressRunnable = () -> {
         isLongPress = true;
@@ -92,8 +97,6 @@ public class ProfitLossSlideHelper {
 
     public void draw(Canvas canvas) {
         if (isLongPress && dataManager.isNotEmpty()) {
-            LogUtils.d("slideX: " + slideX + " slideY" + slideY + " slideNum" + slideNum);
-
             // 初始化滑动数据
             initSlideData();
 
@@ -143,12 +146,7 @@ public class ProfitLossSlideHelper {
         LazyPaint lazyPaint = config.lazyPaint.setTextColor(config.slideTextColor);
 
         String time = dataManager.timesList.get(slideNum);
-        String price;
-        if (unitInterceptor == null) {
-            price = String.valueOf(dataManager.getValue(slideNum));
-        } else {
-            price = unitInterceptor.slideValue(dataManager.getValue(slideNum));
-        }
+        String price = getSlidePrice();
 
         int rectWidth = Math.max(lazyPaint.width(time), lazyPaint.width(price));
 
@@ -187,7 +185,27 @@ public class ProfitLossSlideHelper {
         canvas.drawText(price, textX, timeY, lazyPaint.getTextPaint());
     }
 
+    /**
+     * 获取滑动值文本
+     */
+    private String getSlidePrice() {
+        if (slidePrice == null || slidePriceNum != slideNum) {
+            slidePriceNum = slideNum;
+            slidePrice = unitInterceptor == null ?
+                    String.valueOf(dataManager.getValue(slideNum)) : unitInterceptor.slideValue(dataManager.getValue(slideNum));
+        }
+        return slidePrice;
+    }
+
+    /**
+     * 重置滑动值文本缓存(数据变化时调用)
+     */
+    public void resetSlidePrice() {
+        slidePrice = null;
+    }
+
     public void setUnitInterceptor(ProfitLossUnitInterceptor unitInterceptor) {
         this.unitInterceptor = unitInterceptor;
+        resetSlidePrice();
     }
 }
@@ -0,0 +1,134 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.view.View;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author yangsanning
+ * @ClassName SnapshotLoader
+ * @Description 在后台线程准备数据快照(数据管理器), 准备完成后在主线程回调, 由控件替换自己的数据管理器
+ * 快照在发布之前只被后台线程访问, 绘制时不会读到录入一半的数据; 连续提交时只发布最后一次提交的结果
+ * 注意: 发布后快照即为控件当前的数据管理器, 之后的增量更新(appendPoint、rollDay 等)会在主线程直接修改它;
+ * 请求还未发布时的增量更新作用在旧的数据管理器上, 发布时会随旧的数据管理器一起被替换
+ * 准备失败(如读取本地文件出错)时不发布, 控件保留原有数据, 并通过 {@link OnLoadFailedListener} 回调
+ * @Date 2020/8/23
+ */
+public class SnapshotLoader<S> {
+
+    /**
+     * 所有图表共用的后台线程(串行执行, 不影响绘制)
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final View view;
+    private final OnSnapshotListener<S> onSnapshotListener;
+    private OnLoadFailedListener onLoadFailedListener;
+
+    /**
+     * 请求版本, 每次提交或取消时递增, 发布时版本不一致则丢弃
+     */
+    private final AtomicInteger requestVersion = new AtomicInteger();
+
+    public SnapshotLoader(@NonNull View view, @NonNull OnSnapshotListener<S> onSnapshotListener) {
+        this.view = view;
+        this.onSnapshotListener = onSnapshotListener;
+    }
+
+    /**
+     * 提交准备任务, 准备完成后在主线程发布
+     * 注意: builder 在后台线程执行, 只能使用自身创建的对象以及不会再被修改的数据
+     */
+    @MainThread
+    public void load(@NonNull Builder<S> builder) {
+        final int version = requestVersion.incrementAndGet();
+        EXECUTOR.execute(() -> {
+            if (version != requestVersion.get()) {
+                // 已有新的请求, 不需要准备
+                return;
+            }
+            S prepared;
+            try {
+                prepared = builder.build();
+            } catch (IOException e) {
+                view.post(() -> {
+                    if (version == requestVersion.get()) {
+                        onLoadFailed(e);
+                    }
+                });
+                return;
+            }
+            view.post(() -> {
+                if (version == requestVersion.get()) {
+                    onSnapshotListener.onSnapshot(prepared);
+                }
+            });
+        });
+    }
+
+    private void onLoadFailed(IOException e) {
+        if (onLoadFailedListener != null) {
+            onLoadFailedListener.onLoadFailed(e);
+        } else {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 准备失败的回调, 没有设置时只打印异常
+     */
+    @MainThread
+    public void setOnLoadFailedListener(@Nullable OnLoadFailedListener onLoadFailedListener) {
+        this.onLoadFailedListener = onLoadFailedListener;
+    }
+
+    /**
+     * 取消还未发布的请求(同步设置数据时调用, 避免旧的请求覆盖新的数据)
+     */
+    @MainThread
+    public void cancel() {
+        requestVersion.incrementAndGet();
+    }
+
+    /**
+     * 快照构建
+     */
+    public interface Builder<S> {
+
+        /**
+         * @throws IOException 准备失败, 此时不发布
+         */
+        @WorkerThread
+        @NonNull
+        S build() throws IOException;
+    }
+
+    /**
+     * 快照发布回调(主线程)
+     */
+    public interface OnSnapshotListener<S> {
+
+        @MainThread
+        void onSnapshot(@NonNull S snapshot);
+    }
+
+    /**
+     * 准备失败回调(主线程, 只回调最后一次提交的请求)
+     */
+    public interface OnLoadFailedListener {
+
+        @MainThread
+        void onLoadFailed(@NonNull IOException e);
+    }
+}
@@ -0,0 +1,133 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ysn.com.stock.bean.TickRingBuffer;
+import ysn.com.stock.utils.TradingSession;
+
+/**
+ * @Author yangsanning
+ * @ClassName TickFeeder
+ * @Description 实时 tick 投递: 网络线程写入 {@link TickRingBuffer}, 主线程每帧(Choreographer)读取一次
+ * 只有缓冲从空变为非空时才请求下一帧, 没有数据时不占用帧回调; 每帧同一位置的多个 tick 只处理最后一个
+ * @Date 2020/8/24
+ */
+public class TickFeeder implements Choreographer.FrameCallback {
+
+    private final TickRingBuffer buffer;
+    private final TickRingBuffer.TickConsumer consumer;
+    private final OnTickDrainedListener onTickDrainedListener;
+    private final Choreographer choreographer;
+
+    /**
+     * 是否已请求帧回调
+     */
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private volatile boolean isStopped;
+
+    /**
+     * 需要在主线程创建(Choreographer 与线程绑定)
+     */
+    @MainThread
+    public TickFeeder(@NonNull TickRingBuffer buffer, @NonNull TickRingBuffer.TickConsumer consumer,
+                      @NonNull OnTickDrainedListener onTickDrainedListener) {
+        this.buffer = buffer;
+        this.consumer = consumer;
+        this.onTickDrainedListener = onTickDrainedListener;
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * 按时间戳写入一个 tick(只能在同一个生产者线程调用), 不会创建对象, 非交易时间的 tick 忽略
+     *
+     * @param timestamp tick 时间(毫秒)
+     * @return 是否写入缓冲, 缓冲已满时按位置只保留最新的 tick
+     */
+    public boolean offer(long timestamp, float price, float avePrice, float volume) {
+        int minuteOfDay = TradingSession.getMinute(timestamp);
+        int slot = TradingSession.getSlot(minuteOfDay);
+        if (slot == TradingSession.INVALID) {
+            return false;
+        }
+        return offer(slot, minuteOfDay, price, avePrice, volume);
+    }
+
+    /**
+     * 写入一个 tick(只能在同一个生产者线程调用), 不会创建对象
+     * 只有位置时 11:30/13:00 无法区分, 尽量使用 {@link #offer(long, float, float, float)}
+     *
+     * @param slot 表格位置
+     * @return 是否写入缓冲, 缓冲已满时按位置只保留最新的 tick
+     */
+    public boolean offer(int slot, float price, float avePrice, float volume) {
+        return offer(slot, TradingSession.INVALID, price, avePrice, volume);
+    }
+
+    /**
+     * 写入一个 tick(只能在同一个生产者线程调用), 不会创建对象
+     *
+     * @param slot        表格位置
+     * @param minuteOfDay tick 的实际时间(一天中的第几分钟), 未知时为 {@link TradingSession#INVALID}
+     * @return 是否写入缓冲, 缓冲已满时按位置只保留最新的 tick
+     */
+    public boolean offer(int slot, int minuteOfDay, float price, float avePrice, float volume) {
+        boolean isOffered = buffer.offer(slot, minuteOfDay, price, avePrice, volume);
+        schedule();
+        return isOffered;
+    }
+
+    private void schedule() {
+        if (!isStopped && isScheduled.compareAndSet(false, true)) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        int count = buffer.drain(consumer);
+        isScheduled.set(false);
+        // 读取期间写入的 tick 可能没有请求帧回调, 这里再检查一次
+        if (!buffer.isEmpty()) {
+            schedule();
+        }
+        if (count > 0) {
+            onTickDrainedListener.onTickDrained(count);
+        }
+    }
+
+    /**
+     * 开始接收(默认已开始)
+     */
+    @MainThread
+    public void start() {
+        isStopped = false;
+        if (!buffer.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * 停止接收(控件移除时调用), 之后写入的 tick 保留在缓冲中, 调用 {@link #start()} 后继续处理
+     */
+    @MainThread
+    public void stop() {
+        isStopped = true;
+        choreographer.removeFrameCallback(this);
+        isScheduled.set(false);
+    }
+
+    /**
+     * 每帧读取完成的回调(主线程)
+     */
+    public interface OnTickDrainedListener {
+
+        /**
+         * @param count 处理的 tick 数(已合并同一位置)
+         */
+        void onTickDrained(int count);
+    }
+}
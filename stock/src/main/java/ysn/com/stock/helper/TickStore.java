@@ -0,0 +1,353 @@
+package ysn.com.stock.helper;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.StockBinaryUtils;
+import ysn.com.stock.utils.TimeUtils;
+import ysn.com.stock.utils.TradingSession;
+
+/**
+ * @Author yangsanning
+ * @ClassName TickStore
+ * @Description 本地 tick 存储, 每个代码每个交易日一个只追加的内存映射文件(目录/代码/yyyy-MM-dd.tick)
+ * 实时 tick 写入映射内存后即使进程被杀也不会丢失, 读取时直接按列还原(不需要解析), 同一位置的多个 tick 只保留最后一个;
+ * 以前的交易日通过 {@link #compactBefore(String)} 压缩为二进制格式(yyyy-MM-dd.bin, 见 {@link StockBinaryUtils})
+ * 打开图表时先通过 {@link #load(String, String)} 显示本地数据, 再只请求缺少的部分
+ * 位置由调用方定义(A 股为 {@link TradingSession#getSlot(int)}, 其它时段为当天的第几个点), 时间文本取 tick 的实际时间;
+ * 没有通过 {@link #setDayInfo(String, String, float, int)} 设置总点数时, 按 A 股时段处理(位置超出时取最大位置 + 1)
+ * @Date 2020/8/28
+ */
+public class TickStore {
+
+    private static final String TICK_SUFFIX = ".tick";
+    private static final String BINARY_SUFFIX = ".bin";
+
+    /**
+     * 文件头: 魔数 "YSNT"、版本、tick 数、昨收、总点数, 之后每个 tick 为位置、分钟、价格、均价、成交量
+     * 版本不一致的 tick 文件按空文件处理(重新请求即可)
+     */
+    private static final int MAGIC = 0x59534E54;
+    private static final int VERSION = 2;
+    private static final int COUNT_OFFSET = 8;
+    private static final int LAST_CLOSE_OFFSET = 12;
+    private static final int TOTAL_COUNT_OFFSET = 16;
+    private static final int HEADER_SIZE = 32;
+    private static final int TICK_SIZE = 20;
+    private static final int INITIAL_TICK_CAPACITY = 512;
+
+    private final File directory;
+
+    /**
+     * 已打开的(当天)文件, key 为 代码/日期
+     */
+    private final Map<String, Segment> segmentMap = new HashMap<>();
+
+    /**
+     * @param directory 存储目录, 如 new File(context.getFilesDir(), "tick")
+     */
+    public TickStore(@NonNull File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 追加一个 tick(网络线程调用), 时间未知时按位置生成时间文本(A 股时段, 11:30/13:00 按 11:30 处理)
+     *
+     * @param date 交易日 yyyy-MM-dd
+     * @param slot 表格位置
+     */
+    @WorkerThread
+    public void append(@NonNull String symbol, @NonNull String date, int slot,
+                       float price, float avePrice, float volume) throws IOException {
+        append(symbol, date, slot, TradingSession.INVALID, price, avePrice, volume);
+    }
+
+    /**
+     * 追加一个 tick(网络线程调用)
+     *
+     * @param date        交易日 yyyy-MM-dd
+     * @param slot        表格位置
+     * @param minuteOfDay tick 的实际时间(一天中的第几分钟), 未知时为 {@link TradingSession#INVALID}
+     */
+    @WorkerThread
+    public synchronized void append(@NonNull String symbol, @NonNull String date, int slot, int minuteOfDay,
+                                    float price, float avePrice, float volume) throws IOException {
+        getSegment(symbol, date).append(slot, minuteOfDay, price, avePrice, volume);
+    }
+
+    /**
+     * 设置交易日的昨收、总点数
+     */
+    @WorkerThread
+    public synchronized void setDayInfo(@NonNull String symbol, @NonNull String date,
+                                        float lastClose, int totalCount) throws IOException {
+        Segment segment = getSegment(symbol, date);
+        segment.buffer.putFloat(LAST_CLOSE_OFFSET, lastClose);
+        segment.buffer.putInt(TOTAL_COUNT_OFFSET, totalCount);
+    }
+
+    /**
+     * 读取某个交易日的数据, 没有本地数据时返回空数据(只有代码和日期), 通过 {@link FenShiColumnData#size()} 判断需要补充的部分
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized FenShiColumnData load(@NonNull String symbol, @NonNull String date) throws IOException {
+        Segment segment = segmentMap.get(getKey(symbol, date));
+        if (segment != null) {
+            return read(symbol, date, segment.buffer.duplicate());
+        }
+        File tickFile = getFile(symbol, date, TICK_SUFFIX);
+        if (tickFile.exists()) {
+            return read(symbol, date, StockBinaryUtils.map(tickFile));
+        }
+        File binaryFile = getFile(symbol, date, BINARY_SUFFIX);
+        if (binaryFile.exists()) {
+            return StockBinaryUtils.decodeFenShi(StockBinaryUtils.map(binaryFile));
+        }
+        FenShiColumnData fenShi = new FenShiColumnData(1);
+        fenShi.setCode(symbol);
+        fenShi.setTime(TimeUtils.formatYyyyMmDd(date));
+        return fenShi;
+    }
+
+    /**
+     * 有本地数据的交易日(升序)
+     */
+    @NonNull
+    public synchronized List<String> getDates(@NonNull String symbol) {
+        List<String> dateList = new ArrayList<>();
+        String[] names = getSymbolDirectory(symbol).list();
+        if (names == null) {
+            return dateList;
+        }
+        for (String name : names) {
+            String date = null;
+            if (name.endsWith(TICK_SUFFIX)) {
+                date = name.substring(0, name.length() - TICK_SUFFIX.length());
+            } else if (name.endsWith(BINARY_SUFFIX)) {
+                date = name.substring(0, name.length() - BINARY_SUFFIX.length());
+            }
+            if (date != null && !dateList.contains(date)) {
+                dateList.add(date);
+            }
+        }
+        Collections.sort(dateList);
+        return dateList;
+    }
+
+    /**
+     * 把某个交易日压缩为二进制格式并删除 tick 文件
+     */
+    @WorkerThread
+    public synchronized void compact(@NonNull String symbol, @NonNull String date) throws IOException {
+        File tickFile = getFile(symbol, date, TICK_SUFFIX);
+        if (!tickFile.exists()) {
+            return;
+        }
+        byte[] bytes = StockBinaryUtils.encodeFenShi(load(symbol, date));
+        Segment segment = segmentMap.remove(getKey(symbol, date));
+        if (segment != null) {
+            segment.close();
+        }
+        // 先写临时文件再重命名, 中途退出时 tick 文件仍然完整
+        File binaryFile = getFile(symbol, date, BINARY_SUFFIX);
+        File tempFile = new File(binaryFile.getPath() + ".tmp");
+        try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+            outputStream.write(bytes);
+            outputStream.getFD().sync();
+        }
+        if (!tempFile.renameTo(binaryFile) || !tickFile.delete()) {
+            throw new IOException("compact failed: " + tickFile);
+        }
+    }
+
+    /**
+     * 压缩所有代码在 date(yyyy-MM-dd) 之前的交易日
+     */
+    @WorkerThread
+    public synchronized void compactBefore(@NonNull String date) throws IOException {
+        File[] symbolDirectories = directory.listFiles(File::isDirectory);
+        if (symbolDirectories == null) {
+            return;
+        }
+        for (File symbolDirectory : symbolDirectories) {
+            String symbol = symbolDirectory.getName();
+            for (String tickDate : getDates(symbol)) {
+                if (tickDate.compareTo(date) < 0) {
+                    compact(symbol, tickDate);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭所有文件
+     */
+    public synchronized void close() {
+        for (Segment segment : segmentMap.values()) {
+            segment.close();
+        }
+        segmentMap.clear();
+    }
+
+    private Segment getSegment(String symbol, String date) throws IOException {
+        String key = getKey(symbol, date);
+        Segment segment = segmentMap.get(key);
+        if (segment == null) {
+            File binaryFile = getFile(symbol, date, BINARY_SUFFIX);
+            File tickFile = getFile(symbol, date, TICK_SUFFIX);
+            boolean isCompacted = !tickFile.exists() && binaryFile.exists();
+            segment = new Segment(tickFile);
+            if (isCompacted) {
+                // 已压缩的交易日重新写入时, 先还原已有的数据
+                // 其它时段按顺序还原位置
+                FenShiColumnData fenShi = StockBinaryUtils.decodeFenShi(StockBinaryUtils.map(binaryFile));
+                boolean isTradingSession = fenShi.getTotalCount() == TradingSession.SLOT_COUNT;
+                segment.buffer.putFloat(LAST_CLOSE_OFFSET, fenShi.getFenShiLastClose());
+                segment.buffer.putInt(TOTAL_COUNT_OFFSET, fenShi.getTotalCount());
+                for (int i = 0; i < fenShi.size(); i++) {
+                    String time = fenShi.getTime(i);
+                    segment.append(isTradingSession ? TradingSession.getSlot(time) : i, TradingSession.parseMinute(time),
+                            fenShi.getPrice(i), fenShi.getAvePrice(i), fenShi.getVolume(i));
+                }
+                if (!binaryFile.delete()) {
+                    throw new IOException("delete failed: " + binaryFile);
+                }
+            }
+            segmentMap.put(key, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * 按列还原 tick 文件, 同一位置只保留最后一个 tick, 位置倒退、无效或超出总点数的 tick 忽略(同 FenShiDataManager.putPoint)
+     * 没有设置总点数时按 A 股时段处理(位置超出时取最大位置 + 1), 保证数据管理器按位置留出缺失的分钟
+     */
+    private static FenShiColumnData read(String symbol, String date, ByteBuffer buffer) {
+        FenShiColumnData fenShi = new FenShiColumnData(1);
+        fenShi.setCode(symbol);
+        fenShi.setTime(TimeUtils.formatYyyyMmDd(date));
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return fenShi;
+        }
+        fenShi.setLastClose(buffer.getFloat(LAST_CLOSE_OFFSET));
+        int totalCount = buffer.getInt(TOTAL_COUNT_OFFSET);
+        fenShi.setTotalCount(totalCount);
+        int count = Math.min(buffer.getInt(COUNT_OFFSET), (buffer.capacity() - HEADER_SIZE) / TICK_SIZE);
+        if (count <= 0) {
+            return fenShi;
+        }
+
+        String[] times = new String[count];
+        float[] prices = new float[count];
+        float[] avePrices = new float[count];
+        float[] volumes = new float[count];
+        int size = 0;
+        int lastSlot = TradingSession.INVALID;
+        for (int i = 0; i < count; i++) {
+            int offset = HEADER_SIZE + i * TICK_SIZE;
+            int slot = buffer.getInt(offset);
+            if (slot < 0 || (totalCount > 0 && slot >= totalCount) || slot < lastSlot) {
+                continue;
+            }
+            if (slot != lastSlot) {
+                size++;
+                lastSlot = slot;
+            }
+            int minuteOfDay = buffer.getInt(offset + 4);
+            times[size - 1] = minuteOfDay != TradingSession.INVALID
+                    ? TradingSession.formatMinute(minuteOfDay) : TradingSession.formatSlot(slot);
+            prices[size - 1] = buffer.getFloat(offset + 8);
+            avePrices[size - 1] = buffer.getFloat(offset + 12);
+            volumes[size - 1] = buffer.getFloat(offset + 16);
+        }
+        if (totalCount <= 0) {
+            fenShi.setTotalCount(lastSlot < TradingSession.SLOT_COUNT ? TradingSession.SLOT_COUNT : lastSlot + 1);
+        }
+        fenShi.setColumns(times, prices, avePrices, volumes, size);
+        return fenShi;
+    }
+
+    private File getSymbolDirectory(String symbol) {
+        // 代码作为目录名, 替换路径中不能使用的字符
+        return new File(directory, symbol.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    private File getFile(String symbol, String date, String suffix) {
+        return new File(getSymbolDirectory(symbol), date + suffix);
+    }
+
+    private static String getKey(String symbol, String date) {
+        return symbol + "/" + date;
+    }
+
+    /**
+     * 单个 tick 文件, 写入 tick 后再更新文件头中的数量, 进程退出时最多丢失正在写入的 tick
+     */
+    private static class Segment {
+
+        private final RandomAccessFile randomAccessFile;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int count;
+
+        Segment(File file) throws IOException {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("mkdirs failed: " + parent);
+            }
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+            long size = Math.max(channel.size(), HEADER_SIZE + (long) INITIAL_TICK_CAPACITY * TICK_SIZE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+                // 丢弃超出文件长度的数量(写入数量前文件被截断)
+                count = Math.min(buffer.getInt(COUNT_OFFSET), (int) ((size - HEADER_SIZE) / TICK_SIZE));
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(COUNT_OFFSET, 0);
+                count = 0;
+            }
+        }
+
+        void append(int slot, int minuteOfDay, float price, float avePrice, float volume) throws IOException {
+            int offset = HEADER_SIZE + count * TICK_SIZE;
+            if (offset + TICK_SIZE > buffer.capacity()) {
+                // 空间不足时按两倍扩大映射
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) buffer.capacity() * 2);
+            }
+            buffer.putInt(offset, slot);
+            buffer.putInt(offset + 4, minuteOfDay);
+            buffer.putFloat(offset + 8, price);
+            buffer.putFloat(offset + 12, avePrice);
+            buffer.putFloat(offset + 16, volume);
+            count++;
+            buffer.putInt(COUNT_OFFSET, count);
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+                randomAccessFile.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -2,9 +2,9 @@ package ysn.com.stock.manager;
 
 import android.support.annotation.NonNull;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import ysn.com.stock.bean.CapitalColumnData;
 import ysn.com.stock.bean.Extremum;
 import ysn.com.stock.bean.ICapitalData;
 
@@ -19,7 +19,15 @@ public class CapitalDataManager {
     private Extremum extremum = new Extremum();
     private Extremum priceExtremum = new Extremum();
     private Extremum inFlowExtremum = new Extremum();
-    private List<? extends ICapitalData> dataList = new ArrayList<>();
+
+    /**
+     * 按列存放的数据(长度可能大于 size, 有效长度为 size)
+     */
+    private float[] prices = new float[0];
+    private float[] financeInFlows = new float[0];
+    private float[] mainInFlows = new float[0];
+    private float[] retailInFlows = new float[0];
+    private int size;
 
     /**
      * 获取最大值
@@ -60,67 +68,89 @@ public class CapitalDataManager {
      * 是否为空
      */
     public boolean isEmpty() {
-        return dataList.isEmpty();
+        return size == 0;
     }
 
     /**
      * 数据长度
      */
     public int size() {
-        return dataList.size();
+        return size;
     }
 
     /**
      * 根据 position 获取价格
      */
     public float getPrice(int position) {
-        return dataList.get(position).getPrice();
+        return prices[position];
     }
 
     /**
      * 根据 position 获取总资金净流入
      */
     public float getFinanceInFlow(int position) {
-        return dataList.get(position).getFinanceInFlow();
+        return financeInFlows[position];
     }
 
     /**
      * 根据 position 获取主力净流入
      */
     public float getMainInFlow(int position) {
-        return dataList.get(position).getMainInFlow();
+        return mainInFlows[position];
     }
 
     /**
      * 根据 position 获取散户净流入
      */
     public float getRetailInFlow(int position) {
-        return dataList.get(position).getRetailInFlow();
+        return retailInFlows[position];
     }
 
     /**
      * 设置数据
      */
     public <T extends ICapitalData> void setNewData(@NonNull List<T> dataList) {
-        this.dataList = dataList;
-        int size = dataList.size();
+        size = dataList.size();
+        if (prices.length < size) {
+            prices = new float[size];
+            financeInFlows = new float[size];
+            mainInFlows = new float[size];
+            retailInFlows = new float[size];
+        }
+        for (int i = 0; i < size; i++) {
+            T data = dataList.get(i);
+            prices[i] = data.getPrice();
+            financeInFlows[i] = data.getFinanceInFlow();
+            mainInFlows[i] = data.getMainInFlow();
+            retailInFlows[i] = data.getRetailInFlow();
+        }
+
+        calculateExtremum();
+    }
+
+    /**
+     * 设置按列存放的数据(直接复制列)
+     */
+    public void setNewData(@NonNull CapitalColumnData columnData) {
+        size = columnData.size();
+        if (prices.length < size) {
+            prices = new float[size];
+            financeInFlows = new float[size];
+            mainInFlows = new float[size];
+            retailInFlows = new float[size];
+        }
+        System.arraycopy(columnData.prices(), 0, prices, 0, size);
+        System.arraycopy(columnData.financeInFlows(), 0, financeInFlows, 0, size);
+        System.arraycopy(columnData.mainInFlows(), 0, mainInFlows, 0, size);
+        System.arraycopy(columnData.retailInFlows(), 0, retailInFlows, 0, size);
+        calculateExtremum();
+    }
 
+    private void calculateExtremum() {
+        priceExtremum.calculate(0, size, prices);
+        inFlowExtremum.calculate(0, size, financeInFlows, mainInFlows, retailInFlows);
         if (size > 0) {
-            extremum.init(dataList.get(0).getPrice());
-            priceExtremum.init(dataList.get(0).getPrice());
-            inFlowExtremum.init(dataList.get(0).getFinanceInFlow());
-            for (T data : dataList) {
-                float price = data.getPrice();
-                float financeInFlow = data.getFinanceInFlow();
-                float mainInFlow = data.getMainInFlow();
-                float retailInFlow = data.getRetailInFlow();
-                extremum.convert(financeInFlow, mainInFlow, price, retailInFlow);
-                priceExtremum.convert(price);
-                inFlowExtremum.convert(financeInFlow, mainInFlow, retailInFlow);
-            }
-            extremum.calculatePeek();
-            priceExtremum.calculatePeek();
-            inFlowExtremum.calculatePeek();
+            extremum.merge(priceExtremum, inFlowExtremum);
         } else {
             extremum.reset();
         }
@@ -3,13 +3,18 @@ package ysn.com.stock.manager;
 import android.support.annotation.IntRange;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.bean.FenShiColumns;
 import ysn.com.stock.bean.IFenShi;
 import ysn.com.stock.bean.IFenShiData;
 import ysn.com.stock.interceptor.FenShiUnitInterceptor;
+import ysn.com.stock.utils.NumberFormatter;
 import ysn.com.stock.utils.NumberUtils;
+import ysn.com.stock.utils.TradingSession;
 
 /**
  * @Author yangsanning
@@ -19,22 +24,35 @@ import ysn.com.stock.utils.NumberUtils;
  */
 public class FenShiDataManager {
 
+    /**
+     * 数据版本生成器
+     */
+    private static final AtomicInteger DATA_VERSION = new AtomicInteger();
+
     private DecimalFormat decimalFormat;
 
     /**
-     * 价格集合
+     * 价格、均价、成交量列式存储
      */
-    public List<Float> priceList = new ArrayList<>();
+    public FenShiColumns columns = new FenShiColumns();
 
     /**
-     * 均价集合
+     * 原始时间(只保存引用, 滑动时才按需转换格式), 有效长度为 columns.size()
+     * 点的表格位置保存在 columns 的 slot 列中
      */
-    public List<Float> avePriceList = new ArrayList<>();
+    private String[] times = new String[0];
 
     /**
-     * 时间集合(用于滑动绘制)
+     * 滑动时间缓存(只缓存最近一次转换的结果)
      */
-    public List<String> timeList = new ArrayList<>();
+    private String slideTimeSource, slideTime;
+
+    /**
+     * slotPositions: 表格位置 -> position(缺失的分钟取前一个点)
+     * lastMinute: 最后一个点的时间(一天中的第几分钟), 无法解析时为 {@link TradingSession#INVALID}
+     */
+    private int[] slotPositions = new int[0];
+    public int lastMinute = TradingSession.INVALID;
 
     /**
      * 昨收(中间坐标值)
@@ -57,15 +75,44 @@ public class FenShiDataManager {
     public String percent = " 100%";
 
     /**
-     * 当前交易量
+     * 上表格坐标文本(坐标范围变化时格式化, 绘制时直接使用)
+     * maxPriceString: 最大价格
+     * minPriceString: 最小价格
+     * lastCloseString: 昨收
+     * increasePercentString: 增幅
+     * decreasePercentString: 减幅
      */
-    public List<Float> volumeList = new ArrayList<>();
+    public String maxPriceString = "";
+    public String minPriceString = "";
+    public String lastCloseString = "";
+    public String increasePercentString = "";
+    public String decreasePercentString = "";
 
     /**
      * 最大交易量
      */
     public float maxVolume;
 
+    /**
+     * highPrice: 实际最高价
+     * lowPrice: 实际最低价
+     * axisMaxVolume: 当前下表格坐标对应的最大成交量
+     */
+    private float highPrice, lowPrice;
+    private float axisMaxVolume;
+
+    /**
+     * 是否以昨收为中心初始化坐标
+     */
+    private boolean isInit = true;
+
+    /**
+     * dataVersion: 数据版本, 整体设置数据时更新(所有实例之间唯一, 替换数据管理器后缓存不会误用)
+     * updateVersion: 最后一个点的更新版本, 调用 {@link #updateLastPoint(IFenShiData)} 时递增
+     */
+    public int dataVersion;
+    public int updateVersion;
+
     /**
      * 当前交易量坐标值
      */
@@ -101,7 +148,7 @@ public class FenShiDataManager {
     }
 
     public boolean isPriceEmpty() {
-        return priceList.isEmpty();
+        return columns.isEmpty();
     }
 
     public boolean isPriceNoEmpty() {
@@ -109,7 +156,7 @@ public class FenShiDataManager {
     }
 
     public boolean isTimeEmpty() {
-        return timeList.isEmpty();
+        return columns.isEmpty();
     }
 
     public boolean isTimeNotEmpty() {
@@ -120,14 +167,14 @@ public class FenShiDataManager {
      * 根据position获取价格
      */
     public float getPrice(@IntRange(from = 0) int position) {
-        return position < priceSize() ? priceList.get(position) : 0;
+        return columns.getPrice(position);
     }
 
     /**
      * 价格集合大小
      */
     public int priceSize() {
-        return priceList.size();
+        return columns.size();
     }
 
     /**
@@ -148,28 +195,57 @@ public class FenShiDataManager {
      * 根据position获取均价
      */
     public float getAvePrice(@IntRange(from = 0) int position) {
-        return position < avePriceSize() ? avePriceList.get(position) : 0;
+        return columns.getAvePrice(position);
     }
 
     /**
      * 均价集合大小
      */
     public int avePriceSize() {
-        return avePriceList.size();
+        return columns.size();
     }
 
     /**
-     * 根据position获取时间
+     * 根据position获取时间(有拦截器时按需转换格式, 相同的时间不会重复转换)
      */
     public String getTime(@IntRange(from = 0) int position) {
-        return position < timeSize() ? timeList.get(position) : "";
+        if (position >= timeSize()) {
+            return "";
+        }
+        String time = times[position];
+        if (fenShiUnitInterceptor == null || time == null) {
+            return time;
+        }
+        if (time != slideTimeSource) {
+            slideTimeSource = time;
+            slideTime = fenShiUnitInterceptor.slideTime(time);
+        }
+        return slideTime;
     }
 
     /**
      * 时间集合大小
      */
     public int timeSize() {
-        return timeList.size();
+        return columns.size();
+    }
+
+    /**
+     * 根据position获取表格位置
+     */
+    public int getSlot(@IntRange(from = 0) int position) {
+        return columns.getSlot(position);
+    }
+
+    /**
+     * 根据表格位置获取 position(缺失的分钟取前一个点, 超出时取最后一个点), O(1)
+     */
+    public int getPositionBySlot(int slot) {
+        int lastPosition = columns.getLastPosition();
+        if (lastPosition < 0 || slot <= 0) {
+            return 0;
+        }
+        return slot < columns.getSlot(lastPosition) ? slotPositions[slot] : lastPosition;
     }
 
     /**
@@ -190,21 +266,21 @@ public class FenShiDataManager {
      * 根据position获取成交量
      */
     public float getVolume(@IntRange(from = 0) int position) {
-        return position < volumeSize() ? volumeList.get(position) : 0;
+        return columns.getVolume(position);
     }
 
     /**
      * 成交量集合大小
      */
     public int volumeSize() {
-        return volumeList.size();
+        return columns.size();
     }
 
     /**
      * 获取最后一个成交量
      */
     public float getLastVolume() {
-        return volumeList.get(volumeSize() - 1);
+        return columns.getVolume(columns.getLastPosition());
     }
 
     public <T extends IFenShi> void setData(T fenShi) {
@@ -216,53 +292,250 @@ public class FenShiDataManager {
      */
     public <T extends IFenShi> void setData(T fenShi, boolean isInit) {
         if (fenShi != null) {
-            priceList.clear();
-            avePriceList.clear();
-            timeList.clear();
-            volumeList.clear();
-            List<? extends IFenShiData> fenShiData = fenShi.getFenShiData();
-            for (int i = 0; i < fenShiData.size(); i++) {
-                addStockPrice(fenShiData.get(i).getFenShiPrice(), i);
-                avePriceList.add(fenShiData.get(i).getFenShiAvgPrice());
-                timeList.add(fenShiUnitInterceptor == null ? fenShiData.get(i).getFenShiTime()
-                        : fenShiUnitInterceptor.slideTime(fenShiData.get(i).getFenShiTime()));
-                addVolume(fenShiData.get(i).getFenShiVolume(), i);
-            }
+            dataVersion = DATA_VERSION.incrementAndGet();
+            columns.clear();
+            slideTimeSource = slideTime = null;
+            // 第一个点的涨跌以昨收作为对比, 表格位置与数据总数相关, 需要先设置
             lastClose = fenShi.getFenShiLastClose();
-            time = fenShi.getFenShiTime();
             totalCount = fenShi.getTotalCount();
+            if (fenShi instanceof FenShiColumnData) {
+                // 按列存放的数据直接读取列, 不经过单个点的对象
+                FenShiColumnData columnData = (FenShiColumnData) fenShi;
+                int size = columnData.size();
+                columns.ensureCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    addPoint(columnData.getTime(i), columnData.getPrice(i), columnData.getAvePrice(i), columnData.getVolume(i));
+                }
+            } else {
+                List<? extends IFenShiData> fenShiData = fenShi.getFenShiData();
+                int size = fenShiData.size();
+                columns.ensureCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    addPoint(fenShiData.get(i));
+                }
+            }
+            time = fenShi.getFenShiTime();
+            this.isInit = isInit;
             if (isInit) {
                 initData();
+            } else {
+                maxPrice = highPrice;
+                minPrice = lowPrice;
             }
         }
     }
 
-    private void addStockPrice(float trade, int position) {
-        priceList.add(trade);
+    /**
+     * 追加一个新的分时点(新的一分钟)
+     * 极值与成交量坐标均为 O(1) 维护，不会重新遍历已有数据
+     *
+     * @return 坐标范围(价格极值或最大成交量)是否发生变化
+     */
+    public <T extends IFenShiData> boolean appendPoint(T fenShiData) {
+        addPoint(fenShiData);
+        return updateAxis();
+    }
 
-        if (position == 0) {
-            maxPrice = trade;
-            minPrice = trade;
+    /**
+     * 更新最后一个分时点(当前分钟内的刷新)，没有数据时等同于 {@link #appendPoint(IFenShiData)}
+     *
+     * @return 坐标范围(价格极值或最大成交量)是否发生变化
+     */
+    public <T extends IFenShiData> boolean updateLastPoint(T fenShiData) {
+        if (isPriceEmpty()) {
+            return appendPoint(fenShiData);
         }
+        int lastPosition = columns.getLastPosition();
+        float price = fenShiData.getFenShiPrice();
+        float volume = fenShiData.getFenShiVolume();
+        columns.set(lastPosition, columns.getSlot(lastPosition), price, fenShiData.getFenShiAvgPrice(), volume);
+        updateRising(lastPosition);
+        String time = fenShiData.getFenShiTime();
+        times[lastPosition] = time;
+        lastMinute = TradingSession.parseMinute(time);
+        calculateExtremum();
+        updateVersion++;
+        return updateAxis();
+    }
+
+    /**
+     * 按表格位置写入一个分时点(实时推送的 tick), 不会创建对象
+     * 位置与最后一个点相同时更新最后一个点, 位置更大时追加, 位置更小(过期数据)时忽略; 时间文本使用位置对应的时间
+     *
+     * @param slot 表格位置(见 {@link TradingSession#getSlot(int)})
+     * @return 坐标范围(价格极值或最大成交量)是否发生变化
+     * @see #putPoint(int, int, float, float, float)
+     */
+    public boolean putPoint(int slot, float price, float avePrice, float volume) {
+        return putPoint(slot, TradingSession.INVALID, price, avePrice, volume);
+    }
 
-        if (maxPrice < trade) {
-            maxPrice = trade;
-        } else if (minPrice > trade) {
-            minPrice = trade;
+    /**
+     * 按表格位置写入一个分时点, 最后时间取 tick 的实际时间(11:30/13:00 共用一个位置, 只有位置时无法区分, 按 11:30 处理)
+     *
+     * @param slot        表格位置(见 {@link TradingSession#getSlot(int)})
+     * @param minuteOfDay tick 的实际时间(一天中的第几分钟), 未知时为 {@link TradingSession#INVALID}
+     * @return 坐标范围(价格极值或最大成交量)是否发生变化
+     */
+    public boolean putPoint(int slot, int minuteOfDay, float price, float avePrice, float volume) {
+        int lastPosition = columns.getLastPosition();
+        int lastSlot = lastPosition < 0 ? TradingSession.INVALID : columns.getSlot(lastPosition);
+        if (slot < 0 || slot < lastSlot) {
+            return false;
         }
+        String time = TradingSession.formatSlot(slot);
+        lastMinute = minuteOfDay != TradingSession.INVALID ? minuteOfDay : TradingSession.getMinuteOfSlot(slot);
+        if (slot == lastSlot) {
+            columns.set(lastPosition, slot, price, avePrice, volume);
+            updateRising(lastPosition);
+            times[lastPosition] = time;
+            calculateExtremum();
+            updateVersion++;
+        } else {
+            addPoint(slot, price, avePrice, volume, time);
+        }
+        return updateAxis();
     }
 
-    private void addVolume(float volume, int position) {
-        volumeList.add(volume);
-        if (position == 0) {
-            maxVolume = volume;
+    /**
+     * 添加点并维护极值
+     */
+    private <T extends IFenShiData> void addPoint(T fenShiData) {
+        addPoint(fenShiData.getFenShiTime(), fenShiData.getFenShiPrice(), fenShiData.getFenShiAvgPrice(),
+                fenShiData.getFenShiVolume());
+    }
+
+    /**
+     * 添加点, 表格位置由时间计算
+     */
+    private void addPoint(String time, float price, float avePrice, float volume) {
+        lastMinute = TradingSession.parseMinute(time);
+        addPoint(calculateSlot(columns.size()), price, avePrice, volume, time);
+    }
+
+    private void addPoint(int slot, float price, float avePrice, float volume, String time) {
+        int size = columns.size();
+        columns.add(slot, price, avePrice, volume);
+        updateRising(size);
+        if (times.length <= size) {
+            times = Arrays.copyOf(times, Math.max(size + 1, times.length + (times.length >> 1)));
         }
-        if (maxVolume < volume) {
-            maxVolume = volume;
+        times[size] = time;
+        updateSlotPositions(size, slot);
+        calculateExtremum();
+    }
+
+    /**
+     * 更新指定点的涨跌(第一个点跟昨收做对比, 后续点跟前一个点对比)
+     */
+    private void updateRising(int position) {
+        float comparePrice = position == 0 ? lastClose : columns.getPrice(position - 1);
+        columns.setRising(position, columns.getPrice(position) >= comparePrice);
+    }
+
+    /**
+     * 指定点是否上涨(成交量柱形图颜色)
+     */
+    public boolean isRising(@IntRange(from = 0) int position) {
+        return columns.isRising(position);
+    }
+
+    /**
+     * 根据区间极值索引计算极值(索引在录入时已增量更新, 这里为 O(1))
+     */
+    private void calculateExtremum() {
+        int size = columns.size();
+        highPrice = columns.getPriceRange().getMaximum(0, size);
+        lowPrice = columns.getPriceRange().getMinimum(0, size);
+        maxVolume = columns.getVolumeRange().getMaximum(0, size);
+    }
+
+    /**
+     * [from, to) 范围内的最高价(缩放、平移时按可见区间计算坐标), O(1)
+     */
+    public float getHighPrice(@IntRange(from = 0) int from, int to) {
+        return columns.getPriceRange().getMaximum(from, to);
+    }
+
+    /**
+     * [from, to) 范围内的最低价, O(1)
+     */
+    public float getLowPrice(@IntRange(from = 0) int from, int to) {
+        return columns.getPriceRange().getMinimum(from, to);
+    }
+
+    /**
+     * [from, to) 范围内的最大成交量, O(1)
+     */
+    public float getMaxVolume(@IntRange(from = 0) int from, int to) {
+        return columns.getVolumeRange().getMaximum(from, to);
+    }
+
+    /**
+     * 计算新增点的表格位置
+     * 数据总数与A股交易时段一致时按时间计算(缺失的分钟会留出空位), 否则按顺序排列; 位置保证递增
+     */
+    private int calculateSlot(int position) {
+        int minSlot = position == 0 ? 0 : columns.getSlot(position - 1) + 1;
+        int slot = totalCount == TradingSession.SLOT_COUNT ? TradingSession.getSlot(lastMinute) : TradingSession.INVALID;
+        return Math.max(slot, minSlot);
+    }
+
+    /**
+     * 记录 [上一个点的位置, slot] 对应的 position
+     */
+    private void updateSlotPositions(int position, int slot) {
+        if (slotPositions.length <= slot) {
+            slotPositions = Arrays.copyOf(slotPositions, Math.max(slot + 1, slotPositions.length + (slotPositions.length >> 1)));
         }
+        int from = position == 0 ? 0 : columns.getSlot(position - 1) + 1;
+        for (int i = from; i < slot; i++) {
+            slotPositions[i] = Math.max(position - 1, 0);
+        }
+        slotPositions[slot] = position;
+    }
+
+    /**
+     * 增量更新后刷新坐标, 仅在坐标范围变化时才重新格式化坐标文本
+     *
+     * @return 坐标范围是否发生变化
+     */
+    private boolean updateAxis() {
+        if (!isInit) {
+            boolean isChanged = maxPrice != highPrice || minPrice != lowPrice || axisMaxVolume != maxVolume;
+            maxPrice = highPrice;
+            minPrice = lowPrice;
+            axisMaxVolume = maxVolume;
+            return isChanged;
+        }
+
+        float oldMaxPrice = maxPrice, oldMinPrice = minPrice;
+        calculateAxisPrice();
+        boolean isPriceChanged = oldMaxPrice != maxPrice || oldMinPrice != minPrice;
+        if (isPriceChanged) {
+            initPriceCoordinate();
+        }
+        boolean isVolumeChanged = axisMaxVolume != maxVolume;
+        if (isVolumeChanged) {
+            initVolumeCoordinate();
+        }
+        initCurrentVolume();
+        return isPriceChanged || isVolumeChanged;
     }
 
     private void initData() {
+        calculateAxisPrice();
+        initPriceCoordinate();
+        initCurrentVolume();
+        initVolumeCoordinate();
+    }
+
+    /**
+     * 以昨收为中心，计算上表格的价格坐标范围
+     */
+    private void calculateAxisPrice() {
+        maxPrice = highPrice;
+        minPrice = lowPrice;
         if (Math.abs(minPrice - lastClose) > Math.abs(maxPrice - lastClose)) {
             float temp = maxPrice;
             maxPrice = minPrice;
@@ -275,11 +548,26 @@ public class FenShiDataManager {
             minPrice = maxPrice;
             maxPrice = lastClose * 2 - maxPrice;
         }
+    }
 
+    private void initPriceCoordinate() {
         // 百分比坐标值
         percent = decimalFormat.format(((maxPrice - lastClose) / lastClose * 100)) + "%";
+        increasePercentString = "+" + percent;
+        decreasePercentString = "-" + percent;
+
+        // 价格坐标值
+        maxPriceString = decimalFormat.format(maxPrice);
+        minPriceString = decimalFormat.format(minPrice);
+        lastCloseString = decimalFormat.format(lastClose);
+    }
+
+    private void initCurrentVolume() {
+        currentVolumeString = fenShiUnitInterceptor == null ? NumberFormatter.get().clear().append("量：").appendVolume((int) getLastVolume()).toString() : fenShiUnitInterceptor.currentVolume(getLastVolume());
+    }
 
-        currentVolumeString = fenShiUnitInterceptor == null ? "量：" + NumberUtils.getVolume((int) getLastVolume()) : fenShiUnitInterceptor.currentVolume(getLastVolume());
+    private void initVolumeCoordinate() {
+        axisMaxVolume = maxVolume;
         maxVolumeString = fenShiUnitInterceptor == null ? NumberUtils.getVolume((int) maxVolume) : fenShiUnitInterceptor.maxVolume(maxVolume);
         centreVolumeString = fenShiUnitInterceptor == null ? NumberUtils.getVolume((int) maxVolume / 2) : fenShiUnitInterceptor.centreVolume(maxVolume / 2);
     }
@@ -289,5 +577,6 @@ public class FenShiDataManager {
      */
     public void setFenShiUnitInterceptor(FenShiUnitInterceptor fenShiUnitInterceptor) {
         this.fenShiUnitInterceptor = fenShiUnitInterceptor;
+        slideTimeSource = slideTime = null;
     }
 }
@@ -1,26 +1,92 @@
 package ysn.com.stock.manager;
 
+import android.support.annotation.IntRange;
+import android.support.annotation.Nullable;
+
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.bean.FenShiColumns;
 import ysn.com.stock.bean.IFenShi;
+import ysn.com.stock.bean.IFenShiData;
 import ysn.com.stock.interceptor.FenShiUnitInterceptor;
+import ysn.com.stock.utils.NumberFormatter;
 import ysn.com.stock.utils.NumberUtils;
 import ysn.com.stock.utils.TimeUtils;
+import ysn.com.stock.utils.TradingSession;
 
 /**
  * @Author yangsanning
  * @ClassName FiveDayFenShiDataManager
- * @Description 五日分时数据管理器
+ * @Description 多日(5/10/20 日)分时数据管理器
+ * 所有天的点按时间顺序连续存放在同一个 {@link FenShiColumns} 中, 第 day 天为 [dayOffsets[day], dayOffsets[day + 1]);
+ * 每天的信息(点数、昨收、极值等)存放在环形数组中, 新的交易日通过 {@link #rollDay(IFenShi)} 移除最早一天并追加新的一天,
+ * 其余天不需要重新录入, 坐标极值由每天缓存的极值合并得到
  * @Date 2020/5/7
  */
 public class FiveDayFenShiDataManager {
 
+    /**
+     * 数据版本生成器
+     */
+    private static final AtomicInteger DATA_VERSION = new AtomicInteger();
+
     public DecimalFormat decimalFormat;
-    public LinkedHashMap<Integer, FenShiDataManager> dataManagerMap = new LinkedHashMap<>();
-    public List<FenShiDataManager> dataManagerList = new ArrayList<>();
+
+    /**
+     * 天数
+     */
+    private final int dayCount;
+
+    /**
+     * 所有天的价格、均价、成交量(连续存放)
+     */
+    public FenShiColumns columns;
+
+    /**
+     * 每天第一个点的 position(按第几天排列), 长度为 dayCount + 1(最后一个值为总点数)
+     */
+    private final int[] dayOffsets;
+
+    /**
+     * 环形数组, 第 day 天位于 (head + day) % dayCount
+     * daySizes: 每天的点数
+     * dayTotalCounts: 每天的数据总数(即每天需要绘制的点总数, 0 表示使用默认值)
+     * dayLastCloses: 每天的昨收(第一个点的涨跌对比价)
+     * dayMaxPrices、dayMinPrices、dayMaxVolumes: 每天的极值, 录入时计算
+     */
+    private int head;
+    private final int[] daySizes;
+    private final int[] dayTotalCounts;
+    private final float[] dayLastCloses;
+    private final float[] dayMaxPrices;
+    private final float[] dayMinPrices;
+    private final float[] dayMaxVolumes;
+
+    /**
+     * 原始时间(只保存引用, 滑动时才按需转换格式)
+     */
+    private String[] times = new String[0];
+
+    /**
+     * 滑动时间缓存(只缓存最近一次转换的结果)
+     */
+    private String slideTimeSource, slideTime;
+
+    /**
+     * 数据版本, 设置数据时更新(所有实例之间唯一, 替换数据管理器后缓存不会误用)
+     */
+    public int dataVersion;
+
+    /**
+     * 最后一个点的时间(一天中的第几分钟), 无法解析时为 {@link TradingSession#INVALID}
+     */
+    public int lastMinute = TradingSession.INVALID;
 
     /**
      * 时间坐标
@@ -47,6 +113,20 @@ public class FiveDayFenShiDataManager {
      */
     public String percent = " 100%";
 
+    /**
+     * 上表格坐标文本(设置数据时格式化, 绘制时直接使用)
+     */
+    public String maxPriceString = "";
+    public String minPriceString = "";
+    public String lastCloseString = "";
+    public String increasePercentString = "";
+    public String decreasePercentString = "";
+
+    /**
+     * 时间坐标文本, 与 {@link #dateList} 一一对应(无效时间为 null)
+     */
+    public List<String> dateTextList = new ArrayList<>();
+
     /**
      * 最大交易量
      */
@@ -72,54 +152,210 @@ public class FiveDayFenShiDataManager {
      */
     private FenShiUnitInterceptor fenShiUnitInterceptor;
 
-    public FiveDayFenShiDataManager(int count, DecimalFormat decimalFormat) {
-        for (int i = 0; i < count; i++) {
-            dataManagerMap.put(i, new FenShiDataManager(decimalFormat));
-        }
+    public FiveDayFenShiDataManager(int dayCount, DecimalFormat decimalFormat) {
+        this.dayCount = Math.max(dayCount, 1);
         this.decimalFormat = decimalFormat;
+        columns = new FenShiColumns(this.dayCount * TradingSession.SLOT_COUNT);
+        dayOffsets = new int[this.dayCount + 1];
+        daySizes = new int[this.dayCount];
+        dayTotalCounts = new int[this.dayCount];
+        dayLastCloses = new float[this.dayCount];
+        dayMaxPrices = new float[this.dayCount];
+        dayMinPrices = new float[this.dayCount];
+        dayMaxVolumes = new float[this.dayCount];
     }
 
+    /**
+     * 设置数据, 数据按时间顺序排列, 靠右对齐(最后一条数据为最后一天), 数据为空时清空所有天
+     */
     public <T extends IFenShi> void setData(List<T> fenShiList) {
-        int mapSize = dataManagerMap.values().size();
-        for (int i = mapSize - 1; i >= 0; i--) {
-            int dValue = i - mapSize + fenShiList.size();
-            if (dValue < 0) {
-                break;
+        dataVersion = DATA_VERSION.incrementAndGet();
+        clearTimes(0, columns.size());
+        columns.clear();
+        head = 0;
+        dateList.clear();
+        dateTextList.clear();
+
+        int startIndex = fenShiList.size() - dayCount;
+        for (int day = 0; day < dayCount; day++) {
+            int index = startIndex + day;
+            addDay(day, index >= 0 ? fenShiList.get(index) : null);
+        }
+
+        lastClose = fenShiList.isEmpty() ? 0 : fenShiList.get(fenShiList.size() - 1).getFenShiLastClose();
+        onDaysChanged();
+    }
+
+    /**
+     * 滚动到新的交易日: 移除最早的一天, 在最后追加新的一天, 其余天的点以及极值保持不变
+     * 还没有设置过数据时等同于 {@link #setData(List)}
+     *
+     * @param fenShi 新的一天
+     */
+    public <T extends IFenShi> void rollDay(T fenShi) {
+        if (isWindowEmpty()) {
+            setData(Collections.singletonList(fenShi));
+            return;
+        }
+        dataVersion = DATA_VERSION.incrementAndGet();
+        int removeCount = daySizes[head];
+        int size = columns.size();
+        columns.removeFirst(removeCount);
+        System.arraycopy(times, removeCount, times, 0, columns.size());
+        // 释放前移后空出的时间
+        clearTimes(columns.size(), size);
+        head = (head + 1) % dayCount;
+        dateList.remove(0);
+        dateTextList.remove(0);
+
+        addDay(dayCount - 1, fenShi);
+        lastClose = fenShi.getFenShiLastClose();
+        onDaysChanged();
+    }
+
+    /**
+     * 替换最后一天的数据(当天数据更新), 前面的天保持不变
+     * 还没有设置过数据时等同于 {@link #setData(List)}
+     */
+    public <T extends IFenShi> void setLastDay(T fenShi) {
+        if (isWindowEmpty()) {
+            setData(Collections.singletonList(fenShi));
+            return;
+        }
+        dataVersion = DATA_VERSION.incrementAndGet();
+        int start = getDayStart(dayCount - 1);
+        clearTimes(start, columns.size());
+        columns.truncate(start);
+        dateList.remove(dayCount - 1);
+        dateTextList.remove(dayCount - 1);
+
+        addDay(dayCount - 1, fenShi);
+        lastClose = fenShi.getFenShiLastClose();
+        onDaysChanged();
+    }
+
+    /**
+     * 在最后追加一天的点, 并记录当天的信息以及极值
+     *
+     * @param day    第几天(只能为当前最后一天之后的那一天)
+     * @param fenShi 当天的数据, 为 null 时当天没有数据
+     */
+    private <T extends IFenShi> void addDay(int day, @Nullable T fenShi) {
+        int index = getDayIndex(day);
+        int start = columns.size();
+        long time = 0;
+        if (fenShi == null) {
+            dayTotalCounts[index] = 0;
+            dayLastCloses[index] = 0;
+        } else {
+            time = fenShi.getFenShiTime();
+            dayTotalCounts[index] = fenShi.getTotalCount();
+            dayLastCloses[index] = fenShi.getFenShiLastClose();
+            if (fenShi instanceof FenShiColumnData) {
+                // 按列存放的数据直接读取列, 不经过单个点的对象
+                FenShiColumnData columnData = (FenShiColumnData) fenShi;
+                int size = columnData.size();
+                ensureCapacity(start + size);
+                for (int i = 0; i < size; i++) {
+                    addPoint(index, i, columnData.getTime(i), columnData.getPrice(i), columnData.getAvePrice(i), columnData.getVolume(i));
+                }
             } else {
-                dataManagerMap.get(i).setData(fenShiList.get(dValue), false);
+                List<? extends IFenShiData> fenShiData = fenShi.getFenShiData();
+                int size = fenShiData.size();
+                ensureCapacity(start + size);
+                for (int i = 0; i < size; i++) {
+                    IFenShiData data = fenShiData.get(i);
+                    addPoint(index, i, data.getFenShiTime(), data.getFenShiPrice(), data.getFenShiAvgPrice(), data.getFenShiVolume());
+                }
             }
         }
-        lastClose = fenShiList.get(fenShiList.size() - 1).getFenShiLastClose();
-        initDataManagerList();
-        initData();
+
+        int end = columns.size();
+        daySizes[index] = end - start;
+        dayMaxPrices[index] = columns.getPriceRange().getMaximum(start, end);
+        dayMinPrices[index] = columns.getPriceRange().getMinimum(start, end);
+        dayMaxVolumes[index] = columns.getVolumeRange().getMaximum(start, end);
+        dateList.add(time);
+        dateTextList.add(time > 0 ? TimeUtils.formatDay(time) : null);
     }
 
     /**
-     * 过滤掉没有数据的 dataManager
+     * 是否还没有设置过数据(setData 之后每天都有一条时间记录)
      */
-    private void initDataManagerList() {
-        dataManagerList.clear();
-        for (int i = 0; i < dataManagerMap.size(); i++) {
-            FenShiDataManager dataManager = dataManagerMap.get(i);
-            if (!dataManager.isPriceEmpty()) {
-                dataManagerList.add(dataManager);
-            }
+    private boolean isWindowEmpty() {
+        return dateList.size() != dayCount;
+    }
+
+    /**
+     * 释放 [from, to) 范围内不再使用的时间
+     */
+    private void clearTimes(int from, int to) {
+        if (from < to) {
+            Arrays.fill(times, from, to, null);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        columns.ensureCapacity(capacity);
+        if (times.length < capacity) {
+            times = Arrays.copyOf(times, Math.max(capacity, times.length + (times.length >> 1)));
+        }
+    }
+
+    /**
+     * 追加一个点
+     *
+     * @param index 当天在环形数组中的下标
+     * @param i     当天的第几个点
+     */
+    private void addPoint(int index, int i, String time, float price, float avePrice, float volume) {
+        int position = columns.add(i, price, avePrice, volume);
+        // 每天第一个点跟当天的昨收对比, 后续点跟前一个点对比
+        float comparePrice = i == 0 ? dayLastCloses[index] : columns.getPrice(position - 1);
+        columns.setRising(position, price >= comparePrice);
+        times[position] = time;
+    }
+
+    /**
+     * 第 day 天在环形数组中的下标
+     */
+    private int getDayIndex(int day) {
+        return (head + day) % dayCount;
+    }
 
-            dateList.add(dataManager.time);
+    /**
+     * 天变化后重新计算每天的起始位置、最后时间以及坐标
+     */
+    private void onDaysChanged() {
+        slideTimeSource = slideTime = null;
+        for (int day = 0; day < dayCount; day++) {
+            dayOffsets[day + 1] = dayOffsets[day] + daySizes[getDayIndex(day)];
         }
+        lastMinute = isLastDayNotEmpty() ? TradingSession.parseMinute(times[columns.getLastPosition()]) : TradingSession.INVALID;
+        initData();
     }
 
     private void initData() {
-        FenShiDataManager dataManager = dataManagerList.get(0);
-        maxPrice = dataManager.maxPrice;
-        minPrice = dataManager.minPrice;
-        maxVolume = dataManager.maxVolume;
-
-        for (int i = 1; i < dataManagerList.size(); i++) {
-            dataManager = dataManagerList.get(i);
-            maxPrice = Math.max(maxPrice, dataManager.maxPrice);
-            minPrice = Math.min(minPrice, dataManager.minPrice);
-            maxVolume = Math.max(maxVolume, dataManager.maxVolume);
+        // 合并每天缓存的极值
+        boolean hasData = false;
+        for (int day = 0; day < dayCount; day++) {
+            int index = getDayIndex(day);
+            if (daySizes[index] == 0) {
+                continue;
+            }
+            if (hasData) {
+                maxPrice = Math.max(maxPrice, dayMaxPrices[index]);
+                minPrice = Math.min(minPrice, dayMinPrices[index]);
+                maxVolume = Math.max(maxVolume, dayMaxVolumes[index]);
+            } else {
+                maxPrice = dayMaxPrices[index];
+                minPrice = dayMinPrices[index];
+                maxVolume = dayMaxVolumes[index];
+                hasData = true;
+            }
+        }
+        if (!hasData) {
+            maxPrice = minPrice = maxVolume = 0;
         }
 
         if (Math.abs(minPrice - lastClose) > Math.abs(maxPrice - lastClose)) {
@@ -137,15 +373,103 @@ public class FiveDayFenShiDataManager {
 
         // 百分比坐标值
         percent = decimalFormat.format(((maxPrice - lastClose) / lastClose * 100)) + "%";
+        increasePercentString = "+" + percent;
+        decreasePercentString = "-" + percent;
+        maxPriceString = decimalFormat.format(maxPrice);
+        minPriceString = decimalFormat.format(minPrice);
+        lastCloseString = decimalFormat.format(lastClose);
 
+        float lastVolume = getLastVolume();
         currentVolumeString = fenShiUnitInterceptor == null ?
-                "量：" + NumberUtils.getVolume((int) getLastDataManager().getLastVolume()) : fenShiUnitInterceptor.currentVolume(getLastDataManager().getLastVolume());
+                NumberFormatter.get().clear().append("量：").appendVolume((int) lastVolume).toString() : fenShiUnitInterceptor.currentVolume(lastVolume);
         maxVolumeString = fenShiUnitInterceptor == null ? NumberUtils.getVolume((int) maxVolume) : fenShiUnitInterceptor.maxVolume(maxVolume);
         centreVolumeString = fenShiUnitInterceptor == null ? NumberUtils.getVolume((int) maxVolume / 2) : fenShiUnitInterceptor.centreVolume(maxVolume / 2);
     }
 
-    public FenShiDataManager getLastDataManager() {
-        return dataManagerMap.get(dataManagerMap.size() - 1);
+    /**
+     * 天数
+     */
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    /**
+     * 所有天是否都没有数据
+     */
+    public boolean isEmpty() {
+        return columns.isEmpty();
+    }
+
+    /**
+     * 第 day 天第一个点的 position
+     */
+    public int getDayStart(@IntRange(from = 0) int day) {
+        return dayOffsets[day];
+    }
+
+    /**
+     * 第 day 天的点数
+     */
+    public int getDaySize(@IntRange(from = 0) int day) {
+        return dayOffsets[day + 1] - dayOffsets[day];
+    }
+
+    /**
+     * 第 day 天是否没有数据
+     */
+    public boolean isDayEmpty(@IntRange(from = 0) int day) {
+        return getDaySize(day) == 0;
+    }
+
+    /**
+     * 第 day 天的数据总数, 0 表示没有设置
+     */
+    public int getDayTotalCount(@IntRange(from = 0) int day) {
+        return dayTotalCounts[getDayIndex(day)];
+    }
+
+    /**
+     * 最后一天是否有数据
+     */
+    public boolean isLastDayNotEmpty() {
+        return !isDayEmpty(dayCount - 1);
+    }
+
+    public float getPrice(@IntRange(from = 0) int position) {
+        return columns.getPrice(position);
+    }
+
+    public float getVolume(@IntRange(from = 0) int position) {
+        return columns.getVolume(position);
+    }
+
+    public boolean isRising(@IntRange(from = 0) int position) {
+        return columns.isRising(position);
+    }
+
+    /**
+     * 最后一天最后一个点的成交量, 最后一天没有数据时为 0
+     */
+    public float getLastVolume() {
+        return isLastDayNotEmpty() ? columns.getVolume(columns.getLastPosition()) : 0;
+    }
+
+    /**
+     * 根据position获取时间(有拦截器时按需转换格式, 相同的时间不会重复转换)
+     */
+    public String getTime(@IntRange(from = 0) int position) {
+        if (position >= columns.size()) {
+            return "";
+        }
+        String time = times[position];
+        if (fenShiUnitInterceptor == null || time == null) {
+            return time;
+        }
+        if (time != slideTimeSource) {
+            slideTimeSource = time;
+            slideTime = fenShiUnitInterceptor.slideTime(time);
+        }
+        return slideTime;
     }
 
     /**
@@ -153,8 +477,6 @@ public class FiveDayFenShiDataManager {
      */
     public void setFenShiUnitInterceptor(FenShiUnitInterceptor fenShiUnitInterceptor) {
         this.fenShiUnitInterceptor = fenShiUnitInterceptor;
-        for (FenShiDataManager dataManager : dataManagerMap.values()) {
-            dataManager.setFenShiUnitInterceptor(fenShiUnitInterceptor);
-        }
+        slideTimeSource = slideTime = null;
     }
 }
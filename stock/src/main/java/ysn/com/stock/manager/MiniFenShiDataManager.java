@@ -4,8 +4,10 @@ import android.support.annotation.IntRange;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ysn.com.stock.bean.Extremum;
+import ysn.com.stock.bean.FenShiColumnData;
 import ysn.com.stock.bean.IFenShi;
 import ysn.com.stock.bean.IFenShiData;
 import ysn.com.stock.config.MiniFenShiConfig;
@@ -18,18 +20,21 @@ import ysn.com.stock.config.MiniFenShiConfig;
  */
 public class MiniFenShiDataManager {
 
+    /**
+     * 数据版本生成器
+     */
+    private static final AtomicInteger DATA_VERSION = new AtomicInteger();
+
     /**
      * 分时参数配置
      */
     private MiniFenShiConfig config;
 
     /**
-     * priceList: 价格集合
      * lastClose: 收盘价
      * maxStockPrice: 最大价格
      * minStockPrice: 最小价格
      */
-    private List<? extends IFenShiData> fenShiDataList;
     public float lastClose = 0.0f;
     public Extremum extremum = new Extremum();
 
@@ -38,6 +43,20 @@ public class MiniFenShiDataManager {
      */
     public int totalCount;
 
+    /**
+     * 当前颜色(按最新价与昨收比较), 每个数据管理器单独保存, 预处理好的数据管理器可以在多个控件之间共用
+     */
+    public int currentColor;
+
+    /**
+     * prices: 价格列(有效长度为 {@link #priceSize()}, 供降采样等批量计算使用)
+     * size: 点数
+     * dataVersion: 数据版本, 设置数据时更新(所有实例之间唯一, 替换数据管理器后缓存不会误用)
+     */
+    public float[] prices = new float[0];
+    private int size;
+    public int dataVersion;
+
     public MiniFenShiDataManager(MiniFenShiConfig config) {
         this.config = config;
     }
@@ -46,14 +65,14 @@ public class MiniFenShiDataManager {
      * 价格是否为空
      */
     public boolean isPriceEmpty() {
-        return fenShiDataList.isEmpty();
+        return size == 0;
     }
 
     /**
      * 根据position获取价格
      */
     public float getPrice(@IntRange(from = 0) int position) {
-        return position < priceSize() ? fenShiDataList.get(position).getFenShiPrice() : 0;
+        return position < size ? prices[position] : 0;
     }
 
     /**
@@ -67,7 +86,7 @@ public class MiniFenShiDataManager {
      * 价格集合大小
      */
     public int priceSize() {
-        return fenShiDataList.size();
+        return size;
     }
 
     /**
@@ -83,12 +102,24 @@ public class MiniFenShiDataManager {
     public <T extends IFenShi> void setNewData(T fenShi) {
         // 重置数据
         lastClose = 0.0f;
-        fenShiDataList = fenShi.getFenShiData();
-        extremum.init(fenShiDataList.get(0).getFenShiPrice());
-
-        for (IFenShiData fenShiData : fenShiDataList) {
-            extremum.convert(fenShiData.getFenShiPrice());
+        dataVersion = DATA_VERSION.incrementAndGet();
+        if (fenShi instanceof FenShiColumnData) {
+            // 按列存放的数据直接读取列, 不经过单个点的对象
+            FenShiColumnData columnData = (FenShiColumnData) fenShi;
+            size = columnData.size();
+            ensureCapacity(size);
+            for (int i = 0; i < size; i++) {
+                prices[i] = columnData.getPrice(i);
+            }
+        } else {
+            List<? extends IFenShiData> fenShiDataList = fenShi.getFenShiData();
+            size = fenShiDataList.size();
+            ensureCapacity(size);
+            for (int i = 0; i < size; i++) {
+                prices[i] = fenShiDataList.get(i).getFenShiPrice();
+            }
         }
+        extremum.calculate(0, size, prices);
         lastClose = fenShi.getFenShiLastClose();
         totalCount = fenShi.getTotalCount();
 
@@ -99,6 +130,12 @@ public class MiniFenShiDataManager {
         resetCurrentColor();
     }
 
+    private void ensureCapacity(int capacity) {
+        if (prices.length < capacity) {
+            prices = new float[capacity];
+        }
+    }
+
     /**
      * 重置最值
      */
@@ -122,16 +159,16 @@ public class MiniFenShiDataManager {
      * 重置当前颜色
      */
     private void resetCurrentColor() {
-        if (fenShiDataList.isEmpty()) {
+        if (size == 0) {
             return;
         }
         float lastPrice = getLastPrice();
         if (lastPrice > lastClose) {
-            config.currentColor = config.upColor;
+            currentColor = config.upColor;
         } else if (lastPrice < lastClose) {
-            config.currentColor = config.downColor;
+            currentColor = config.downColor;
         } else {
-            config.currentColor = config.equalColor;
+            currentColor = config.equalColor;
         }
     }
 }
@@ -42,6 +42,7 @@ public class LazyPaint {
 
     /**
      * 测量文本
+     * 注意: 捕获局部变量的回调每次调用都会创建新对象, onDraw 中请使用 {@link #measure(String)}
      */
     public LazyPaint measure(String text, OnSomeOneCallBack<LazyTextPaint> callBack) {
         callBack.onCallBack(lazyTextPaint.measure(text));
@@ -259,4 +260,11 @@ public class LazyPaint {
     public LazyLinePaint getLazyLinePaint() {
         return lazyLinePaint;
     }
+
+    /**
+     * 获取文本测量缓存(可用于查看命中率)
+     */
+    public TextBoundsCache getTextBoundsCache() {
+        return lazyTextPaint.getTextBoundsCache();
+    }
 }
@@ -17,6 +17,11 @@ public class LazyTextPaint {
     public Rect textRect;
     public String latestMeasureText;
 
+    /**
+     * 文本测量缓存
+     */
+    private TextBoundsCache textBoundsCache = new TextBoundsCache();
+
     public LazyTextPaint() {
         textPaint = new Paint();
         // 设置抗锯齿
@@ -48,14 +53,18 @@ public class LazyTextPaint {
 
     /**
      * 测量文本
-     * 实际调用 {@link Paint#getTextBounds(String, int, int, Rect)}
+     * 优先读取测量缓存, 未命中时调用 {@link Paint#getTextBounds(String, int, int, Rect)}
      */
     public LazyTextPaint measure(String text) {
         this.latestMeasureText = text;
-        textPaint.getTextBounds(text, 0, text.length(), textRect);
+        textBoundsCache.getTextBounds(textPaint, text, textRect);
         return this;
     }
 
+    public TextBoundsCache getTextBoundsCache() {
+        return textBoundsCache;
+    }
+
     /**
      * 获取测量后的文本宽度
      */
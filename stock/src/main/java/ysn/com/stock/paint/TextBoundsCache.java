@@ -0,0 +1,141 @@
+package ysn.com.stock.paint;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Author yangsanning
+ * @ClassName TextBoundsCache
+ * @Description 文本测量缓存
+ * 以 文本 + 字体大小 + 字体 作为标识缓存 {@link Paint#getTextBounds(String, int, int, Rect)} 的结果,
+ * 超出容量时淘汰最久未使用的记录; 命中时不会创建任何对象。
+ * 仅在主线程使用
+ * @Date 2020/8/15
+ */
+public class TextBoundsCache {
+
+    /**
+     * 默认容量(坐标文本、时间文本、滑动值等)
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, Rect> cache;
+
+    /**
+     * 查找时复用的标识, 避免每次查找创建对象
+     */
+    private final Key lookupKey = new Key();
+
+    /**
+     * hitCount: 命中次数
+     * missCount: 未命中次数
+     */
+    private long hitCount, missCount;
+
+    public TextBoundsCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public TextBoundsCache(int maxSize) {
+        this.maxSize = Math.max(maxSize, 1);
+        // accessOrder 为 true 时按访问顺序排序, 最久未使用的记录在最前面
+        this.cache = new LinkedHashMap<Key, Rect>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Rect> eldest) {
+                return size() > TextBoundsCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取文本边界, 结果写入 bounds
+     */
+    public void getTextBounds(@NonNull Paint paint, @NonNull String text, @NonNull Rect bounds) {
+        lookupKey.set(text, paint.getTextSize(), paint.getTypeface());
+        Rect cacheBounds = cache.get(lookupKey);
+        if (cacheBounds != null) {
+            hitCount++;
+            bounds.set(cacheBounds);
+            return;
+        }
+
+        missCount++;
+        paint.getTextBounds(text, 0, text.length(), bounds);
+        Key key = new Key();
+        key.set(text, lookupKey.textSize, lookupKey.typeface);
+        cache.put(key, new Rect(bounds.left, bounds.top, bounds.right, bounds.bottom));
+    }
+
+    /**
+     * 清空缓存(计数不清空)
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 重置命中计数
+     */
+    public void resetCount() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * 缓存标识
+     */
+    private static class Key {
+
+        private String text;
+        private float textSize;
+        private Typeface typeface;
+
+        void set(String text, float textSize, Typeface typeface) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return textSize == key.textSize && typeface == key.typeface && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + (typeface == null ? 0 : typeface.hashCode());
+            return result;
+        }
+    }
+}
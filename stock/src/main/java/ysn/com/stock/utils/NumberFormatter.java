@@ -0,0 +1,216 @@
+package ysn.com.stock.utils;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName NumberFormatter
+ * @Description 基于字符缓冲的数字格式化(价格、百分比、成交量)
+ * 格式化结果写入可复用的 char[], 可直接通过 {@link #drawText(Canvas, float, float, Paint)} 绘制, 不会创建字符串;
+ * 实例不可在线程间共享, 后台线程请使用 {@link #get()} 获取当前线程的实例
+ * @Date 2020/8/16
+ */
+public class NumberFormatter {
+
+    /**
+     * 支持的最大小数位数
+     */
+    public static final int MAX_DIGITS = 6;
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L};
+
+    /**
+     * 定点数能表示的最大值, 超出时退回 {@link Float#toString(float)}
+     */
+    private static final double MAX_FIXED_VALUE = 1e15;
+
+    private static final long TEN_THOUSAND = 10000L;
+    private static final long HUNDRED_MILLION = 100000000L;
+    private static final long TRILLION = 1000000000000L;
+
+    private static final ThreadLocal<NumberFormatter> THREAD_FORMATTER = new ThreadLocal<NumberFormatter>() {
+        @Override
+        protected NumberFormatter initialValue() {
+            return new NumberFormatter();
+        }
+    };
+
+    private char[] buffer = new char[32];
+    private int length;
+
+    /**
+     * 获取当前线程的实例
+     */
+    public static NumberFormatter get() {
+        return THREAD_FORMATTER.get();
+    }
+
+    /**
+     * 清空缓冲
+     */
+    public NumberFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * 格式化为固定小数位数(四舍五入), 如 12.30
+     */
+    public NumberFormatter formatDecimal(float value, @IntRange(from = 0, to = MAX_DIGITS) int digits) {
+        return clear().appendDecimal(value, digits);
+    }
+
+    /**
+     * 格式化为带符号的百分比, 如 +1.23% / -1.23% / 0.00%
+     *
+     * @param percent 百分比数值(1.23 表示 1.23%)
+     */
+    public NumberFormatter formatPercent(float percent, @IntRange(from = 0, to = MAX_DIGITS) int digits) {
+        clear();
+        if (percent > 0 && Math.round((double) percent * POW10[Math.max(0, Math.min(digits, MAX_DIGITS))]) > 0) {
+            // 四舍五入后为 0 时不显示正号
+            append('+');
+        }
+        return appendDecimal(percent, digits).append('%');
+    }
+
+    /**
+     * 格式化成交量, 与 {@link NumberUtils#getVolume(int)} 规则一致(万/亿/万亿, 取整)
+     */
+    public NumberFormatter formatVolume(long volume) {
+        return clear().appendVolume(volume);
+    }
+
+    /**
+     * 追加固定小数位数的数值(按绝对值四舍五入, 正负数对称, 如 -788.875 -> -788.88)
+     */
+    public NumberFormatter appendDecimal(float value, @IntRange(from = 0, to = MAX_DIGITS) int digits) {
+        if (Float.isNaN(value) || Float.isInfinite(value) || Math.abs(value) >= MAX_FIXED_VALUE) {
+            return append(Float.toString(value));
+        }
+        digits = Math.max(0, Math.min(digits, MAX_DIGITS));
+
+        // Math.round 的 .5 总是向正无穷取整, 负数需要先取绝对值
+        long fixed = Math.round(Math.abs((double) value) * POW10[digits]);
+        if (value < 0 && fixed > 0) {
+            append('-');
+        }
+        long integer = fixed / POW10[digits];
+        appendLong(integer);
+        if (digits > 0) {
+            append('.');
+            long fraction = fixed - integer * POW10[digits];
+            // 小数部分补零
+            for (int i = digits - 1; i >= 0; i--) {
+                append((char) ('0' + (fraction / POW10[i]) % 10));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 追加成交量(万/亿/万亿, 取整)
+     */
+    public NumberFormatter appendVolume(long volume) {
+        if (volume < TEN_THOUSAND) {
+            return appendLong(volume);
+        } else if (volume < HUNDRED_MILLION) {
+            return appendLong(volume / TEN_THOUSAND).append('万');
+        } else if (volume < TRILLION) {
+            return appendLong(volume / HUNDRED_MILLION).append('亿');
+        }
+        return appendLong(volume / TRILLION).append('万').append('亿');
+    }
+
+    /**
+     * 追加整数
+     */
+    public NumberFormatter appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int start = length;
+        do {
+            append((char) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+
+        // 反转数字部分
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char temp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = temp;
+        }
+        return this;
+    }
+
+    /**
+     * 追加两位数(不足两位补零, 用于时分)
+     */
+    public NumberFormatter appendTwoDigits(@IntRange(from = 0, to = 99) int value) {
+        return append((char) ('0' + value / 10 % 10)).append((char) ('0' + value % 10));
+    }
+
+    public NumberFormatter append(@NonNull String text) {
+        ensureCapacity(length + text.length());
+        text.getChars(0, text.length(), buffer, length);
+        length += text.length();
+        return this;
+    }
+
+    public NumberFormatter append(char c) {
+        ensureCapacity(length + 1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] newBuffer = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+
+    /**
+     * 字符缓冲, 有效长度为 {@link #length()}
+     */
+    public char[] getChars() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 测量当前文本
+     */
+    public void getTextBounds(@NonNull Paint paint, @NonNull Rect bounds) {
+        paint.getTextBounds(buffer, 0, length, bounds);
+    }
+
+    /**
+     * 绘制当前文本
+     */
+    public void drawText(@NonNull Canvas canvas, float x, float y, @NonNull Paint paint) {
+        canvas.drawText(buffer, 0, length, x, y, paint);
+    }
+
+    /**
+     * 生成字符串(会创建对象, 用于需要缓存结果的场景)
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
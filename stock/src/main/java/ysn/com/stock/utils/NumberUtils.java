@@ -1,7 +1,5 @@
 package ysn.com.stock.utils;
 
-import java.text.DecimalFormat;
-
 /**
  * @Author yangsanning
  * @ClassName NumberUtils
@@ -11,40 +9,23 @@ import java.text.DecimalFormat;
  */
 public class NumberUtils {
 
-    private static final DecimalFormat VOLUME_DECIMAL_FORMAT = new DecimalFormat("0.00");
-
     /**
      * @param value 数值
      * @param digits 保留小数点后的位数
      * @return 格式化后的字符串
      */
     public static String numberFormat(float value, int digits) {
-        return String.format("%." + digits + "f", formatDouble(value, digits));
+        return NumberFormatter.get().formatDecimal(value, digits).toString();
     }
 
     /**
-     * @param value 数值
-     * @param digits 保留小数点后的位数
-     * @return 格式化后的数值
+     * 保留两位小数, 线程安全(使用当前线程的 {@link NumberFormatter})
      */
-    private static double formatDouble(float value, int digits) {
-        double digit = Math.pow(10, digits);
-        return (double) Math.round(value * digit) / digit;
-    }
-
     public static String decimalFormat(float num) {
-        return VOLUME_DECIMAL_FORMAT.format(num);
+        return NumberFormatter.get().formatDecimal(num, 2).toString();
     }
 
     public static String getVolume(int volume) {
-        if (volume < 10000) {
-            return volume + "";
-        } else if (volume < Math.pow(10000, 2)) {
-            return volume / 10000 + "万";
-        }
-        if (volume < Math.pow(10000, 3)) {
-            return (int) (volume / Math.pow(10000, 2)) + "亿";
-        }
-        return (int) (volume / Math.pow(10000, 3)) + "万亿";
+        return NumberFormatter.get().formatVolume(volume).toString();
     }
 }
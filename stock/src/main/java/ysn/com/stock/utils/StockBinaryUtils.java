@@ -0,0 +1,425 @@
+package ysn.com.stock.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+
+/**
+ * @Author yangsanning
+ * @ClassName StockBinaryUtils
+ * @Description 分时、资金数据的二进制格式
+ * 文件: 魔数、版本、类型、记录数, 之后依次为每条记录
+ * 记录头: 代码、昨收、总点数、日期、点数
+ * 分时记录: 记录头, 之后为时间、价格、均价、成交量列;
+ * 资金记录: 记录头, 之后为价格、总资金净流入、主力净流入、散户净流入列
+ * 数值列保存为定点数(小数位数按列选取, 保证还原后与原 float 完全一致)的差值, 无法用定点数表示时保存原始 float
+ * @Date 2020/8/27
+ */
+public class StockBinaryUtils {
+
+    /**
+     * 魔数 "YSNB"
+     */
+    private static final int MAGIC = 0x59534E42;
+    /**
+     * 版本 2: 资金记录增加记录头(代码、昨收、总点数、日期)
+     */
+    private static final byte VERSION = 2;
+
+    public static final byte TYPE_FEN_SHI = 1;
+    public static final byte TYPE_CAPITAL = 2;
+
+    /**
+     * scale: 定点数的小数位数, SCALE_RAW 表示保存原始 float
+     */
+    private static final byte SCALE_RAW = -1;
+    private static final double[] POW_10 = {1, 10, 100, 1000, 10000};
+    private static final double MAX_FIXED = 1e15;
+
+    /**
+     * 时间列: TIME_STRING 逐个保存字符串, TIME_NUMBER 保存为等长数字串的差值
+     */
+    private static final byte TIME_STRING = 0;
+    private static final byte TIME_NUMBER = 1;
+    private static final int MAX_TIME_NUMBER_LENGTH = 18;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * 以只读方式映射文件, 关闭文件后映射仍然有效
+     */
+    @NonNull
+    public static ByteBuffer map(@NonNull File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 文件的数据类型, 不是该格式时返回 0
+     */
+    public static byte getType(@NonNull ByteBuffer buffer) {
+        if (buffer.remaining() < 10 || buffer.getInt(buffer.position()) != MAGIC
+                || buffer.get(buffer.position() + 4) != VERSION) {
+            return 0;
+        }
+        return buffer.get(buffer.position() + 5);
+    }
+
+    @NonNull
+    public static byte[] encodeFenShi(@NonNull FenShiColumnData fenShi) {
+        List<FenShiColumnData> fenShiList = new ArrayList<>(1);
+        fenShiList.add(fenShi);
+        return encodeFenShiList(fenShiList);
+    }
+
+    @NonNull
+    public static byte[] encodeFenShiList(@NonNull List<FenShiColumnData> fenShiList) {
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(byteStream);
+            writeHeader(out, TYPE_FEN_SHI, fenShiList.size());
+            for (FenShiColumnData fenShi : fenShiList) {
+                writeFenShi(out, fenShi);
+            }
+            out.flush();
+            return byteStream.toByteArray();
+        } catch (IOException e) {
+            // 写入内存不会出现 IO 异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NonNull
+    public static byte[] encodeCapital(@NonNull CapitalColumnData capital) {
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(byteStream);
+            writeHeader(out, TYPE_CAPITAL, 1);
+            int size = capital.size();
+            writeRecordHeader(out, capital.getCode(), capital.getLastClose(), capital.getTotalCount(), capital.getTime(), size);
+            writeColumn(out, capital.prices(), size);
+            writeColumn(out, capital.financeInFlows(), size);
+            writeColumn(out, capital.mainInFlows(), size);
+            writeColumn(out, capital.retailInFlows(), size);
+            out.flush();
+            return byteStream.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取第一条分时记录
+     */
+    @NonNull
+    public static FenShiColumnData decodeFenShi(@NonNull ByteBuffer buffer) {
+        int count = readHeader(buffer, TYPE_FEN_SHI);
+        if (count < 1) {
+            throw new IllegalArgumentException("no fen shi record");
+        }
+        return readFenShi(buffer);
+    }
+
+    @NonNull
+    public static List<FenShiColumnData> decodeFenShiList(@NonNull ByteBuffer buffer) {
+        int count = readHeader(buffer, TYPE_FEN_SHI);
+        List<FenShiColumnData> fenShiList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            fenShiList.add(readFenShi(buffer));
+        }
+        return fenShiList;
+    }
+
+    @NonNull
+    public static CapitalColumnData decodeCapital(@NonNull ByteBuffer buffer) {
+        readHeader(buffer, TYPE_CAPITAL);
+        String code = readString(buffer);
+        float lastClose = buffer.getFloat();
+        int totalCount = buffer.getInt();
+        long time = buffer.getLong();
+        int size = buffer.getInt();
+        CapitalColumnData capital = new CapitalColumnData(1);
+        capital.setCode(code);
+        capital.setLastClose(lastClose);
+        capital.setTotalCount(totalCount);
+        capital.setTime(time);
+        capital.setColumns(readColumn(buffer, size), readColumn(buffer, size), readColumn(buffer, size),
+                readColumn(buffer, size), size);
+        return capital;
+    }
+
+    private static void writeHeader(DataOutputStream out, byte type, int count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        out.writeInt(count);
+    }
+
+    /**
+     * @return 记录数
+     */
+    private static int readHeader(ByteBuffer buffer, byte type) {
+        if (getType(buffer) != type) {
+            throw new IllegalArgumentException("not a binary stock file of type " + type);
+        }
+        buffer.position(buffer.position() + 6);
+        return buffer.getInt();
+    }
+
+    private static void writeFenShi(DataOutputStream out, FenShiColumnData fenShi) throws IOException {
+        int size = fenShi.size();
+        writeRecordHeader(out, fenShi.getFenShiCode(), fenShi.getFenShiLastClose(), fenShi.getTotalCount(),
+                fenShi.getFenShiTime(), size);
+
+        String[] times = new String[size];
+        float[] prices = new float[size];
+        float[] avePrices = new float[size];
+        float[] volumes = new float[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = fenShi.getTime(i);
+            prices[i] = fenShi.getPrice(i);
+            avePrices[i] = fenShi.getAvePrice(i);
+            volumes[i] = fenShi.getVolume(i);
+        }
+        writeTimes(out, times, size);
+        writeColumn(out, prices, size);
+        writeColumn(out, avePrices, size);
+        writeColumn(out, volumes, size);
+    }
+
+    /**
+     * 记录头: 代码、昨收、总点数、日期、点数
+     */
+    private static void writeRecordHeader(DataOutputStream out, @Nullable String code, float lastClose, int totalCount,
+                                          long time, int size) throws IOException {
+        writeString(out, code);
+        out.writeFloat(lastClose);
+        out.writeInt(totalCount);
+        out.writeLong(time);
+        out.writeInt(size);
+    }
+
+    private static FenShiColumnData readFenShi(ByteBuffer buffer) {
+        String code = readString(buffer);
+        float lastClose = buffer.getFloat();
+        int totalCount = buffer.getInt();
+        long time = buffer.getLong();
+        int size = buffer.getInt();
+
+        String[] times = readTimes(buffer, size);
+        float[] prices = readColumn(buffer, size);
+        float[] avePrices = readColumn(buffer, size);
+        float[] volumes = readColumn(buffer, size);
+
+        FenShiColumnData fenShi = new FenShiColumnData(1);
+        fenShi.setCode(code);
+        fenShi.setLastClose(lastClose);
+        fenShi.setTotalCount(totalCount);
+        fenShi.setTime(time);
+        fenShi.setColumns(times, prices, avePrices, volumes, size);
+        return fenShi;
+    }
+
+    /**
+     * 时间都是等长的数字串(如 201905060930)时保存差值, 否则逐个保存
+     */
+    private static void writeTimes(DataOutputStream out, String[] times, int size) throws IOException {
+        int length = getNumberLength(times, size);
+        if (length > 0) {
+            out.writeByte(TIME_NUMBER);
+            out.writeByte(length);
+            long last = 0;
+            for (int i = 0; i < size; i++) {
+                long value = Long.parseLong(times[i]);
+                writeVarLong(out, value - last);
+                last = value;
+            }
+        } else {
+            out.writeByte(TIME_STRING);
+            for (int i = 0; i < size; i++) {
+                writeString(out, times[i]);
+            }
+        }
+    }
+
+    private static String[] readTimes(ByteBuffer buffer, int size) {
+        String[] times = new String[size];
+        if (buffer.get() == TIME_NUMBER) {
+            int length = buffer.get();
+            long value = 0;
+            for (int i = 0; i < size; i++) {
+                value += readVarLong(buffer);
+                times[i] = toNumberString(value, length);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                times[i] = readString(buffer);
+            }
+        }
+        return times;
+    }
+
+    /**
+     * @return 时间都是等长的数字串时返回长度, 否则返回 0
+     */
+    private static int getNumberLength(String[] times, int size) {
+        if (size == 0 || times[0] == null) {
+            return 0;
+        }
+        int length = times[0].length();
+        if (length == 0 || length > MAX_TIME_NUMBER_LENGTH) {
+            return 0;
+        }
+        for (int i = 0; i < size; i++) {
+            String time = times[i];
+            if (time == null || time.length() != length) {
+                return 0;
+            }
+            for (int j = 0; j < length; j++) {
+                char c = time.charAt(j);
+                if (c < '0' || c > '9') {
+                    return 0;
+                }
+            }
+        }
+        return length;
+    }
+
+    private static String toNumberString(long value, int length) {
+        String number = Long.toString(value);
+        if (number.length() >= length) {
+            return number;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = number.length(); i < length; i++) {
+            builder.append('0');
+        }
+        return builder.append(number).toString();
+    }
+
+    /**
+     * 数值列: 小数位数 + 定点数差值, 或 SCALE_RAW + 原始 float
+     */
+    private static void writeColumn(DataOutputStream out, float[] values, int size) throws IOException {
+        int scale = getScale(values, size);
+        out.writeByte(scale);
+        if (scale == SCALE_RAW) {
+            for (int i = 0; i < size; i++) {
+                out.writeFloat(values[i]);
+            }
+            return;
+        }
+        long last = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(values[i] * POW_10[scale]);
+            writeVarLong(out, value - last);
+            last = value;
+        }
+    }
+
+    private static float[] readColumn(ByteBuffer buffer, int size) {
+        float[] values = new float[size];
+        int scale = buffer.get();
+        if (scale == SCALE_RAW) {
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer.getFloat();
+            }
+            return values;
+        }
+        double pow = POW_10[scale];
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value += readVarLong(buffer);
+            values[i] = (float) (value / pow);
+        }
+        return values;
+    }
+
+    /**
+     * 能完全还原所有数值的最小小数位数, 都不能还原时返回 SCALE_RAW
+     */
+    private static byte getScale(float[] values, int size) {
+        for (byte scale = 0; scale < POW_10.length; scale++) {
+            if (isExact(values, size, POW_10[scale])) {
+                return scale;
+            }
+        }
+        return SCALE_RAW;
+    }
+
+    private static boolean isExact(float[] values, int size, double pow) {
+        for (int i = 0; i < size; i++) {
+            double fixed = values[i] * pow;
+            if (!(Math.abs(fixed) < MAX_FIXED) || (float) (Math.round(fixed) / pow) != values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * zigzag + 变长编码, 小的差值只占 1~2 个字节
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * 字符串: 字节数(short, -1 表示 null) + UTF-8
+     */
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("string too long: " + bytes.length);
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -2,14 +2,16 @@ package ysn.com.stock.utils;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * @Author yangsanning
  * @ClassName TimeUtils
  * @Description 时间工具类
+ * SimpleDateFormat 按线程复用, 日期的解析、格式化结果按 LRU 缓存(日期数量很少, 重复转换直接命中)
  * @Date 2020/5/7
  */
 public class TimeUtils {
@@ -17,16 +19,80 @@ public class TimeUtils {
     private static final String FORMAT_YYYY_MM_DD = "yyyy-MM-dd";
     public static final String FORMAT_DAY = "MM/dd";
 
+    /**
+     * 日期缓存容量
+     */
+    private static final int MAX_CACHE_SIZE = 64;
+
+    private static final ThreadLocal<SimpleDateFormat> YYYY_MM_DD_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(FORMAT_YYYY_MM_DD, Locale.getDefault());
+        }
+    };
+
+    private static final ThreadLocal<SimpleDateFormat> DAY_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(FORMAT_DAY, Locale.getDefault());
+        }
+    };
+
+    /**
+     * DATE_CACHE: yyyy-MM-dd -> 时间戳(解析失败时为 0)
+     * DAY_CACHE: 时间戳 -> MM/dd
+     */
+    private static final Map<String, Long> DATE_CACHE = new LruCache<>();
+    private static final Map<Long, String> DAY_CACHE = new LruCache<>();
+
     public static long formatYyyyMmDd(String date) {
+        synchronized (DATE_CACHE) {
+            Long timestamp = DATE_CACHE.get(date);
+            if (timestamp != null) {
+                return timestamp;
+            }
+        }
+
+        long timestamp = 0;
         try {
-            return new SimpleDateFormat(FORMAT_YYYY_MM_DD, Locale.getDefault()).parse(date).getTime();
+            timestamp = YYYY_MM_DD_FORMAT.get().parse(date).getTime();
         } catch (ParseException e) {
             e.printStackTrace();
         }
-        return 0;
+        synchronized (DATE_CACHE) {
+            // 解析失败同样缓存, 避免重复解析
+            DATE_CACHE.put(date, timestamp);
+        }
+        return timestamp;
     }
 
     public static String formatDay(long timestamp) {
-        return new SimpleDateFormat(FORMAT_DAY, Locale.getDefault()).format(new Date(timestamp));
+        synchronized (DAY_CACHE) {
+            String day = DAY_CACHE.get(timestamp);
+            if (day != null) {
+                return day;
+            }
+        }
+
+        String day = DAY_FORMAT.get().format(new Date(timestamp));
+        synchronized (DAY_CACHE) {
+            DAY_CACHE.put(timestamp, day);
+        }
+        return day;
+    }
+
+    /**
+     * 按访问顺序淘汰的缓存
+     */
+    private static class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+        LruCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
     }
 }
@@ -0,0 +1,182 @@
+package ysn.com.stock.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.TimeZone;
+
+/**
+ * @Author yangsanning
+ * @ClassName TradingSession
+ * @Description A股交易时段(09:30-11:30, 13:00-15:00)
+ * 分钟与表格位置(slot)的转换通过预先计算的表完成, 均为 O(1);
+ * 11:30 与 13:00 为同一个位置(即 {@link #TIME_TEXT} 中的 11:30/13:00), 午休时间归入该位置
+ * @Date 2020/8/21
+ */
+public class TradingSession {
+
+    /**
+     * 时间坐标(开盘、午休、收盘)
+     */
+    public static final String[] TIME_TEXT = new String[]{"09:30", "11:30/13:00", "15:00"};
+
+    /**
+     * 开盘、午休、收盘时间(一天中的第几分钟)
+     */
+    public static final int MORNING_OPEN = 9 * 60 + 30;
+    public static final int MORNING_CLOSE = 11 * 60 + 30;
+    public static final int AFTERNOON_OPEN = 13 * 60;
+    public static final int AFTERNOON_CLOSE = 15 * 60;
+
+    /**
+     * 一个交易日的位置总数(上午 121 个, 下午 120 个)
+     */
+    public static final int SLOT_COUNT = (MORNING_CLOSE - MORNING_OPEN + 1) + (AFTERNOON_CLOSE - AFTERNOON_OPEN);
+
+    /**
+     * 非交易时间
+     */
+    public static final int INVALID = -1;
+
+    private static final int MINUTES_OF_DAY = 24 * 60;
+    private static final long MILLIS_OF_MINUTE = 60 * 1000L;
+
+    /**
+     * 交易所所在时区
+     */
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT+08:00");
+
+    /**
+     * MINUTE_TO_SLOT: 分钟 -> 位置
+     * SLOT_TO_MINUTE: 位置 -> 分钟(11:30/13:00 位置取 11:30)
+     * MINUTE_TEXT: 分钟 -> HH:mm, 首次使用时才格式化
+     */
+    private static final short[] MINUTE_TO_SLOT = new short[MINUTES_OF_DAY];
+    private static final short[] SLOT_TO_MINUTE = new short[SLOT_COUNT];
+    private static final String[] MINUTE_TEXT = new String[MINUTES_OF_DAY];
+
+    static {
+        int slot = 0;
+        for (int minute = 0; minute < MINUTES_OF_DAY; minute++) {
+            if (minute < MORNING_OPEN || minute > AFTERNOON_CLOSE) {
+                MINUTE_TO_SLOT[minute] = INVALID;
+            } else if (minute <= MORNING_CLOSE || minute > AFTERNOON_OPEN) {
+                SLOT_TO_MINUTE[slot] = (short) minute;
+                MINUTE_TO_SLOT[minute] = (short) slot++;
+            } else {
+                // 午休(包括 13:00)归入 11:30/13:00 所在的位置
+                MINUTE_TO_SLOT[minute] = (short) (slot - 1);
+            }
+        }
+    }
+
+    private TradingSession() {
+    }
+
+    /**
+     * 分钟对应的位置
+     *
+     * @param minuteOfDay 一天中的第几分钟
+     * @return 位置, 非交易时间返回 {@link #INVALID}
+     */
+    public static int getSlot(int minuteOfDay) {
+        return minuteOfDay >= 0 && minuteOfDay < MINUTES_OF_DAY ? MINUTE_TO_SLOT[minuteOfDay] : INVALID;
+    }
+
+    /**
+     * 时间戳对应的位置(按交易所时区计算)
+     */
+    public static int getSlot(long timestamp) {
+        return getSlot(getMinute(timestamp));
+    }
+
+    /**
+     * 时间字符串对应的位置, 支持 HH:mm、HHmm、yyyyMMddHHmm、yyyy-MM-dd HH:mm
+     */
+    public static int getSlot(String time) {
+        return getSlot(parseMinute(time));
+    }
+
+    /**
+     * 时间戳对应的分钟(一天中的第几分钟, 按交易所时区计算)
+     */
+    public static int getMinute(long timestamp) {
+        long localMinutes = (timestamp + TIME_ZONE.getOffset(timestamp)) / MILLIS_OF_MINUTE;
+        return (int) (((localMinutes % MINUTES_OF_DAY) + MINUTES_OF_DAY) % MINUTES_OF_DAY);
+    }
+
+    /**
+     * 解析时间字符串末尾的时分(不会创建对象), 支持 HH:mm、HHmm、yyyyMMddHHmm、yyyy-MM-dd HH:mm
+     *
+     * @return 一天中的第几分钟, 无法解析时返回 {@link #INVALID}
+     */
+    public static int parseMinute(String time) {
+        if (time == null || time.length() < 4) {
+            return INVALID;
+        }
+        int length = time.length();
+        int minute = parseTwoDigits(time, length - 2);
+        boolean hasColon = time.charAt(length - 3) == ':';
+        int hourIndex = hasColon ? length - 5 : length - 4;
+        if (hourIndex < 0) {
+            return INVALID;
+        }
+        int hour = parseTwoDigits(time, hourIndex);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID;
+        }
+        return hour * 60 + minute;
+    }
+
+    private static int parseTwoDigits(String text, int index) {
+        int high = text.charAt(index) - '0';
+        int low = text.charAt(index + 1) - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            return INVALID;
+        }
+        return high * 10 + low;
+    }
+
+    /**
+     * 位置对应的分钟(11:30/13:00 位置返回 11:30)
+     */
+    public static int getMinuteOfSlot(int slot) {
+        return slot >= 0 && slot < SLOT_COUNT ? SLOT_TO_MINUTE[slot] : INVALID;
+    }
+
+    /**
+     * 位置对应的时间文本(HH:mm), 首次使用时才格式化, 之后直接使用缓存
+     */
+    @NonNull
+    public static String formatSlot(int slot) {
+        return slot >= 0 && slot < SLOT_COUNT ? formatMinute(SLOT_TO_MINUTE[slot]) : "";
+    }
+
+    /**
+     * 分钟对应的时间文本(HH:mm), 首次使用时才格式化, 之后直接使用缓存
+     *
+     * @param minuteOfDay 一天中的第几分钟
+     */
+    @NonNull
+    public static String formatMinute(int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= MINUTES_OF_DAY) {
+            return "";
+        }
+        String text = MINUTE_TEXT[minuteOfDay];
+        if (text == null) {
+            text = NumberFormatter.get().clear()
+                    .appendTwoDigits(minuteOfDay / 60).append(':').appendTwoDigits(minuteOfDay % 60)
+                    .toString();
+            MINUTE_TEXT[minuteOfDay] = text;
+        }
+        return text;
+    }
+
+    /**
+     * 是否为休市时间点(11:30 午休、15:00 收盘), 此时不需要心跳
+     *
+     * @param minuteOfDay 一天中的第几分钟
+     */
+    public static boolean isCloseMinute(int minuteOfDay) {
+        return minuteOfDay == MORNING_CLOSE || minuteOfDay == AFTERNOON_CLOSE;
+    }
+}
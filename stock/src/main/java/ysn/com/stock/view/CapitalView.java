@@ -3,6 +3,7 @@ package ysn.com.stock.view;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.os.Build;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
@@ -10,13 +11,16 @@ import android.util.AttributeSet;
 import java.util.List;
 
 import ysn.com.stock.adapter.BaseCurveAdapter;
+import ysn.com.stock.bean.CapitalColumnData;
 import ysn.com.stock.bean.Extremum;
 import ysn.com.stock.bean.ICapitalData;
 import ysn.com.stock.bean.IExtremum;
 import ysn.com.stock.config.CapitalConfig;
+import ysn.com.stock.helper.SnapshotLoader;
 import ysn.com.stock.interceptor.CapitalUnitInterceptor;
 import ysn.com.stock.manager.CapitalDataManager;
 import ysn.com.stock.paint.LazyLinePaint;
+import ysn.com.stock.paint.LazyTextPaint;
 import ysn.com.stock.view.base.GridView;
 
 import static ysn.com.stock.config.CapitalConfig.DEFAULT_PRICE_STROKE_WIDTH;
@@ -34,6 +38,21 @@ public class CapitalView extends GridView {
     private CapitalDataManager dataManager = new CapitalDataManager();
     private CapitalUnitInterceptor interceptor;
 
+    /**
+     * 后台准备数据管理器, 准备完成后整体替换 {@link #dataManager}
+     */
+    private SnapshotLoader<CapitalDataManager> snapshotLoader = new SnapshotLoader<>(this, this::onSnapshot);
+
+    /**
+     * 坐标文本缓存, 数据或拦截器变化时重新生成
+     */
+    private String[] leftCoordinateTexts, rightCoordinateTexts;
+
+    /**
+     * 曲线线段是否已投影(数据或尺寸变化后需要重新投影)
+     */
+    private boolean isCurvePrepared;
+
     private boolean isDrawMainInFlow;
     private boolean isDrawRetailInFlow;
 
@@ -95,11 +114,16 @@ public class CapitalView extends GridView {
         return titleTableHeight * 0.534f;
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        isCurvePrepared = false;
+    }
+
     @Override
     protected void onBaseDraw(Canvas canvas) {
         // 绘制背景
         lazyPaint.drawRect(canvas, 0, getTopTableMaxY(), viewWidth, getTopTableMinY(), config.bgColor)
-                // 为后续操作统一设置字体大小以及文字颜色
                 .setTextColor(config.textColor);
         super.onBaseDraw(canvas);
     }
@@ -107,16 +131,14 @@ public class CapitalView extends GridView {
     @Override
     protected void onTitleTextDraw(Canvas canvas) {
         super.onTitleTextDraw(canvas);
-        lazyPaint.measure(config.leftTitle, lazyTextPaint -> {
-            // 绘制左上角标题
-            float y = getTopTableMinY() - lazyTextPaint.height();
-            lazyTextPaint.drawText(canvas, getTopTableMinX(), y);
-        }).measure(config.rightTitle, lazyTextPaint -> {
-            // 绘制右上角标题
-            float x = getTopTableMaxX() - lazyTextPaint.width();
-            float y = getTopTableMinY() - lazyTextPaint.height();
-            lazyTextPaint.drawText(canvas, x, y);
-        });
+        // 绘制左上角标题
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(config.leftTitle);
+        lazyTextPaint.drawText(canvas, getTopTableMinX(), (getTopTableMinY() - lazyTextPaint.height()));
+
+        // 绘制右上角标题
+        lazyTextPaint = lazyPaint.measure(config.rightTitle);
+        float x = getTopTableMaxX() - lazyTextPaint.width();
+        lazyTextPaint.drawText(canvas, x, (getTopTableMinY() - lazyTextPaint.height()));
     }
 
     @Override
@@ -138,20 +160,36 @@ public class CapitalView extends GridView {
      * 绘制坐标值
      */
     private void drawCoordinate(Canvas canvas) {
+        // 基础图层缓存后不会每帧绘制，这里需要重新设置文字颜色
+        lazyPaint.setTextColor(config.textColor);
         float topRowSpacing = getTopRowSpacing();
         int partTopHorizontal = getPartTopHorizontal();
+        initCoordinateTexts(partTopHorizontal);
         for (int i = 0; i <= partTopHorizontal; i++) {
             float defaultY = getTopRowY(topRowSpacing, i);
-            int position = i;
-            lazyPaint.measure(getLeftCoordinateText(i), lazyTextPaint -> {
-                // 价格坐标
-                float y = getTopCoordinateY(position, defaultY, lazyTextPaint);
-                lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, y);
-            }).measure(getRightCoordinateText(i), lazyTextPaint -> {
-                // inFlow坐标
-                float y = getTopCoordinateY(position, defaultY, lazyTextPaint);
-                lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin, y);
-            });
+
+            // 价格坐标
+            LazyTextPaint lazyTextPaint = lazyPaint.measure(leftCoordinateTexts[i]);
+            lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, getTopCoordinateY(i, defaultY, lazyTextPaint));
+
+            // inFlow坐标
+            lazyTextPaint = lazyPaint.measure(rightCoordinateTexts[i]);
+            lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin, getTopCoordinateY(i, defaultY, lazyTextPaint));
+        }
+    }
+
+    /**
+     * 生成坐标文本缓存, 缓存有效时不做处理
+     */
+    private void initCoordinateTexts(int partTopHorizontal) {
+        if (leftCoordinateTexts != null && leftCoordinateTexts.length == partTopHorizontal + 1) {
+            return;
+        }
+        leftCoordinateTexts = new String[partTopHorizontal + 1];
+        rightCoordinateTexts = new String[partTopHorizontal + 1];
+        for (int i = 0; i <= partTopHorizontal; i++) {
+            leftCoordinateTexts[i] = getLeftCoordinateText(i);
+            rightCoordinateTexts[i] = getRightCoordinateText(i);
         }
     }
 
@@ -159,7 +197,7 @@ public class CapitalView extends GridView {
      * 根据 position 获取对应的左坐标文本
      */
     private String getLeftCoordinateText(float position) {
-        Float value = getCoordinateValue(dataManager.getPriceExtremum(), position);
+        float value = getCoordinateValue(dataManager.getPriceExtremum(), position);
         return interceptor == null ? String.valueOf(value) : interceptor.leftCoordinate(value);
     }
 
@@ -167,14 +205,14 @@ public class CapitalView extends GridView {
      * 根据 position 获取对应的右坐标文本
      */
     private String getRightCoordinateText(float position) {
-        Float value = getCoordinateValue(dataManager.getInFlowExtremum(), position);
+        float value = getCoordinateValue(dataManager.getInFlowExtremum(), position);
         return interceptor == null ? String.valueOf(value) : interceptor.rightCoordinate(value);
     }
 
     /**
      * 根据极值和序号获取对应的坐标值
      */
-    private Float getCoordinateValue(IExtremum iExtremum, float position) {
+    private float getCoordinateValue(IExtremum iExtremum, float position) {
         return iExtremum.getMinimum() + iExtremum.getPeek() * position / getPartTopHorizontal();
     }
 
@@ -182,62 +220,32 @@ public class CapitalView extends GridView {
      * 绘制趋势线
      */
     private void drawLine(Canvas canvas) {
+        prepareCurves();
         LazyLinePaint lazyLinePaint = lazyPaint.getLazyLinePaint().setStrokeWidth(DEFAULT_PRICE_STROKE_WIDTH);
+        // 每条曲线一次绘制
+        priceCurveAdapter.drawPrepared(canvas, lazyLinePaint.setColor(config.priceColor).linePaint);
+        financeInFlowCurveAdapter.drawPrepared(canvas, lazyLinePaint.setColor(config.financeInFlowColor).linePaint);
         if (isDrawMainInFlow) {
-            if (isDrawRetailInFlow) {
-                drawAllLine(canvas, lazyLinePaint);
-            } else {
-                drawMainInflowLine(canvas, lazyLinePaint);
-            }
-        } else if (isDrawRetailInFlow) {
-            drawRetailInFlowLine(canvas, lazyLinePaint);
-        } else {
-            drawBaseLine(canvas, lazyLinePaint);
-        }
-    }
-
-    /**
-     * 绘制趋势线
-     */
-    private void drawAllLine(Canvas canvas, LazyLinePaint lazyLinePaint) {
-        for (int position = 0; position < dataManager.size() - 1; position++) {
-            priceCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.priceColor).linePaint, position);
-            financeInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.financeInFlowColor).linePaint, position);
-            mainInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.mainInFlowColor).linePaint, position);
-            retailInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.retailInFlowColor).linePaint, position);
+            mainInFlowCurveAdapter.drawPrepared(canvas, lazyLinePaint.setColor(config.mainInFlowColor).linePaint);
         }
-    }
-
-    /**
-     * 不绘制 RetailInFlow
-     */
-    private void drawMainInflowLine(Canvas canvas, LazyLinePaint lazyLinePaint) {
-        for (int position = 0; position < dataManager.size() - 1; position++) {
-            priceCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.priceColor).linePaint, position);
-            financeInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.financeInFlowColor).linePaint, position);
-            mainInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.mainInFlowColor).linePaint, position);
+        if (isDrawRetailInFlow) {
+            retailInFlowCurveAdapter.drawPrepared(canvas, lazyLinePaint.setColor(config.retailInFlowColor).linePaint);
         }
     }
 
     /**
-     * 不绘制 MainInFlow
+     * 投影曲线线段, 只在数据或尺寸变化后执行
      */
-    private void drawRetailInFlowLine(Canvas canvas, LazyLinePaint lazyLinePaint) {
-        for (int position = 0; position < dataManager.size() - 1; position++) {
-            priceCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.priceColor).linePaint, position);
-            financeInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.financeInFlowColor).linePaint, position);
-            retailInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.retailInFlowColor).linePaint, position);
-        }
-    }
-
-    /**
-     * 绘制基础趋势线
-     */
-    private void drawBaseLine(Canvas canvas, LazyLinePaint lazyLinePaint) {
-        for (int position = 0; position < dataManager.size() - 1; position++) {
-            priceCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.priceColor).linePaint, position);
-            financeInFlowCurveAdapter.draw(canvas, lazyLinePaint.setColor(config.financeInFlowColor).linePaint, position);
+    private void prepareCurves() {
+        if (isCurvePrepared) {
+            return;
         }
+        int size = dataManager.size();
+        priceCurveAdapter.prepare(size);
+        financeInFlowCurveAdapter.prepare(size);
+        mainInFlowCurveAdapter.prepare(size);
+        retailInFlowCurveAdapter.prepare(size);
+        isCurvePrepared = true;
     }
 
     /**
@@ -267,6 +275,8 @@ public class CapitalView extends GridView {
      */
     public CapitalView setInterceptor(CapitalUnitInterceptor interceptor) {
         this.interceptor = interceptor;
+        leftCoordinateTexts = null;
+        invalidateDataLayer();
         return this;
     }
 
@@ -274,8 +284,40 @@ public class CapitalView extends GridView {
      * 设置数据
      */
     public <T extends ICapitalData> void setNewData(List<T> dataList) {
+        snapshotLoader.cancel();
         dataManager.setNewData(dataList);
-        invalidate();
+        onDataChanged();
+    }
+
+    /**
+     * 设置按列存放的数据(解析时直接写入列, 不经过单个点的对象)
+     */
+    public void setNewData(@NonNull CapitalColumnData columnData) {
+        snapshotLoader.cancel();
+        dataManager.setNewData(columnData);
+        onDataChanged();
+    }
+
+    /**
+     * 在后台线程设置数据(复制列、计算极值), 完成后在主线程整体替换数据管理器(dataList 在发布之前不能再被修改)
+     */
+    public <T extends ICapitalData> void setNewDataAsync(List<T> dataList) {
+        snapshotLoader.load(() -> {
+            CapitalDataManager snapshot = new CapitalDataManager();
+            snapshot.setNewData(dataList);
+            return snapshot;
+        });
+    }
+
+    private void onSnapshot(CapitalDataManager snapshot) {
+        dataManager = snapshot;
+        onDataChanged();
+    }
+
+    private void onDataChanged() {
+        leftCoordinateTexts = null;
+        isCurvePrepared = false;
+        invalidateDataLayer();
     }
 
     /**
@@ -283,7 +325,7 @@ public class CapitalView extends GridView {
      */
     public CapitalView setDrawMainInFlow(boolean isDrawMainInFlow) {
         this.isDrawMainInFlow = isDrawMainInFlow;
-        invalidate();
+        invalidateDataLayer();
         return this;
     }
 
@@ -299,7 +341,7 @@ public class CapitalView extends GridView {
      */
     public CapitalView setDrawRetailInFlow(boolean isDrawRetailInFlow) {
         this.isDrawRetailInFlow = isDrawRetailInFlow;
-        invalidate();
+        invalidateDataLayer();
         return this;
     }
 
@@ -1,24 +1,39 @@
 package ysn.com.stock.view;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.RectF;
 import android.os.Build;
-import android.os.Handler;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
+import android.view.View;
+
+import java.text.DecimalFormat;
 
 import ysn.com.stock.R;
+import ysn.com.stock.bean.FenShiColumnData;
 import ysn.com.stock.bean.IFenShi;
+import ysn.com.stock.bean.IFenShiData;
+import ysn.com.stock.bean.TickRingBuffer;
 import ysn.com.stock.config.FenShiConfig;
+import ysn.com.stock.helper.FenShiHub;
+import ysn.com.stock.helper.FenShiPathCache;
+import ysn.com.stock.helper.FenShiSubscription;
+import ysn.com.stock.helper.HeartBeatHelper;
+import ysn.com.stock.helper.PillarBatch;
+import ysn.com.stock.helper.SnapshotLoader;
+import ysn.com.stock.helper.TickFeeder;
+import ysn.com.stock.helper.TickStore;
 import ysn.com.stock.interceptor.FenShiUnitInterceptor;
 import ysn.com.stock.manager.FenShiDataManager;
 import ysn.com.stock.paint.LazyTextPaint;
+import ysn.com.stock.utils.NumberFormatter;
 import ysn.com.stock.utils.NumberUtils;
+import ysn.com.stock.utils.TradingSession;
 import ysn.com.stock.view.base.GridSlideView;
 
 /**
@@ -32,38 +47,74 @@ public class FenShiView extends GridSlideView {
 
     private FenShiConfig config;
 
-    private Path avePricePath;
     private Paint avePricePaint, priceAreaPaint;
     private RectF middleRoundRectF = new RectF();
+    private float middleTableValueX, middleTableValueY;
+
+    /**
+     * 中间表格成交量文本缓存(成交量不变时不重新格式化)
+     * middleTableFormatter: 没有拦截器时直接格式化到字符缓冲, 绘制时不创建字符串
+     * middleTableText: 使用拦截器时的文本
+     */
+    private NumberFormatter middleTableFormatter = new NumberFormatter();
+    private String middleTableText;
+    private boolean isMiddleTableFormatted;
+    private boolean isMiddleTableTextValid;
+    private float middleTableVolume;
 
     /**
      * pillarSpace: 柱状图间距
      * maxPillarHeight: 柱状图绘制最大高度
      */
     private Paint pillarPaint;
+    private PillarBatch pillarBatch = new PillarBatch();
     private float maxPillarHeight;
 
     /**
-     * isBeat: 是否跳动
-     * beatFraction: 变化率
+     * 心跳(闪烁点)
      */
-    private boolean isBeat = false;
-    private float beatFraction;
-    private Paint heartPaint;
-    private ValueAnimator beatAnimator;
-    private Handler beatHandler = new Handler();
-    private Runnable beatRunnable = new Runnable() {
-        @Override
-        public void run() {
-            beatAnimator.start();
-            invalidate();
-            beatHandler.postDelayed(this, config.heartBeatRate);
-        }
-    };
+    private HeartBeatHelper heartBeatHelper;
 
     private FenShiDataManager dataManager;
     private FenShiUnitInterceptor interceptor;
 
+    /**
+     * 后台准备数据管理器, 准备完成后整体替换 {@link #dataManager}
+     */
+    private SnapshotLoader<FenShiDataManager> snapshotLoader = new SnapshotLoader<>(this, this::onSnapshot);
+
+    /**
+     * 实时 tick 投递, 首次调用 {@link #getTickFeeder()} 时创建
+     */
+    private TickFeeder tickFeeder;
+
+    /**
+     * 数据订阅, 通过 {@link #subscribe(String)} 设置代码后, 控件可见时自动接收 {@link FenShiHub} 发布的数据
+     */
+    private FenShiSubscription subscription = new FenShiSubscription(this, this::setDataAsync);
+
+    /**
+     * 坐标以及路径缓存
+     */
+    private FenShiPathCache pathCache = new FenShiPathCache();
+    private FenShiPathCache.Projection projection = new FenShiPathCache.Projection() {
+        @Override
+        public float getX(int position) {
+            // 按表格位置(时间)计算, 缺失的分钟会留出空位
+            return FenShiView.this.getX(dataManager.getSlot(position));
+        }
+
+        @Override
+        public float getPriceY(float price) {
+            return getTopTableY(price);
+        }
+
+        @Override
+        public float getVolumeY(float volume) {
+            return getPillarHeight(volume);
+        }
+    };
+
     public FenShiView(Context context) {
         super(context);
     }
@@ -97,33 +148,36 @@ public class FenShiView extends GridSlideView {
     protected void initPaint() {
         super.initPaint();
         // 初始化均价
-        avePricePath = new Path();
         avePricePaint = new Paint();
-        avePricePaint.setColor(getColor(R.color.stock_ave_price_line));
+        avePricePaint.setColor(palette.avePriceLineColor);
         avePricePaint.setAntiAlias(true);
         avePricePaint.setStyle(Paint.Style.STROKE);
         avePricePaint.setStrokeWidth(config.priceStrokeWidth);
 
         // 初始化价格区域
         priceAreaPaint = new Paint();
-        priceAreaPaint.setColor(getColor(R.color.stock_price_line));
+        priceAreaPaint.setColor(palette.priceLineColor);
         priceAreaPaint.setStyle(Paint.Style.FILL);
         priceAreaPaint.setStrokeWidth(2);
         priceAreaPaint.setAlpha(15);
 
         // 初始化扩散圆
-        heartPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        heartPaint.setAntiAlias(true);
-        beatAnimator = ValueAnimator.ofFloat(0, 1f).setDuration(config.heartBeatFractionRate);
-        beatAnimator.addUpdateListener(animation -> {
-            beatFraction = (float) animation.getAnimatedValue();
-            invalidate();
-        });
+        heartBeatHelper = new HeartBeatHelper(this, palette.priceLineColor, config.heartRadius,
+                config.heartDiameter, config.heartInitAlpha, config.heartBeatRate, config.heartBeatFractionRate);
 
         // 初始化柱形图
         pillarPaint = new Paint();
     }
 
+    @Override
+    protected void onPaletteChanged() {
+        super.onPaletteChanged();
+        avePricePaint.setColor(palette.avePriceLineColor);
+        priceAreaPaint.setColor(palette.priceLineColor);
+        priceAreaPaint.setAlpha(15);
+        heartBeatHelper.setHeartColor(palette.priceLineColor);
+    }
+
     @Override
     public int getTotalCount() {
         return dataManager.totalCount == 0 ? super.getTotalCount() : dataManager.totalCount;
@@ -142,6 +196,14 @@ public class FenShiView extends GridSlideView {
         return config.isEnabledSlide;
     }
 
+    /**
+     * 缓存数据图层: 滑动和心跳的每一帧只绘制缓存的图层以及滑动层, 数据变化时才重新绘制曲线、柱形图和坐标
+     */
+    @Override
+    protected boolean isEnabledDataLayerCache() {
+        return true;
+    }
+
     @Override
     public String convertTopSlideValue(float slideValue) {
         return interceptor == null ? NumberUtils.decimalFormat(slideValue) : interceptor.slipPrice(slideValue);
@@ -152,6 +214,26 @@ public class FenShiView extends GridSlideView {
         return interceptor == null ? NumberUtils.decimalFormat(slideValue) : interceptor.slipVolume(slideValue);
     }
 
+    @Override
+    protected boolean formatSlideValue(float slideValue, boolean isBottom, NumberFormatter formatter) {
+        if (interceptor != null) {
+            return false;
+        }
+        // 与 NumberUtils.decimalFormat 一致, 直接写入字符缓冲
+        formatter.formatDecimal(slideValue, 2);
+        return true;
+    }
+
+    @Override
+    protected int getSlidePosition(int slot) {
+        return dataManager.getPositionBySlot(slot);
+    }
+
+    @Override
+    protected float getSlideX(int slidePosition) {
+        return getX(dataManager.getSlot(slidePosition));
+    }
+
     @Override
     public String getSlideTime(int slidePosition) {
         return dataManager.getTime(slidePosition);
@@ -171,59 +253,78 @@ public class FenShiView extends GridSlideView {
         // 绘制中间表格文本
         drawMiddleTableText(canvas);
 
+        // 更新坐标以及路径缓存
+        updatePathCache();
+
         if (isEnabledBottomTable()) {
-            // 绘制价格、价格区域、均线、闪烁点、柱形图
-            drawPriceLineAndPillar(canvas);
+            // 绘制柱形图
+            drawPillar(canvas);
 
             // 绘制下表格坐标
             drawBottomTableCoordinate(canvas);
-        } else {
-            // 绘制价格、价格区域、均线、闪烁点
-            drawPriceLine(canvas);
         }
 
-        // 绘制价格曲线
+        // 更新闪烁点位置
+        updateHeart();
+
+        // 绘制价格曲线、价格区域、均线
         drawPricePath(canvas);
+    }
+
+    @Override
+    protected void onOverlayDraw(Canvas canvas) {
+        super.onOverlayDraw(canvas);
+        if (dataManager.isPriceEmpty()) {
+            return;
+        }
 
         // 绘制滑动相关
         drawSlide(canvas, dataManager.priceSize(), dataManager.maxPrice, dataManager.minPrice, dataManager.maxVolume, (0));
+
+        // 绘制中间表格滑动值
+        if (isEnabledBottomTable() && longPressHelper.isLongPress) {
+            updateMiddleTableText(dataManager.getVolume(slidePosition));
+            lazyPaint.setTextColor(palette.textTitleColor);
+            drawMiddleTableValue(canvas, middleTableValueY);
+        }
     }
 
     /**
      * 绘制上表格坐标
      */
     private void drawTopTableCoordinate(Canvas canvas) {
+        // 坐标文本由 dataManager 在坐标范围变化时格式化, 这里不做字符串拼接, 也不使用捕获变量的回调
         float topRowSpacing = getTopRowSpacing();
         int partTopHorizontal = getPartTopHorizontal();
-        lazyPaint.setTextColor(getColor(R.color.stock_red))
-                .measure(decimalFormat.format(dataManager.maxPrice), lazyTextPaint -> {
-                    // 价格最大值
-                    float y2 = getTopCoordinateY(partTopHorizontal, getTopRowY(topRowSpacing, partTopHorizontal), lazyTextPaint);
-                    lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, y2);
-                })
-                .measure(("+" + dataManager.percent), lazyTextPaint -> {
-                    // 增幅
-                    float y2 = getTopCoordinateY(partTopHorizontal, getTopRowY(topRowSpacing, partTopHorizontal), lazyTextPaint);
-                    lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin, y2);
-                })
-                .setTextColor(getColor(R.color.stock_green))
-                .measure(decimalFormat.format(dataManager.minPrice), lazyTextPaint -> {
-                    // 价格最小值
-                    float y2 = getTopCoordinateY(0, getTopRowY(topRowSpacing, 0), lazyTextPaint);
-                    lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, y2);
-                })
-                .measure(("-" + dataManager.percent), lazyTextPaint -> {
-                    // 减幅
-                    float y2 = getTopCoordinateY(0, getTopRowY(topRowSpacing, 0), lazyTextPaint);
-                    lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin, y2);
-                })
-                .setTextColor(getColor(R.color.stock_text_title))
-                .measure(decimalFormat.format(dataManager.lastClose), lazyTextPaint -> {
-                    // 中间坐标
-                    int position = partTopHorizontal / 2;
-                    float y2 = getTopCoordinateY(position, getTopRowY(topRowSpacing, position), lazyTextPaint);
-                    lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, y2);
-                });
+        float maxY = getTopRowY(topRowSpacing, partTopHorizontal);
+        float minY = getTopRowY(topRowSpacing, 0);
+
+        // 价格最大值
+        lazyPaint.setTextColor(palette.redColor);
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(dataManager.maxPriceString);
+        lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin,
+                getTopCoordinateY(partTopHorizontal, maxY, lazyTextPaint));
+
+        // 增幅
+        lazyTextPaint = lazyPaint.measure(dataManager.increasePercentString);
+        lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin,
+                getTopCoordinateY(partTopHorizontal, maxY, lazyTextPaint));
+
+        // 价格最小值
+        lazyPaint.setTextColor(palette.greenColor);
+        lazyTextPaint = lazyPaint.measure(dataManager.minPriceString);
+        lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin, getTopCoordinateY(0, minY, lazyTextPaint));
+
+        // 减幅
+        lazyTextPaint = lazyPaint.measure(dataManager.decreasePercentString);
+        lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), xYTextMargin, getTopCoordinateY(0, minY, lazyTextPaint));
+
+        // 中间坐标
+        int position = partTopHorizontal / 2;
+        lazyPaint.setTextColor(palette.textTitleColor);
+        lazyTextPaint = lazyPaint.measure(dataManager.lastCloseString);
+        lazyTextPaint.drawTableStartText(canvas, getTopTableMinX(), xYTextMargin,
+                getTopCoordinateY(position, getTopRowY(topRowSpacing, position), lazyTextPaint));
     }
 
     /**
@@ -237,53 +338,55 @@ public class FenShiView extends GridSlideView {
             middleRoundRectF.right = tableMargin + lazyTextPaint.width() + xYTextMargin * 8;
             middleRoundRectF.bottom = bottomTableMinY - tableMargin * 4;
 
-            lazyPaint.drawRoundRect(canvas, getColor(R.color.stock_middle_round_rect), middleRoundRectF, 4, 4);
+            lazyPaint.drawRoundRect(canvas, palette.middleRoundRectColor, middleRoundRectF, 4, 4);
             float y = middleRoundRectF.bottom - (middleTableHeight - lazyTextPaint.height()) / 2f;
-            lazyTextPaint.drawText(canvas, (tableMargin + xYTextMargin * 4), y)
-                    .drawText(canvas, getMiddleTableText(), (middleRoundRectF.right + xYTextMargin * 2), y);
+            middleTableValueX = middleRoundRectF.right + xYTextMargin * 2;
+            middleTableValueY = y;
+            lazyTextPaint.drawText(canvas, (tableMargin + xYTextMargin * 4), y);
+
+            // 长按时成交量随滑动变化，在 onOverlayDraw 中绘制
+            if (!longPressHelper.isLongPress) {
+                updateMiddleTableText(dataManager.getLastVolume());
+                drawMiddleTableValue(canvas, y);
+            }
         }
     }
 
-    public String getMiddleTableText() {
-        return convertBottomSlideValue(longPressHelper.isLongPress ?
-                dataManager.getVolume(slidePosition) : dataManager.getLastVolume());
+    /**
+     * 更新中间表格成交量文本, 成交量不变时沿用上一次的文本
+     */
+    private void updateMiddleTableText(float volume) {
+        if (isMiddleTableTextValid && middleTableVolume == volume) {
+            return;
+        }
+        isMiddleTableTextValid = true;
+        middleTableVolume = volume;
+        isMiddleTableFormatted = formatSlideValue(volume, true, middleTableFormatter);
+        middleTableText = isMiddleTableFormatted ? null : convertBottomSlideValue(volume);
     }
 
     /**
-     * 绘制价格、价格区域、均线、闪烁点、柱形图
-     * 相比于{@link #drawPriceLine}多了柱形图绘制, 之所以加多一个方法是为了减少循环耗时，以及避免没必要的判断
+     * 绘制中间表格成交量
      */
-    private void drawPriceLineAndPillar(Canvas canvas) {
-        // pillarSpace= 宽 - 边距 - 柱子间距(1f)
-        float pillarSpace = (viewWidth - (tableMargin * 2) - (getTotalCount() * 1f)) / getTotalCount();
-        pillarPaint.setStrokeWidth(pillarSpace);
-
-        // 设置价格圆点（第一个点）
-        moveToPrice();
-
-        // 绘制第一个点柱状图（第一个点要跟昨收做对比）
-        pillarPaint.setColor(getColor(dataManager.getPrice(0) >= dataManager.lastClose ?
-                R.color.stock_red : R.color.stock_green));
-        drawPillar(canvas, 0, pillarSpace);
-
-        for (int i = 1; i < dataManager.priceSize(); i++) {
-            // 记录后续价格点
-            lineToPrice(canvas, i);
-
-            // 绘制后续柱形图
-            pillarPaint.setColor(getColor(dataManager.getPrice(i) >= dataManager.getPrice(i - 1) ?
-                    R.color.stock_red : R.color.stock_green));
-            drawPillar(canvas, i, pillarSpace);
+    private void drawMiddleTableValue(Canvas canvas, float y) {
+        if (isMiddleTableFormatted) {
+            middleTableFormatter.drawText(canvas, middleTableValueX, y, lazyPaint.getTextPaint());
+        } else {
+            canvas.drawText(middleTableText, middleTableValueX, y, lazyPaint.getTextPaint());
         }
     }
 
+    public String getMiddleTableText() {
+        return convertBottomSlideValue(longPressHelper.isLongPress ?
+                dataManager.getVolume(slidePosition) : dataManager.getLastVolume());
+    }
+
     /**
-     * 设置价格圆点（第一个点）
+     * 更新坐标以及路径缓存, 数据版本、控件尺寸以及极值不变时不做任何处理
      */
-    private void moveToPrice() {
-        float x = getX(0);
-        lazyPaint.moveTo(x, getTopTableY(dataManager.getPrice(0)));
-        avePricePath.moveTo(x, getTopTableY(dataManager.getAvePrice(0)));
+    private void updatePathCache() {
+        pathCache.update(dataManager, viewWidth, viewHeight, getTotalCount(),
+                getTopTableMinX(), getTopTableMaxY(), projection);
     }
 
     /**
@@ -297,55 +400,50 @@ public class FenShiView extends GridSlideView {
     }
 
     /**
-     * 绘制后续柱形图
+     * 绘制柱形图
      */
-    private void drawPillar(Canvas canvas, int position, float pillarSpace) {
-        float pillarX = getPillarX(position, pillarSpace);
-        float pillarStopY = getPillarHeight(position);
-        canvas.drawLine(pillarX, bottomTableMaxY, pillarX, pillarStopY, pillarPaint);
+    private void drawPillar(Canvas canvas) {
+        // pillarSpace= 宽 - 边距 - 柱子间距(1f)
+        float pillarSpace = (viewWidth - (tableMargin * 2) - (getTotalCount() * 1f)) / getTotalCount();
+        pillarPaint.setStrokeWidth(pillarSpace);
+
+        // 涨跌在数据录入时已计算(第一个点跟昨收对比, 后续点跟前一个点对比), 这里按颜色收集后批量绘制
+        float[] volumeYs = pathCache.volumeYs;
+        int pillarCount = pathCache.getPillarCount();
+        pillarBatch.reset(pillarCount);
+        for (int i = 0; i < pillarCount; i++) {
+            int position = pathCache.getPillarPosition(i);
+            pillarBatch.add(dataManager.isRising(position), getPillarX(dataManager.getSlot(position), pillarSpace), bottomTableMaxY, volumeYs[position]);
+        }
+        pillarBatch.draw(canvas, pillarPaint, palette.redColor, palette.greenColor);
     }
 
     /**
      * 获取第i个柱状图的绘制位置（x坐标）
      *
-     * @param position 第几个
+     * @param slot 表格位置
      * @return 第i个柱状图的绘制位置（x坐标）
      */
-    private float getPillarX(int position, float pillarSpace) {
-        return getTableMargin() + (pillarSpace * position) + (position * 1f) + 1;
+    private float getPillarX(int slot, float pillarSpace) {
+        return getTableMargin() + (pillarSpace * slot) + (slot * 1f) + 1;
     }
 
     /**
-     * 获取第i个柱状图的高度（stop y坐标）
+     * 获取柱状图的高度（stop y坐标）
      *
-     * @param position 第几个
-     * @return 第i个柱状图的高度（stop y坐标）
+     * @param volume 成交量
+     * @return 柱状图的高度（stop y坐标）
      */
-    private float getPillarHeight(int position) {
-        return getBottomTableMaxY() - (dataManager.getVolume(position) * maxPillarHeight) / dataManager.maxVolume;
+    private float getPillarHeight(float volume) {
+        return getBottomTableMaxY() - (volume * maxPillarHeight) / dataManager.maxVolume;
     }
 
     /**
-     * 记录后续价格点
+     * 更新闪烁点位置, 闪烁点在 ViewOverlay 上单独绘制
      */
-    private void lineToPrice(Canvas canvas, int i) {
-        float x = getX(i);
-        float y = getTopTableY(dataManager.getPrice(i));
-        lazyPaint.setLineColor(getColor(R.color.stock_price_line))
-                .setLineStrokeWidth(config.priceStrokeWidth)
-                .lineTo(x, y);
-        avePricePath.lineTo(x, getTopTableY(dataManager.getAvePrice(i)));
-
-        if (isBeat && dataManager.isLastPrice(i)) {
-            // 绘制扩散圆
-            heartPaint.setColor(getColor(R.color.stock_price_line));
-            heartPaint.setAlpha((int) (config.heartInitAlpha - config.heartInitAlpha * beatFraction));
-            canvas.drawCircle(x, y, (config.heartRadius + config.heartDiameter * beatFraction), heartPaint);
-
-            // 绘制中心圆
-            heartPaint.setAlpha(255);
-            heartPaint.setColor(getColor(R.color.stock_price_line));
-            canvas.drawCircle(x, y, config.heartRadius, heartPaint);
+    private void updateHeart() {
+        if (!pathCache.isEmpty()) {
+            heartBeatHelper.setCenter(getCircleX() + pathCache.getLastX(), getCircleY() + pathCache.getLastPriceY());
         }
     }
 
@@ -353,49 +451,176 @@ public class FenShiView extends GridSlideView {
      * 绘制下表格坐标
      */
     private void drawBottomTableCoordinate(Canvas canvas) {
-        lazyPaint.measure(dataManager.maxVolumeString, lazyTextPaint -> {
-            // 下表格最大成交量
-            float y = getBottomTableMinY() + lazyTextPaint.height() + xYTextMargin;
-            lazyTextPaint.drawTableEndText(canvas, getBottomTableMaxX(), xYTextMargin, y);
-        }).measure(dataManager.centreVolumeString, lazyTextPaint -> {
-            // 下表格中间值
-            float y = (getBottomTableMinY() + (getBottomTableHeight() + lazyTextPaint.height()) / 2);
-            lazyTextPaint.drawTableEndText(canvas, getBottomTableMaxX(), xYTextMargin, y);
+        // 下表格最大成交量
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(dataManager.maxVolumeString);
+        float y = getBottomTableMinY() + lazyTextPaint.height() + xYTextMargin;
+        lazyTextPaint.drawTableEndText(canvas, getBottomTableMaxX(), xYTextMargin, y);
+
+        // 下表格中间值
+        lazyTextPaint = lazyPaint.measure(dataManager.centreVolumeString);
+        y = (getBottomTableMinY() + (getBottomTableHeight() + lazyTextPaint.height()) / 2);
+        lazyTextPaint.drawTableEndText(canvas, getBottomTableMaxX(), xYTextMargin, y);
+    }
+
+    /**
+     * 绘制价格曲线、价格区域、均线
+     */
+    private void drawPricePath(Canvas canvas) {
+        // 绘制曲线以及区域
+        Paint pricePaint = lazyPaint.setLineColor(palette.priceLineColor)
+                .setLineStrokeWidth(config.priceStrokeWidth)
+                .getLazyLinePaint().linePaint;
+        canvas.drawPath(pathCache.pricePath, pricePaint);
+        canvas.drawPath(pathCache.priceAreaPath, priceAreaPaint);
+        canvas.drawPath(pathCache.avePricePath, avePricePaint);
+    }
+
+    public <T extends IFenShi> void setData(T fenShi) {
+        snapshotLoader.cancel();
+        dataManager.setData(fenShi);
+        onDataChanged();
+    }
+
+    /**
+     * 在后台线程录入数据(复制、极值、坐标文本), 完成后在主线程整体替换数据管理器, 绘制时不会读到录入一半的数据
+     * 注意: fenShi 在发布之前不能再被修改; 发布之前通过 {@link #appendPoint(IFenShiData)} 等增量更新的数据会被替换
+     */
+    public <T extends IFenShi> void setDataAsync(T fenShi) {
+        // DecimalFormat 不是线程安全的, 后台线程使用副本
+        DecimalFormat decimalFormat = (DecimalFormat) this.decimalFormat.clone();
+        FenShiUnitInterceptor interceptor = this.interceptor;
+        snapshotLoader.load(() -> {
+            FenShiDataManager snapshot = new FenShiDataManager(decimalFormat);
+            snapshot.setFenShiUnitInterceptor(interceptor);
+            snapshot.setData(fenShi);
+            return snapshot;
         });
     }
 
     /**
-     * 绘制价格、价格区域、均线、闪烁点
+     * 在后台线程从本地 tick 存储读取某个交易日的数据(按列还原, 不需要解析), 之后只需要请求缺少的部分
+     * 读取失败时保留原有数据, 通过 {@link #setOnLoadFailedListener(SnapshotLoader.OnLoadFailedListener)} 回调
+     *
+     * @param date 交易日 yyyy-MM-dd
      */
-    private void drawPriceLine(Canvas canvas) {
-        // 抽取第一个点确定Path的圆点
-        moveToPrice();
+    public void setDataAsync(@NonNull TickStore tickStore, @NonNull String symbol, @NonNull String date) {
+        DecimalFormat decimalFormat = (DecimalFormat) this.decimalFormat.clone();
+        FenShiUnitInterceptor interceptor = this.interceptor;
+        snapshotLoader.load(() -> {
+            FenShiColumnData fenShi = tickStore.load(symbol, date);
+            FenShiDataManager snapshot = new FenShiDataManager(decimalFormat);
+            snapshot.setFenShiUnitInterceptor(interceptor);
+            snapshot.setData(fenShi);
+            return snapshot;
+        });
+    }
 
-        // 对后续点做处理
-        for (int i = 1; i < dataManager.priceSize(); i++) {
-            lineToPrice(canvas, i);
+    /**
+     * 后台读取失败的回调(见 {@link #setDataAsync(TickStore, String, String)})
+     */
+    public void setOnLoadFailedListener(@Nullable SnapshotLoader.OnLoadFailedListener onLoadFailedListener) {
+        snapshotLoader.setOnLoadFailedListener(onLoadFailedListener);
+    }
+
+    private void onSnapshot(FenShiDataManager snapshot) {
+        // 准备期间可能重新设置了拦截器
+        snapshot.setFenShiUnitInterceptor(interceptor);
+        dataManager = snapshot;
+        onDataChanged();
+    }
+
+    /**
+     * 整体数据变化后刷新
+     */
+    private void onDataChanged() {
+        invalidateDataLayer();
+        startBeat();
+    }
+
+    /**
+     * 追加一个新的分时点(新的一分钟)，无需重新设置整日数据
+     */
+    public <T extends IFenShiData> void appendPoint(T fenShiData) {
+        dataManager.appendPoint(fenShiData);
+        onPointChanged();
+    }
+
+    /**
+     * 更新最后一个分时点(当前分钟内的刷新)
+     */
+    public <T extends IFenShiData> void updateLastPoint(T fenShiData) {
+        dataManager.updateLastPoint(fenShiData);
+        onPointChanged();
+    }
+
+    /**
+     * 实时 tick 投递: 网络线程调用 {@link TickFeeder#offer(long, float, float, float)} 写入,
+     * 每帧读取一次并写入数据管理器(同一位置只处理最后一个 tick), 之后只刷新一次
+     * 需要在主线程首次调用
+     */
+    @MainThread
+    public TickFeeder getTickFeeder() {
+        if (tickFeeder == null) {
+            tickFeeder = new TickFeeder(new TickRingBuffer(),
+                    (slot, minuteOfDay, price, avePrice, volume) -> dataManager.putPoint(slot, minuteOfDay, price, avePrice, volume),
+                    count -> onPointChanged());
+        }
+        return tickFeeder;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (tickFeeder != null) {
+            tickFeeder.start();
+        }
+        subscription.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (tickFeeder != null) {
+            tickFeeder.stop();
         }
+        subscription.onDetachedFromWindow();
     }
 
     /**
-     * 绘制价格曲线
+     * 订阅代码对应的数据(见 {@link FenShiHub}), 收到的数据在后台录入(见 {@link #setDataAsync(IFenShi)}), null 表示取消订阅
+     *
+     * @return 订阅, 可用于设置最小更新间隔
      */
-    private void drawPricePath(Canvas canvas) {
-        // 绘制曲线以及区域
-        lazyPaint.drawPath(canvas)
-                .lineTo(getX(dataManager.getLastPricePosition()), getTopTableMaxY())
-                // 价格颜色区域需要进行闭合处理
-                .lineToClose(canvas, getTopTableMinX(), getTopTableMaxY(), priceAreaPaint);
-        canvas.drawPath(avePricePath, avePricePaint);
+    public FenShiSubscription subscribe(@Nullable String fenShiCode) {
+        subscription.setFenShiCode(fenShiCode);
+        return subscription;
+    }
 
-        // 使用完后，重置画笔
-        avePricePath.reset();
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // 父类构造时可能已回调, 此时订阅还未创建
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
     }
 
-    public <T extends IFenShi> void setData(T fenShi) {
-        dataManager.setData(fenShi);
-        invalidate();
-        startBeat();
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
+    }
+
+    /**
+     * 增量数据变化后刷新，仅在心跳状态需要改变时才重新开始心跳
+     */
+    private void onPointChanged() {
+        invalidateDataLayer();
+        if (heartBeatHelper.isBeat() != isBeatTime()) {
+            startBeat();
+        }
     }
 
     /**
@@ -404,8 +629,7 @@ public class FenShiView extends GridSlideView {
     public void startBeat() {
         stopBeat();
         if (dataManager.isTimeNotEmpty() && isBeatTime()) {
-            isBeat = true;
-            beatHandler.post(beatRunnable);
+            heartBeatHelper.start();
         }
     }
 
@@ -413,16 +637,14 @@ public class FenShiView extends GridSlideView {
      * 是否可以开启心跳
      */
     public boolean isBeatTime() {
-        String lastTime = dataManager.getLastTime();
-        return !"11:30".equals(lastTime) && !"15:00".equals(lastTime);
+        return !TradingSession.isCloseMinute(dataManager.lastMinute);
     }
 
     /**
      * 停止心跳
      */
     public void stopBeat() {
-        isBeat = false;
-        beatHandler.removeCallbacks(beatRunnable);
+        heartBeatHelper.stop();
     }
 
     /**
@@ -431,5 +653,8 @@ public class FenShiView extends GridSlideView {
     public void setInterceptor(FenShiUnitInterceptor interceptor) {
         this.interceptor = interceptor;
         dataManager.setFenShiUnitInterceptor(interceptor);
+        isMiddleTableTextValid = false;
+        resetSlideText();
+        invalidateDataLayer();
     }
 }
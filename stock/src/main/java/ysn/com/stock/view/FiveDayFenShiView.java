@@ -1,34 +1,46 @@
 package ysn.com.stock.view;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.os.Build;
-import android.os.Handler;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.View;
 
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import ysn.com.stock.R;
+import ysn.com.stock.bean.FenShiColumnData;
 import ysn.com.stock.bean.IFenShi;
+import ysn.com.stock.helper.DownsampleCache;
+import ysn.com.stock.helper.FenShiHub;
+import ysn.com.stock.helper.FenShiSubscription;
 import ysn.com.stock.helper.FiveDayFenShiSlideHelper;
+import ysn.com.stock.helper.HeartBeatHelper;
+import ysn.com.stock.helper.LttbDownsampler;
+import ysn.com.stock.helper.M4Downsampler;
+import ysn.com.stock.helper.PillarBatch;
+import ysn.com.stock.helper.SnapshotLoader;
+import ysn.com.stock.helper.TickStore;
 import ysn.com.stock.interceptor.FenShiUnitInterceptor;
-import ysn.com.stock.manager.FenShiDataManager;
 import ysn.com.stock.manager.FiveDayFenShiDataManager;
-import ysn.com.stock.utils.TimeUtils;
+import ysn.com.stock.utils.TradingSession;
 import ysn.com.stock.view.base.GridView;
 
 /**
  * @Author yangsanning
  * @ClassName FiveDayFiveDayFenShiView
- * @Description 五日分时
+ * @Description 多日分时(默认 5 日, 可通过 fdfsv_day_count 设置为 10/20 日)
  * @Date 2020/5/7
  */
 public class FiveDayFenShiView extends GridView {
@@ -52,30 +64,22 @@ public class FiveDayFenShiView extends GridView {
     private long heartBeatFractionRate;
 
     /**
-     * isBeat: 是否跳动
-     * beatFraction: 变化率
+     * 心跳(闪烁点)
      */
-    private boolean isBeat = false;
-    private float beatFraction;
-    private Paint heartPaint;
-    private ValueAnimator beatAnimator;
-    private Handler beatHandler = new Handler();
-    private Runnable beatRunnable = new Runnable() {
-        @Override
-        public void run() {
-            beatAnimator.start();
-            invalidate();
-            beatHandler.postDelayed(this, heartBeatRate);
-        }
-    };
+    private HeartBeatHelper heartBeatHelper;
 
     private boolean isEnabledSlide;
 
+    /**
+     * 天数(5/10/20 日)
+     */
+    private int dayCount;
+
     private Path pricePath;
     private Paint pricePaint;
 
     /**
-     * 每个数据格的宽(5份)
+     * 每个数据格的宽(每天一份)
      */
     private int dataWidth;
 
@@ -86,10 +90,28 @@ public class FiveDayFenShiView extends GridView {
      */
     private float bottomTableMaxY;
     private Paint pillarPaint;
+    private PillarBatch pillarBatch = new PillarBatch();
     private float maxPillarHeight;
 
+    /**
+     * 每日价格曲线以及柱形图的降采样缓存(下标为第几天)
+     */
+    private DownsampleCache[] priceSampleCaches = new DownsampleCache[0];
+    private DownsampleCache[] volumeSampleCaches = new DownsampleCache[0];
+
     public FiveDayFenShiDataManager fiveDayFenShiDataManager;
     FiveDayFenShiSlideHelper fiveDayFenShiSlideHelper;
+    private FenShiUnitInterceptor fenShiUnitInterceptor;
+
+    /**
+     * 后台准备数据管理器, 准备完成后整体替换 {@link #fiveDayFenShiDataManager}
+     */
+    private SnapshotLoader<FiveDayFenShiDataManager> snapshotLoader = new SnapshotLoader<>(this, this::onSnapshot);
+
+    /**
+     * 数据订阅, 通过 {@link #subscribe(String)} 设置代码后, 控件可见时自动接收 {@link FenShiHub} 发布的数据
+     */
+    private FenShiSubscription subscription = new FenShiSubscription(this, this::onFenShi);
 
     public FiveDayFenShiView(Context context) {
         super(context);
@@ -132,6 +154,7 @@ public class FiveDayFenShiView extends GridView {
         heartBeatFractionRate = typedArray.getInteger(R.styleable.FiveDayFenShiView_fdfsv_heart_beat_fraction_rate, 2000);
 
         isEnabledSlide = typedArray.getBoolean(R.styleable.FiveDayFenShiView_fdfsv_is_enabled_slide, Boolean.FALSE);
+        dayCount = Math.max(1, typedArray.getInteger(R.styleable.FiveDayFenShiView_fdfsv_day_count, 5));
 
         typedArray.recycle();
     }
@@ -141,18 +164,13 @@ public class FiveDayFenShiView extends GridView {
         super.initPaint();
         pricePath = new Path();
         pricePaint = new Paint();
-        pricePaint.setColor(getColor(R.color.stock_price_line));
+        pricePaint.setColor(palette.priceLineColor);
         pricePaint.setAntiAlias(true);
         pricePaint.setStyle(Paint.Style.STROKE);
         pricePaint.setStrokeWidth(priceStrokeWidth);
 
-        heartPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        heartPaint.setAntiAlias(true);
-        beatAnimator = ValueAnimator.ofFloat(0, 1f).setDuration(heartBeatFractionRate);
-        beatAnimator.addUpdateListener(animation -> {
-            beatFraction = (float) animation.getAnimatedValue();
-            invalidate();
-        });
+        heartBeatHelper = new HeartBeatHelper(this, palette.priceLineColor, heartRadius,
+                heartDiameter, heartInitAlpha, heartBeatRate, heartBeatFractionRate);
 
         pillarPaint = new Paint();
     }
@@ -164,11 +182,15 @@ public class FiveDayFenShiView extends GridView {
 
     @Override
     protected int getPartVertical() {
-        return 5;
+        return dayCount;
     }
 
-    public int getTotalCount(FenShiDataManager fenShiDataManager) {
-        return fenShiDataManager == null || fenShiDataManager.totalCount == 0 ? getTotalCount() : fenShiDataManager.totalCount;
+    /**
+     * 第 day 天需要绘制的点总数
+     */
+    public int getTotalCount(int day) {
+        int totalCount = fiveDayFenShiDataManager.getDayTotalCount(day);
+        return totalCount == 0 ? getTotalCount() : totalCount;
     }
 
     @Override
@@ -201,18 +223,36 @@ public class FiveDayFenShiView extends GridView {
         bottomTableMaxY = getBottomTableMaxY();
     }
 
+    @Override
+    protected void onPaletteChanged() {
+        super.onPaletteChanged();
+        pricePaint.setColor(palette.priceLineColor);
+        heartBeatHelper.setHeartColor(palette.priceLineColor);
+        if (fiveDayFenShiSlideHelper != null) {
+            fiveDayFenShiSlideHelper.onPaletteChanged();
+        }
+    }
+
+    /**
+     * 缓存数据图层: 滑动和心跳的每一帧只绘制缓存的图层以及滑动层, 数据变化时才重新绘制曲线、柱形图和坐标
+     */
+    @Override
+    protected boolean isEnabledDataLayerCache() {
+        return true;
+    }
+
     @Override
     protected void onTimeTextDraw(Canvas canvas) {
-        textPaint.setColor(getColor(R.color.stock_text_title));
+        textPaint.setColor(palette.textTitleColor);
 
-        // 绘制时间坐标
-        for (int i = 0; i < fiveDayFenShiDataManager.dateList.size(); i++) {
-            Long time = fiveDayFenShiDataManager.dateList.get(i);
-            if (time <= 0) {
+        // 绘制时间坐标(10/20 日时间隔绘制, 避免文本重叠)
+        int step = Math.max(1, dayCount / 5);
+        for (int i = 0; i < fiveDayFenShiDataManager.dateTextList.size(); i += step) {
+            String text = fiveDayFenShiDataManager.dateTextList.get(i);
+            if (text == null) {
                 continue;
             }
-            String text = TimeUtils.formatDay(time);
-            textPaint.getTextBounds(text, (0), text.length(), textRect);
+            measureText(text);
             float timeTextY = getTimeTableMinY() + getTimeTextY();
             canvas.drawText(text, (dataWidth * i + (dataWidth - textRect.width()) / 2f), timeTextY, textPaint);
         }
@@ -222,22 +262,24 @@ public class FiveDayFenShiView extends GridView {
     protected void onChildDraw(Canvas canvas) {
         super.onChildDraw(canvas);
 
-        if (fiveDayFenShiDataManager.dataManagerList.isEmpty()) {
+        if (fiveDayFenShiDataManager.isEmpty()) {
             return;
         }
 
         // 绘制坐标峰值
         drawXYText(canvas);
 
-        // 绘制柱形
-        for (Map.Entry<Integer, FenShiDataManager> entry : fiveDayFenShiDataManager.dataManagerMap.entrySet()) {
-            drawPriceLineAndPillar(entry.getValue(), canvas, entry.getKey());
-        }
+        // 绘制柱形以及价格曲线
+        drawPriceLineAndPillar(canvas);
 
         // 绘制下表格坐标
         drawBottomTableCoordinate(canvas);
+    }
 
-        if (fiveDayFenShiSlideHelper != null) {
+    @Override
+    protected void onOverlayDraw(Canvas canvas) {
+        super.onOverlayDraw(canvas);
+        if (fiveDayFenShiSlideHelper != null && !fiveDayFenShiDataManager.isEmpty()) {
             fiveDayFenShiSlideHelper.draw(canvas);
         }
     }
@@ -247,128 +289,132 @@ public class FiveDayFenShiView extends GridView {
      */
     private void drawXYText(Canvas canvas) {
         // 价格最大值
-        String text = decimalFormat.format(fiveDayFenShiDataManager.maxPrice);
-        textPaint.setColor(getColor(R.color.stock_red));
-        textPaint.getTextBounds(text, (0), text.length(), textRect);
+        String text = fiveDayFenShiDataManager.maxPriceString;
+        textPaint.setColor(palette.redColor);
+        measureText(text);
         float textMargin = getTextMargin();
         float y = (getTopTableMinY() + textRect.height() + textMargin);
         canvas.drawText(text, textMargin, y, textPaint);
 
         // 增幅
-        text = "+" + fiveDayFenShiDataManager.percent;
-        textPaint.getTextBounds(text, 0, text.length(), textRect);
+        text = fiveDayFenShiDataManager.increasePercentString;
+        measureText(text);
         canvas.drawText(text, (viewWidth - textRect.width() - textMargin), y, textPaint);
 
         // 价格最小值
-        textPaint.setColor(getColor(R.color.stock_green));
+        textPaint.setColor(palette.greenColor);
         y = getTopTableMaxY() - textMargin;
-        canvas.drawText(decimalFormat.format(fiveDayFenShiDataManager.minPrice), textMargin, y, textPaint);
+        canvas.drawText(fiveDayFenShiDataManager.minPriceString, textMargin, y, textPaint);
 
         // 减幅
-        text = "-" + fiveDayFenShiDataManager.percent;
-        textPaint.setColor(getColor(R.color.stock_green));
-        textPaint.getTextBounds(text, 0, text.length(), textRect);
+        text = fiveDayFenShiDataManager.decreasePercentString;
+        textPaint.setColor(palette.greenColor);
+        measureText(text);
         canvas.drawText(text, (viewWidth - textRect.width() - textMargin), y, textPaint);
 
         // 中间坐标
-        textPaint.setColor(getColor(R.color.stock_text_title));
-        text = decimalFormat.format(fiveDayFenShiDataManager.lastClose);
+        textPaint.setColor(palette.textTitleColor);
+        text = fiveDayFenShiDataManager.lastCloseString;
         canvas.drawText(text, textMargin, (-(topTableHeight - textRect.height()) / 2f), textPaint);
     }
 
     /**
-     * 绘制价格、价格区域、均线、闪烁点、柱形图
+     * 绘制价格、闪烁点、柱形图
+     * 所有天的价格曲线为同一个路径(每天一段), 柱子宽度相同的天合并为一批绘制
      */
-    private void drawPriceLineAndPillar(FenShiDataManager fenShiDataManager, Canvas canvas, int position) {
-        // pillarSpace= 宽  - 柱子间距(1f)
-        float pillarSpace = (dataWidth - (getTotalCount(fenShiDataManager) * 1f)) / getTotalCount(fenShiDataManager);
-        pillarPaint.setStrokeWidth(pillarSpace);
-
-        // 设置价格圆点（第一个点）
-        moveToPrice(fenShiDataManager, position);
+    private void drawPriceLineAndPillar(Canvas canvas) {
+        FiveDayFenShiDataManager dataManager = fiveDayFenShiDataManager;
+        int dayCount = dataManager.getDayCount();
+        ensureSampleCaches(dayCount);
+        pillarBatch.reset(dataManager.columns.size());
+        float batchPillarSpace = -1;
+        for (int day = 0; day < dayCount; day++) {
+            if (dataManager.isDayEmpty(day)) {
+                continue;
+            }
 
-        // 绘制第一个点柱状图（第一个点要跟昨收做对比）
-        drawFirstPillar(fenShiDataManager, canvas, position, pillarSpace);
+            // pillarSpace= 宽  - 柱子间距(1f)
+            int totalCount = getTotalCount(day);
+            float pillarSpace = (dataWidth - (totalCount * 1f)) / totalCount;
+            if (pillarSpace != batchPillarSpace) {
+                // 柱子宽度变化, 先绘制已收集的柱子
+                drawPillar(canvas);
+                pillarPaint.setStrokeWidth(pillarSpace);
+                batchPillarSpace = pillarSpace;
+            }
 
-        for (int i = 1; i < fenShiDataManager.priceSize(); i++) {
-            // 记录后续价格点
-            lineToPrice(fenShiDataManager, canvas, position, i);
+            // 每日点数超过数据格宽度时, 价格曲线(LTTB)以及柱形图(M4)只绘制降采样后的点
+            int from = dataManager.getDayStart(day);
+            int to = from + dataManager.getDaySize(day);
+            DownsampleCache priceSampleCache = priceSampleCaches[day];
+            priceSampleCache.update(dataManager.columns.prices(), from, to, dataWidth, dataManager.dataVersion);
+            DownsampleCache volumeSampleCache = volumeSampleCaches[day];
+            volumeSampleCache.update(dataManager.columns.volumes(), from, to, dataWidth, dataManager.dataVersion);
+
+            // 设置价格圆点（每天的第一个点）, 记录后续价格点
+            int position = priceSampleCache.get(0);
+            pricePath.moveTo(getPriceX(day, position - from), getPriceY(dataManager.getPrice(position)));
+            for (int i = 1; i < priceSampleCache.size(); i++) {
+                position = priceSampleCache.get(i);
+                pricePath.lineTo(getPriceX(day, position - from), getPriceY(dataManager.getPrice(position)));
+            }
 
-            // 绘制后续柱形图
-            drawPillar(fenShiDataManager, canvas, position, i, pillarSpace);
+            // 收集柱状图, 涨跌在数据录入时已计算(每天第一个点跟当天昨收对比, 后续点跟前一个点对比)
+            for (int i = 0; i < volumeSampleCache.size(); i++) {
+                position = volumeSampleCache.get(i);
+                pillarBatch.add(dataManager.isRising(position), getPillarX(position - from, day, pillarSpace),
+                        bottomTableMaxY, getPillarHeight(position));
+            }
+        }
+        drawPillar(canvas);
+
+        // 更新闪烁点位置(最后一天的最后一个点), 闪烁点在 ViewOverlay 上单独绘制
+        if (dataManager.isLastDayNotEmpty()) {
+            int lastDay = dayCount - 1;
+            int lastPosition = dataManager.columns.getLastPosition();
+            heartBeatHelper.setCenter(getCircleX() + getPriceX(lastDay, lastPosition - dataManager.getDayStart(lastDay)),
+                    getCircleY() + getPriceY(dataManager.getPrice(lastPosition)));
         }
 
         // 绘制价格曲线
-        drawPricePath(canvas);
-    }
-
-    /**
-     * 设置价格圆点（第一个点）
-     */
-    private void moveToPrice(FenShiDataManager fenShiDataManager, int position) {
-        float priceX = getPriceX(fenShiDataManager, 0, position);
-        float priceY = getPriceY(fenShiDataManager.getPrice(0));
-        pricePath.moveTo(priceX, priceY);
+        canvas.drawPath(pricePath, pricePaint);
+        // rewind 保留已分配的内部结构, 下次绘制无需重新分配
+        pricePath.rewind();
     }
 
     /**
-     * 绘制第一个点柱状图（第一个点要跟昨收做对比）
+     * 绘制已收集的柱形图(按涨跌各绘制一次)
      */
-    private void drawFirstPillar(FenShiDataManager dataManager, Canvas canvas, int position, float pillarSpace) {
-        float lineX = getPillarX(0, position, pillarSpace);
-        float stopY = getPillarHeight(dataManager, 0);
-        pillarPaint.setColor(getColor(dataManager.getPrice(0) >= dataManager.lastClose ? R.color.stock_red : R.color.stock_green));
-        canvas.drawLine(lineX, getBottomTableMaxY(), lineX, stopY, pillarPaint);
+    private void drawPillar(Canvas canvas) {
+        pillarBatch.draw(canvas, pillarPaint, palette.redColor, palette.greenColor);
+        pillarBatch.reset(0);
     }
 
     /**
-     * 记录后续价格点
+     * 确保每日的降采样缓存足够
      */
-    private void lineToPrice(FenShiDataManager fenShiDataManager, Canvas canvas, int position, int i) {
-        float priceX = getPriceX(fenShiDataManager, i, position);
-        float priceY = getPriceY(fenShiDataManager.getPrice(i));
-        pricePath.lineTo(priceX, priceY);
-
-        if (position == getPartVertical() - 1 && isBeat && fenShiDataManager.isLastPrice(i)) {
-            //绘制扩散圆
-            heartPaint.setColor(getColor(R.color.stock_price_line));
-            heartPaint.setAlpha((int) (heartInitAlpha - heartInitAlpha * beatFraction));
-            canvas.drawCircle(priceX, priceY, (heartRadius + heartDiameter * beatFraction), heartPaint);
-            // 绘制中心圆
-            heartPaint.setAlpha(255);
-            heartPaint.setColor(getColor(R.color.stock_price_line));
-            canvas.drawCircle(priceX, priceY, heartRadius, heartPaint);
+    private void ensureSampleCaches(int count) {
+        if (priceSampleCaches.length >= count) {
+            return;
+        }
+        int oldLength = priceSampleCaches.length;
+        priceSampleCaches = Arrays.copyOf(priceSampleCaches, count);
+        volumeSampleCaches = Arrays.copyOf(volumeSampleCaches, count);
+        for (int i = oldLength; i < count; i++) {
+            priceSampleCaches[i] = new DownsampleCache(new LttbDownsampler());
+            volumeSampleCaches[i] = new DownsampleCache(new M4Downsampler());
         }
-    }
-
-    /**
-     * 绘制后续柱形图
-     */
-    private void drawPillar(FenShiDataManager dataManager, Canvas canvas, int position, int i, float pillarSpace) {
-        float lineX;
-        float stopY;
-        pillarPaint.setColor(getColor(dataManager.getPrice(i) >= dataManager.getPrice(i - 1) ? R.color.stock_red : R.color.stock_green));
-        lineX = getPillarX(i, position, pillarSpace);
-        stopY = getPillarHeight(dataManager, i);
-        canvas.drawLine(lineX, getBottomTableMaxY(), lineX, stopY, pillarPaint);
-    }
-
-    /**
-     * 绘制价格曲线
-     */
-    private void drawPricePath(Canvas canvas) {
-        canvas.drawPath(pricePath, pricePaint);
-        pricePath.reset();
     }
 
     /**
      * 获取x轴坐标
      *
-     * @param i 当前position
+     * @param day 第几天
+     * @param i   当天的第几个点
      * @return x轴坐标
      */
-    public float getPriceX(FenShiDataManager fenShiDataManager, int i, int position) {
-        return getColumnX(((dataWidth) / (float) getTotalCount(fenShiDataManager)), i) + dataWidth * position;
+    public float getPriceX(int day, int i) {
+        return getColumnX(((dataWidth) / (float) getTotalCount(day)), i) + dataWidth * day;
     }
 
     /**
@@ -386,17 +432,17 @@ public class FiveDayFenShiView extends GridView {
      */
     private void drawBottomTableCoordinate(Canvas canvas) {
         // 下表格当前成交量
-        textPaint.getTextBounds(fiveDayFenShiDataManager.currentVolumeString, 0, fiveDayFenShiDataManager.currentVolumeString.length(), textRect);
+        measureText(fiveDayFenShiDataManager.currentVolumeString);
         canvas.drawText(fiveDayFenShiDataManager.currentVolumeString, tableMargin + xYTextMargin,
                 (getBottomTableMinY() + textRect.height() + xYTextMargin), textPaint);
 
         // 下表格最大量
-        textPaint.getTextBounds(fiveDayFenShiDataManager.maxVolumeString, 0, fiveDayFenShiDataManager.maxVolumeString.length(), textRect);
+        measureText(fiveDayFenShiDataManager.maxVolumeString);
         canvas.drawText(fiveDayFenShiDataManager.maxVolumeString, (viewWidth - tableMargin - xYTextMargin - textRect.width()),
                 (getBottomTableMinY() + textRect.height() + xYTextMargin), textPaint);
 
         // 下表格中间值
-        textPaint.getTextBounds(fiveDayFenShiDataManager.centreVolumeString, 0, fiveDayFenShiDataManager.centreVolumeString.length(), textRect);
+        measureText(fiveDayFenShiDataManager.centreVolumeString);
         canvas.drawText(fiveDayFenShiDataManager.centreVolumeString, (viewWidth - tableMargin - xYTextMargin - textRect.width()),
                 (getBottomTableMinY() + (bottomTableHeight + textRect.height()) / 2), textPaint);
     }
@@ -404,52 +450,200 @@ public class FiveDayFenShiView extends GridView {
     /**
      * 获取第i个柱状图的绘制位置（x坐标）
      *
-     * @param i           第几个
-     * @param pillarSpace
-     * @return 第position个数据
+     * @param i           当天的第几个
+     * @param day         第几天
+     * @param pillarSpace 柱子宽度
      */
-    private float getPillarX(int i, int position, float pillarSpace) {
-        return tableMargin + (pillarSpace * i) + (i * 1f) + 1 + dataWidth * position;
+    private float getPillarX(int i, int day, float pillarSpace) {
+        return tableMargin + (pillarSpace * i) + (i * 1f) + 1 + dataWidth * day;
     }
 
     /**
      * 获取第i个柱状图的高度（stop y坐标）
      *
-     * @param i 第几个
-     * @return 第i个柱状图的高度（stop y坐标）
+     * @param position 第几个(所有天连续计数)
+     * @return 柱状图的高度（stop y坐标）
      */
-    private float getPillarHeight(FenShiDataManager dataManager, int i) {
-        return bottomTableMaxY - (dataManager.getVolume(i) * maxPillarHeight) / dataManager.maxVolume;
+    private float getPillarHeight(int position) {
+        return bottomTableMaxY - (fiveDayFenShiDataManager.getVolume(position) * maxPillarHeight) / fiveDayFenShiDataManager.maxVolume;
     }
 
     public <T extends IFenShi> void setData(List<T> fenShiList) {
+        snapshotLoader.cancel();
         fiveDayFenShiDataManager.setData(fenShiList);
-        invalidate();
+        onDataChanged();
+    }
+
+    /**
+     * 在后台线程录入数据(复制、极值、坐标文本), 完成后在主线程整体替换数据管理器
+     * 注意: fenShiList 在发布之前不能再被修改; 发布之前通过 {@link #rollDay(IFenShi)} 等更新的数据会被替换
+     */
+    public <T extends IFenShi> void setDataAsync(List<T> fenShiList) {
+        // DecimalFormat 不是线程安全的, 后台线程使用副本
+        DecimalFormat decimalFormat = (DecimalFormat) this.decimalFormat.clone();
+        FenShiUnitInterceptor fenShiUnitInterceptor = this.fenShiUnitInterceptor;
+        int dayCount = getPartVertical();
+        snapshotLoader.load(() -> {
+            FiveDayFenShiDataManager snapshot = new FiveDayFenShiDataManager(dayCount, decimalFormat);
+            snapshot.setFenShiUnitInterceptor(fenShiUnitInterceptor);
+            snapshot.setData(fenShiList);
+            return snapshot;
+        });
+    }
+
+    /**
+     * 在后台线程从本地 tick 存储读取多个交易日的数据(按列还原, 不需要解析), 之后只需要请求缺少的部分
+     * 任一交易日读取失败时保留原有数据, 通过 {@link #setOnLoadFailedListener(SnapshotLoader.OnLoadFailedListener)} 回调
+     *
+     * @param dateList 交易日 yyyy-MM-dd(升序), 没有本地数据的交易日为空数据; 为空时直接清空数据
+     */
+    public void setDataAsync(@NonNull TickStore tickStore, @NonNull String symbol, @NonNull List<String> dateList) {
+        if (dateList.isEmpty()) {
+            setData(Collections.<FenShiColumnData>emptyList());
+            return;
+        }
+        DecimalFormat decimalFormat = (DecimalFormat) this.decimalFormat.clone();
+        FenShiUnitInterceptor fenShiUnitInterceptor = this.fenShiUnitInterceptor;
+        int dayCount = getPartVertical();
+        List<String> dates = new ArrayList<>(dateList);
+        snapshotLoader.load(() -> {
+            List<FenShiColumnData> fenShiList = new ArrayList<>(dates.size());
+            for (String date : dates) {
+                fenShiList.add(tickStore.load(symbol, date));
+            }
+            FiveDayFenShiDataManager snapshot = new FiveDayFenShiDataManager(dayCount, decimalFormat);
+            snapshot.setFenShiUnitInterceptor(fenShiUnitInterceptor);
+            snapshot.setData(fenShiList);
+            return snapshot;
+        });
+    }
+
+    /**
+     * 后台读取失败的回调(见 {@link #setDataAsync(TickStore, String, List)})
+     */
+    public void setOnLoadFailedListener(@Nullable SnapshotLoader.OnLoadFailedListener onLoadFailedListener) {
+        snapshotLoader.setOnLoadFailedListener(onLoadFailedListener);
+    }
+
+    private void onSnapshot(FiveDayFenShiDataManager snapshot) {
+        // 准备期间可能重新设置了拦截器
+        snapshot.setFenShiUnitInterceptor(fenShiUnitInterceptor);
+        fiveDayFenShiDataManager = snapshot;
+        if (fiveDayFenShiSlideHelper != null) {
+            fiveDayFenShiSlideHelper.setDataManager(snapshot);
+        }
+        onDataChanged();
+    }
+
+    /**
+     * 整体数据变化后刷新
+     */
+    private void onDataChanged() {
+        // 时间坐标随数据变化，需要重新绘制基础图层
+        invalidateBaseLayer();
+        invalidateDataLayer();
+        startBeat();
+    }
+
+    /**
+     * 新的交易日: 移除最早一天并追加新的一天, 其余天不需要重新录入
+     */
+    public <T extends IFenShi> void rollDay(T fenShi) {
+        fiveDayFenShiDataManager.rollDay(fenShi);
+        // 时间坐标随天变化，需要重新绘制基础图层
+        invalidateBaseLayer();
+        invalidateDataLayer();
         startBeat();
     }
 
+    /**
+     * 更新最后一天(当天)的数据, 前面的天保持不变
+     */
+    public <T extends IFenShi> void setLastDay(T fenShi) {
+        fiveDayFenShiDataManager.setLastDay(fenShi);
+        invalidateBaseLayer();
+        invalidateDataLayer();
+        startBeat();
+    }
+
+    /**
+     * 收到订阅的数据: 日期与最后一天相同时更新最后一天, 日期更新时滚动到新的一天, 更早的数据忽略
+     * 需要先通过 {@link #setData(List)} 设置历史数据
+     */
+    private void onFenShi(IFenShi fenShi) {
+        List<Long> dateList = fiveDayFenShiDataManager.dateList;
+        if (dateList.isEmpty()) {
+            return;
+        }
+        long lastDate = dateList.get(dateList.size() - 1);
+        long date = fenShi.getFenShiTime();
+        if (date == lastDate) {
+            setLastDay(fenShi);
+        } else if (date > lastDate) {
+            rollDay(fenShi);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        subscription.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        subscription.onDetachedFromWindow();
+    }
+
+    /**
+     * 订阅代码对应的数据(见 {@link FenShiHub}), 收到的数据只更新最后一天或滚动到新的一天, null 表示取消订阅
+     *
+     * @return 订阅, 可用于设置最小更新间隔
+     */
+    public FenShiSubscription subscribe(@Nullable String fenShiCode) {
+        subscription.setFenShiCode(fenShiCode);
+        return subscription;
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // 父类构造时可能已回调, 此时订阅还未创建
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
+    }
+
     public void startBeat() {
         stopBeat();
-        if (fiveDayFenShiDataManager.getLastDataManager().isTimeNotEmpty() && isBeatTime()) {
-            isBeat = true;
-            beatHandler.post(beatRunnable);
+        if (fiveDayFenShiDataManager.isLastDayNotEmpty() && isBeatTime()) {
+            heartBeatHelper.start();
         }
     }
 
     private boolean isBeatTime() {
-        String lastTime = fiveDayFenShiDataManager.getLastDataManager().getLastTime();
-        return !"11:30".equals(lastTime) && !"15:00".equals(lastTime);
+        return !TradingSession.isCloseMinute(fiveDayFenShiDataManager.lastMinute);
     }
 
     public void stopBeat() {
-        isBeat = false;
-        beatHandler.removeCallbacks(beatRunnable);
+        heartBeatHelper.stop();
     }
 
     /**
      * 设置分时单位转换拦截器
      */
     public void setFenShiUnitInterceptor(FenShiUnitInterceptor fenShiUnitInterceptor) {
+        this.fenShiUnitInterceptor = fenShiUnitInterceptor;
         fiveDayFenShiDataManager.setFenShiUnitInterceptor(fenShiUnitInterceptor);
+        invalidateDataLayer();
     }
 }
\ No newline at end of file
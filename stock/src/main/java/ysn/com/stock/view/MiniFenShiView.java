@@ -5,12 +5,20 @@ import android.graphics.Canvas;
 import android.graphics.LinearGradient;
 import android.graphics.Shader;
 import android.os.Build;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
+import android.view.View;
 
 import ysn.com.stock.bean.IFenShi;
 import ysn.com.stock.config.MiniFenShiConfig;
+import ysn.com.stock.helper.DownsampleCache;
+import ysn.com.stock.helper.FenShiHub;
+import ysn.com.stock.helper.FenShiSubscription;
+import ysn.com.stock.helper.LttbDownsampler;
+import ysn.com.stock.helper.MiniFenShiCache;
+import ysn.com.stock.helper.SnapshotLoader;
 import ysn.com.stock.manager.MiniFenShiDataManager;
 import ysn.com.stock.view.base.StockView;
 
@@ -26,6 +34,32 @@ public class MiniFenShiView extends StockView {
     private MiniFenShiConfig config;
     private MiniFenShiDataManager dataManager;
 
+    /**
+     * 数据管理器是否来自快照或缓存(可能被共用, 不能修改), 此时同步设置数据需要先创建新的数据管理器
+     */
+    private boolean isDataManagerShared;
+
+    /**
+     * 价格区域渐变(与控件尺寸、当前颜色相关, 变化时重新创建)
+     */
+    private LinearGradient gradient;
+    private int gradientColor;
+
+    /**
+     * 价格曲线降采样缓存(点数超过控件宽度时启用)
+     */
+    private DownsampleCache priceSampleCache = new DownsampleCache(new LttbDownsampler());
+
+    /**
+     * 后台准备数据管理器, 准备完成后整体替换 {@link #dataManager}
+     */
+    private SnapshotLoader<MiniFenShiDataManager> snapshotLoader = new SnapshotLoader<>(this, this::onSnapshot);
+
+    /**
+     * 数据订阅, 通过 {@link #subscribe(String)} 设置代码后, 控件可见时自动接收 {@link FenShiHub} 发布的数据
+     */
+    private FenShiSubscription subscription = new FenShiSubscription(this, this::setNewDataAsync);
+
     public MiniFenShiView(Context context) {
         super(context);
     }
@@ -55,6 +89,12 @@ public class MiniFenShiView extends StockView {
         return dataManager.totalCount == 0 ? super.getTotalCount() : dataManager.totalCount;
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        gradient = null;
+    }
+
     @Override
     protected void onChildDraw(Canvas canvas) {
         super.onChildDraw(canvas);
@@ -65,16 +105,17 @@ public class MiniFenShiView extends StockView {
             return;
         }
 
-        if (config.enableGradientBottom) {
+        if (config.enableGradientBottom && (gradient == null || gradientColor != dataManager.currentColor)) {
             //渐变效果
-            LinearGradient gradient = new LinearGradient(
+            gradient = new LinearGradient(
                     0,
                     getTopTableMaxY(),
                     0,
                     getTopTableMinY(),
                     config.gradientBottomColor,
-                    config.currentColor,
+                    dataManager.currentColor,
                     Shader.TileMode.CLAMP);
+            gradientColor = dataManager.currentColor;
             config.priceAreaPaint.setShader(gradient);
         }
 
@@ -89,7 +130,7 @@ public class MiniFenShiView extends StockView {
      * 绘制昨日收盘价线
      */
     private void drawLastClose(Canvas canvas, float y) {
-        lazyPaint.drawDotted(canvas, config.currentColor, config.strokeWidth, config.pathEffect,
+        lazyPaint.drawDotted(canvas, dataManager.currentColor, config.strokeWidth, config.pathEffect,
                 getTableMinX(), y, getTableMaxX(), y);
     }
 
@@ -99,7 +140,10 @@ public class MiniFenShiView extends StockView {
     private void drawPriceLine(Canvas canvas) {
         float topTableMaxY = getTopTableMaxY();
         lazyPaint.moveTo(getCircleX(), getY(dataManager.getPrice(0)));
-        for (int position = 1; position < dataManager.priceSize(); position++) {
+        // 小尺寸时每个像素可能对应多个点, 只绘制降采样后的点
+        priceSampleCache.update(dataManager.prices, dataManager.priceSize(), viewWidth, dataManager.dataVersion);
+        for (int i = 1; i < priceSampleCache.size(); i++) {
+            int position = priceSampleCache.get(i);
             lazyPaint.lineTo(getX(position), getY(dataManager.getPrice(position)));
         }
         lazyPaint.drawPath(canvas);
@@ -127,7 +171,97 @@ public class MiniFenShiView extends StockView {
         if (fenShi == null) {
             return;
         }
+        snapshotLoader.cancel();
+        if (isDataManagerShared) {
+            dataManager = new MiniFenShiDataManager(config);
+            isDataManagerShared = false;
+        }
         dataManager.setNewData(fenShi);
         invalidate();
     }
+
+    /**
+     * 通过预处理缓存设置数据: 缓存中已准备好时直接使用(与点数无关), 否则先清空, 在后台准备完成后放入缓存并显示
+     *
+     * @param key 缓存键(代码、数据版本), 数据变化时需要更新版本
+     */
+    public void setNewData(@NonNull MiniFenShiCache cache, @NonNull MiniFenShiCache.Key key, @NonNull IFenShi fenShi) {
+        MiniFenShiDataManager prepared = cache.get(key);
+        if (prepared != null) {
+            snapshotLoader.cancel();
+            onSnapshot(prepared);
+            return;
+        }
+        if (!dataManager.isPriceEmpty()) {
+            // 不显示复用前的数据
+            dataManager = new MiniFenShiDataManager(config);
+            isDataManagerShared = false;
+            invalidate();
+        }
+        snapshotLoader.load(() -> cache.prepare(key, fenShi));
+    }
+
+    /**
+     * 在后台线程设置数据, 完成后在主线程整体替换数据管理器(fenShi 在发布之前不能再被修改)
+     */
+    public <T extends IFenShi> void setNewDataAsync(T fenShi) {
+        if (fenShi == null) {
+            return;
+        }
+        MiniFenShiConfig config = this.config;
+        snapshotLoader.load(() -> {
+            MiniFenShiDataManager snapshot = new MiniFenShiDataManager(config);
+            snapshot.setNewData(fenShi);
+            return snapshot;
+        });
+    }
+
+    private void onSnapshot(MiniFenShiDataManager snapshot) {
+        dataManager = snapshot;
+        isDataManagerShared = true;
+        invalidate();
+    }
+
+    public MiniFenShiConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        subscription.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        subscription.onDetachedFromWindow();
+    }
+
+    /**
+     * 订阅代码对应的数据(见 {@link FenShiHub}), 收到的数据在后台录入(见 {@link #setNewDataAsync(IFenShi)}), null 表示取消订阅
+     *
+     * @return 订阅, 可用于设置最小更新间隔
+     */
+    public FenShiSubscription subscribe(@Nullable String fenShiCode) {
+        subscription.setFenShiCode(fenShiCode);
+        return subscription;
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // 父类构造时可能已回调, 此时订阅还未创建
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (subscription != null) {
+            subscription.onVisibilityChanged();
+        }
+    }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import ysn.com.stock.helper.ProfitLossSlideHelper;
 import ysn.com.stock.interceptor.ProfitLossUnitInterceptor;
 import ysn.com.stock.manager.ProfitLossDataManager;
 import ysn.com.stock.paint.LazyPaint;
+import ysn.com.stock.paint.LazyTextPaint;
 
 /**
  * @Author yangsanning
@@ -50,6 +51,11 @@ public class ProfitLossView extends View {
      */
     protected ProfitLossSlideHelper slideHelper;
 
+    /**
+     * 左侧坐标文本缓存, 数据或拦截器变化时重新生成
+     */
+    private String[] yCoordinateTexts;
+
     public ProfitLossView(Context context) {
         this(context, null);
     }
@@ -129,10 +135,24 @@ public class ProfitLossView extends View {
      */
     protected void drawYCoordinate(Canvas canvas) {
         lazyPaint.setTextColor(config.textColor);
-        for (int i = 0; i < dataManager.yCoordinateList.size(); i++) {
+        initYCoordinateTexts();
+        for (int i = 0; i < yCoordinateTexts.length; i++) {
+            drawYCoordinate(canvas, i, yCoordinateTexts[i]);
+        }
+    }
+
+    /**
+     * 生成左侧坐标文本缓存, 缓存有效时不做处理
+     */
+    private void initYCoordinateTexts() {
+        if (yCoordinateTexts != null) {
+            return;
+        }
+        yCoordinateTexts = new String[dataManager.yCoordinateList.size()];
+        for (int i = 0; i < yCoordinateTexts.length; i++) {
             Float yCoordinate = dataManager.yCoordinateList.get(i);
-            drawYCoordinate(canvas, i, unitInterceptor == null ?
-                    String.valueOf(yCoordinate) : unitInterceptor.yCoordinate(yCoordinate));
+            yCoordinateTexts[i] = unitInterceptor == null ?
+                    String.valueOf(yCoordinate) : unitInterceptor.yCoordinate(yCoordinate);
         }
     }
 
@@ -141,8 +161,8 @@ public class ProfitLossView extends View {
      */
     private void drawYCoordinate(Canvas canvas, int position, String value) {
         float rowLineY = -config.rowSpacing * position;
-        lazyPaint.measure(value, lazyTextPaint ->
-                lazyTextPaint.drawText(canvas, (-(config.leftTableWidth + lazyTextPaint.width()) / 2), (rowLineY + lazyTextPaint.height() / 2f)));
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(value);
+        lazyTextPaint.drawText(canvas, (-(config.leftTableWidth + lazyTextPaint.width()) / 2), (rowLineY + lazyTextPaint.height() / 2f));
     }
 
     /**
@@ -167,12 +187,12 @@ public class ProfitLossView extends View {
         lazyPaint.setTextColor(config.textColor);
 
         // 绘制起始时间坐标
-        lazyPaint.measure(dataManager.getFistTime(), lazyTextPaint ->
-                lazyTextPaint.drawText(canvas, (0), ((config.timeTableHeight + lazyTextPaint.height()) / 2f)));
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(dataManager.getFistTime());
+        lazyTextPaint.drawText(canvas, (0), ((config.timeTableHeight + lazyTextPaint.height()) / 2f));
 
         // 绘制结束时间坐标
-        lazyPaint.measure(dataManager.getLastTime(), lazyTextPaint ->
-                lazyTextPaint.drawText(canvas, (config.topTableWidth - lazyTextPaint.width()), ((config.timeTableHeight + lazyTextPaint.height()) / 2f)));
+        lazyTextPaint = lazyPaint.measure(dataManager.getLastTime());
+        lazyTextPaint.drawText(canvas, (config.topTableWidth - lazyTextPaint.width()), ((config.timeTableHeight + lazyTextPaint.height()) / 2f));
     }
 
     /**
@@ -248,6 +268,7 @@ public class ProfitLossView extends View {
     public ProfitLossView setUnitInterceptor(ProfitLossUnitInterceptor unitInterceptor) {
         this.unitInterceptor = unitInterceptor;
         this.slideHelper.setUnitInterceptor(unitInterceptor);
+        this.yCoordinateTexts = null;
         return this;
     }
 
@@ -260,6 +281,10 @@ public class ProfitLossView extends View {
     public void setData(@NonNull List<Float> valueList, @NonNull List<String> timesList) {
         if (!valueList.isEmpty()) {
             dataManager.setData(valueList, timesList);
+            yCoordinateTexts = null;
+            if (slideHelper != null) {
+                slideHelper.resetSlidePrice();
+            }
         }
         invalidate();
     }
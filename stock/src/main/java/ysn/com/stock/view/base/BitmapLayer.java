@@ -0,0 +1,77 @@
+package ysn.com.stock.view.base;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import ysn.com.stock.function.OnSomeOneCallBack;
+
+/**
+ * @Author yangsanning
+ * @ClassName BitmapLayer
+ * @Description 图层缓存
+ * 图层内容只在失效后重新绘制到 Bitmap 中，其余帧直接绘制 Bitmap
+ * @Date 2020/8/14
+ */
+public class BitmapLayer {
+
+    /**
+     * 图层内容
+     */
+    private OnSomeOneCallBack<Canvas> onLayerDraw;
+
+    private Bitmap bitmap;
+    private Canvas bitmapCanvas;
+    private boolean isDirty = true;
+
+    public BitmapLayer(OnSomeOneCallBack<Canvas> onLayerDraw) {
+        this.onLayerDraw = onLayerDraw;
+    }
+
+    /**
+     * 绘制图层，图层失效或尺寸变化时先重新绘制图层内容
+     */
+    public void draw(Canvas canvas, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            release();
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            bitmapCanvas = new Canvas(bitmap);
+        }
+        if (isDirty) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            onLayerDraw.onCallBack(bitmapCanvas);
+            isDirty = false;
+        }
+        canvas.drawBitmap(bitmap, 0, 0, null);
+    }
+
+    /**
+     * 图层失效，下次绘制时重新绘制图层内容
+     */
+    public void invalidate() {
+        isDirty = true;
+    }
+
+    /**
+     * 是否已创建 Bitmap
+     */
+    public boolean isCreated() {
+        return bitmap != null;
+    }
+
+    /**
+     * 释放图层
+     */
+    public void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            bitmapCanvas = null;
+        }
+        isDirty = true;
+    }
+}
@@ -2,6 +2,7 @@ package ysn.com.stock.view.base;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Build;
 import android.support.annotation.Nullable;
@@ -11,6 +12,7 @@ import android.view.MotionEvent;
 
 import ysn.com.stock.R;
 import ysn.com.stock.paint.LazyTextPaint;
+import ysn.com.stock.utils.NumberFormatter;
 
 /**
  * @Author yangsanning
@@ -31,9 +33,35 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
     protected int slidePosition;
     protected float slideLineY;
     protected String slideText;
+
+    /**
+     * 滑动值文本缓存标识(滑动值不变时不重新格式化)
+     */
+    private float slideTextValue;
+    private boolean isSlideTextBottom;
+    private boolean isSlideTextValid;
+
+    /**
+     * 滑动值字符缓冲, {@link #formatSlideValue(float, boolean, NumberFormatter)} 返回 true 时使用,
+     * 此时滑动过程中不会创建字符串
+     */
+    protected NumberFormatter slideFormatter = new NumberFormatter();
+    private boolean isSlideTextFormatted;
+    private Rect slideTextRect = new Rect();
     protected RectF slideRectF = new RectF();
     protected RectF timeRectF = new RectF();
 
+    /**
+     * isLatestLongPress: 上一次回调的长按状态
+     * isSlideUpdatePending: 是否已经安排了下一帧的滑动刷新
+     */
+    private boolean isLatestLongPress;
+    private boolean isSlideUpdatePending;
+    private Runnable slideUpdateRunnable = () -> {
+        isSlideUpdatePending = false;
+        invalidate();
+    };
+
     public GridSlideView(Context context) {
         super(context);
     }
@@ -93,13 +121,29 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
         return super.onTouchEvent(event);
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // 移除还未执行的滑动刷新
+        removeCallbacks(slideUpdateRunnable);
+        isSlideUpdatePending = false;
+    }
+
     @Override
     public void onLongPressSlide(boolean isLongPress, float slideX, float slideY) {
-        invalidate();
+        if (isLongPress != isLatestLongPress) {
+            // 长按状态变化时，数据图层中依赖长按状态的内容也需要重新绘制
+            isLatestLongPress = isLongPress;
+            invalidateDataLayer();
+        } else if (!isSlideUpdatePending) {
+            // 合并同一帧内的多个滑动事件，每帧最多重绘一次
+            isSlideUpdatePending = true;
+            postOnAnimation(slideUpdateRunnable);
+        }
     }
 
     /**
-     * 绘制滑动相关
+     * 绘制滑动相关, 需要在 {@link #onOverlayDraw(Canvas)} 中调用
      */
     public void drawSlide(Canvas canvas, int dataSize, float topTableMaxValue, float topTableMinValue,
                           float bottomTableMaxValue, float bottomTableMinValue) {
@@ -122,7 +166,7 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
                      float bottomTableMaxValue, float bottomTableMinValue) {
         if (longPressHelper.slideX > topTableMinX) {
             if (longPressHelper.slideX < topTableMaxX) {
-                slidePosition = (int) ((longPressHelper.slideX - topTableMinX) / topTableWidth * totalCount);
+                slidePosition = getSlidePosition((int) ((longPressHelper.slideX - topTableMinX) / topTableWidth * totalCount));
             } else {
                 slidePosition = dataSize - 1;
             }
@@ -148,7 +192,7 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
                 slideValue = (bottomTableMaxValue - bottomTableMinValue) *
                         (bottomTableMaxY - slideLineY) / bottomTableHeight + bottomTableMinValue;
             }
-            slideText = convertBottomSlideValue(slideValue);
+            updateSlideText(slideValue, true);
         } else {
             // 上表格滑动线Y坐标
             if (longPressHelper.slideY <= topTableMinY) {
@@ -161,16 +205,64 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
                 slideLineY = longPressHelper.slideY;
                 slideValue = (Math.abs(longPressHelper.slideY) * (topTableMaxValue - topTableMinValue)) / topTableHeight + topTableMinValue;
             }
-            slideText = convertTopSlideValue(slideValue);
+            updateSlideText(slideValue, false);
+        }
+    }
+
+    /**
+     * 更新滑动值文本, 滑动值不变时沿用上一次的文本
+     */
+    private void updateSlideText(float slideValue, boolean isBottom) {
+        if (isSlideTextValid && slideTextValue == slideValue && isSlideTextBottom == isBottom) {
+            return;
+        }
+        isSlideTextValid = true;
+        slideTextValue = slideValue;
+        isSlideTextBottom = isBottom;
+        isSlideTextFormatted = formatSlideValue(slideValue, isBottom, slideFormatter);
+        if (isSlideTextFormatted) {
+            slideText = null;
+        } else {
+            slideText = isBottom ? convertBottomSlideValue(slideValue) : convertTopSlideValue(slideValue);
         }
     }
 
+    /**
+     * 重置滑动值文本缓存(滑动值的转换规则变化时调用)
+     */
+    protected void resetSlideText() {
+        isSlideTextValid = false;
+    }
+
+    /**
+     * 将滑动值直接格式化到字符缓冲中
+     *
+     * @return false 表示不处理, 此时使用 {@link #convertTopSlideValue(float)} / {@link #convertBottomSlideValue(float)} 的文本
+     */
+    protected boolean formatSlideValue(float slideValue, boolean isBottom, NumberFormatter formatter) {
+        return false;
+    }
+
+    /**
+     * 表格位置转换为数据的 position(数据按时间排列、存在缺失时需要重写)
+     */
+    protected int getSlidePosition(int slot) {
+        return slot;
+    }
+
+    /**
+     * 滑动线的 x 坐标
+     */
+    protected float getSlideX(int slidePosition) {
+        return getX(slidePosition);
+    }
+
     /**
      * 绘制滑动线
      */
     private void drawSlideLine(Canvas canvas) {
-        float lineX = Math.min(getX(slidePosition), getTopTableMaxX());
-        lazyPaint.setLineColor(getColor(R.color.stock_slide_line))
+        float lineX = Math.min(getSlideX(slidePosition), getTopTableMaxX());
+        lazyPaint.setLineColor(palette.slideLineColor)
                 // 绘制竖线
                 .drawLine(canvas, lineX, -topTableHeight, lineX, viewHeight)
                 // 绘制横线
@@ -181,15 +273,25 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
      * 绘制成滑动值
      */
     private void drawSlideValue(Canvas canvas) {
-        LazyTextPaint lazyTextPaint = lazyPaint.measure(slideText);
-        initSlideRectF(lazyTextPaint.width());
+        if (isSlideTextFormatted) {
+            slideFormatter.getTextBounds(lazyPaint.getTextPaint(), slideTextRect);
+        } else {
+            slideTextRect.set(lazyPaint.measure(slideText).textRect);
+        }
+        initSlideRectF(slideTextRect.width());
         // 绘制背景以及边框
-        lazyPaint.drawRect(canvas, getColor(R.color.stock_area_fq), getColor(R.color.stock_slide_line), slideRectF);
+        lazyPaint.drawRect(canvas, palette.slideAreaColor, palette.slideLineColor, slideRectF);
 
         // 绘制相应值
         float containerWidth = slideRectF.right - slideRectF.left;
-        float y = slideRectF.bottom - (slideRectHeight - lazyTextPaint.height()) / 2;
-        lazyTextPaint.drawTableCenterText(canvas, getColor(R.color.stock_text_title), slideRectF.left, containerWidth, y);
+        float x = slideRectF.left + (containerWidth - slideTextRect.width()) / 2f;
+        float y = slideRectF.bottom - (slideRectHeight - slideTextRect.height()) / 2;
+        lazyPaint.setTextColor(palette.textTitleColor);
+        if (isSlideTextFormatted) {
+            slideFormatter.drawText(canvas, x, y, lazyPaint.getTextPaint());
+        } else {
+            canvas.drawText(slideText, x, y, lazyPaint.getTextPaint());
+        }
     }
 
     /**
@@ -234,7 +336,7 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
         float rectWidth = lazyTextPaint.width() + xYTextMargin * 4;
         float rectHalfWidth = rectWidth / 2;
 
-        timeRectF.left = getX(slidePosition) - rectHalfWidth;
+        timeRectF.left = getSlideX(slidePosition) - rectHalfWidth;
         if (longPressHelper.slideX < topTableMinX + rectHalfWidth) {
             timeRectF.left = tableMargin;
         } else if (longPressHelper.slideX > topTableMaxX - rectHalfWidth) {
@@ -246,12 +348,12 @@ public abstract class GridSlideView extends GridView implements LongPressSlideHe
         timeRectF.right = timeRectF.left + rectWidth;
 
         // 绘制背景以及边框
-        lazyPaint.drawRect(canvas, getColor(R.color.stock_area_fq), getColor(R.color.stock_slide_line), timeRectF);
+        lazyPaint.drawRect(canvas, palette.slideAreaColor, palette.slideLineColor, timeRectF);
 
         // 绘制相应值
         float x = timeRectF.left + xYTextMargin * 2;
         float y = (timeRectF.top + ((timeTableHeight + lazyTextPaint.height()) / 2f));
-        lazyTextPaint.drawText(canvas, getColor(R.color.stock_text_title), x, y);
+        lazyTextPaint.drawText(canvas, palette.textTitleColor, x, y);
     }
 
     /**
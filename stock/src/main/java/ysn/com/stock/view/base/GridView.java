@@ -11,6 +11,7 @@ import android.util.AttributeSet;
 
 import ysn.com.stock.R;
 import ysn.com.stock.paint.LazyTextPaint;
+import ysn.com.stock.utils.TradingSession;
 
 /**
  * @Author yangsanning
@@ -20,7 +21,10 @@ import ysn.com.stock.paint.LazyTextPaint;
  */
 public class GridView extends StockView {
 
-    public static final String[] TIME_TEXT = new String[]{"09:30", "11:30/13:00", "15:00"};
+    /**
+     * 时间坐标, 与交易时段一致
+     */
+    public static final String[] TIME_TEXT = TradingSession.TIME_TEXT;
 
     /**
      * verticalPart: 垂直方向分成几部分（竖虚线+1）
@@ -69,9 +73,9 @@ public class GridView extends StockView {
         partTopHorizontal = typedArray.getInt(R.styleable.GridView_partTopHorizontal, 4);
         partBottomHorizontal = typedArray.getInt(R.styleable.GridView_partBottomHorizontal, 2);
 
-        colorVerticalDotted = typedArray.getColor(R.styleable.GridView_colorVerticalDotted, getColor(R.color.stock_dotted_column_line));
-        colorHorizontalDotted = typedArray.getColor(R.styleable.GridView_colorHorizontalDotted, getColor(R.color.stock_dotted_column_line));
-        colorHorizontalDottedDeepen = typedArray.getColor(R.styleable.GridView_colorHorizontalDottedDeepen, getColor(R.color.stock_dotted_row_line));
+        colorVerticalDotted = typedArray.getColor(R.styleable.GridView_colorVerticalDotted, palette.dottedColumnLineColor);
+        colorHorizontalDotted = typedArray.getColor(R.styleable.GridView_colorHorizontalDotted, palette.dottedColumnLineColor);
+        colorHorizontalDottedDeepen = typedArray.getColor(R.styleable.GridView_colorHorizontalDottedDeepen, palette.dottedRowLineColor);
 
         typedArray.recycle();
     }
@@ -103,27 +107,35 @@ public class GridView extends StockView {
      */
     @Override
     protected void onTimeTextDraw(Canvas canvas) {
-        lazyPaint.setTextColor(getColor(R.color.stock_text_title))
-                .measure(TIME_TEXT[0], lazyTextPaint -> {
-                    // 绘制开始区域时间值
-                    float y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
-                    lazyTextPaint.drawTableStartText(canvas, getTableMinX(), getTableMargin(), y);
-                })
-                .measure(TIME_TEXT[1], lazyTextPaint -> {
-                    // 绘制中间区域时间值
-                    float y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
-                    lazyTextPaint.drawTableCenterText(canvas, getTableMinX(), getTopTableWidth(), y);
-                })
-                .measure(TIME_TEXT[2], lazyTextPaint -> {
-                    // 绘制结束区域时间值
-                    float y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
-                    lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), getTableMargin(), y);
-                });
+        lazyPaint.setTextColor(palette.textTitleColor);
+
+        // 绘制开始区域时间值
+        LazyTextPaint lazyTextPaint = lazyPaint.measure(TIME_TEXT[0]);
+        float y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
+        lazyTextPaint.drawTableStartText(canvas, getTableMinX(), getTableMargin(), y);
+
+        // 绘制中间区域时间值
+        lazyTextPaint = lazyPaint.measure(TIME_TEXT[1]);
+        y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
+        lazyTextPaint.drawTableCenterText(canvas, getTableMinX(), getTopTableWidth(), y);
+
+        // 绘制结束区域时间值
+        lazyTextPaint = lazyPaint.measure(TIME_TEXT[2]);
+        y = getTimeTableMinY() + lazyTextPaint.centerY(getTimeTableHeight());
+        lazyTextPaint.drawTableEndText(canvas, getTopTableMaxX(), getTableMargin(), y);
     }
 
     @Override
-    protected void onChildDraw(Canvas canvas) {
-        super.onChildDraw(canvas);
+    protected boolean isEnabledLayerCache() {
+        return true;
+    }
+
+    /**
+     * 网格属于基础图层，启用缓存后只在尺寸或配置变化时绘制
+     */
+    @Override
+    protected void onBaseDraw(Canvas canvas) {
+        super.onBaseDraw(canvas);
         // 绘制边框
         onBordersDraw(canvas);
 
@@ -144,7 +156,7 @@ public class GridView extends StockView {
      */
     protected void onBordersDraw(Canvas canvas) {
         // 上表边框
-        lazyPaint.setLineColor(getColor(R.color.stock_line))
+        lazyPaint.setLineColor(palette.lineColor)
                 .setLineStrokeWidth(1f)
                 .drawLines(canvas, topTablePts);
 
@@ -190,7 +202,7 @@ public class GridView extends StockView {
         // 绘制下表横线
         if (isEnabledBottomTable()) {
             rowSpacing = getBottomRowSpacing();
-            lazyPaint.setLineColor(getColor(R.color.stock_dotted_column_line));
+            lazyPaint.setLineColor(palette.dottedColumnLineColor);
             for (int i = 1; i < getPartBottomHorizontal(); i++) {
                 float y = getBottomRowY(rowSpacing, i);
                 lazyPaint.drawPath(canvas, tableMargin, y, (viewWidth - tableMargin), y);
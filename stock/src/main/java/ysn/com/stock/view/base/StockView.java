@@ -1,6 +1,7 @@
 package ysn.com.stock.view.base;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
@@ -17,7 +18,9 @@ import java.text.DecimalFormat;
 
 import ysn.com.stock.R;
 import ysn.com.stock.bean.Extremum;
+import ysn.com.stock.config.StockPalette;
 import ysn.com.stock.paint.LazyPaint;
+import ysn.com.stock.paint.TextBoundsCache;
 
 /**
  * @Author yangsanning
@@ -60,11 +63,29 @@ public class StockView extends View {
     protected float xYTextSize, xYTextMargin, titleTextSize;
     protected Paint textPaint;
     protected Rect textRect = new Rect();
+
+    /**
+     * 已解析的颜色表, 绘制时直接读取
+     */
+    protected StockPalette palette;
+
+    /**
+     * textPaint 的文本测量缓存
+     */
+    protected TextBoundsCache textBoundsCache = new TextBoundsCache();
     protected DecimalFormat decimalFormat;
 
     protected Paint linePaint;
     protected Path linePath;
 
+    /**
+     * baseLayer: 基础图层缓存(标题、时间、边框、网格等只随尺寸或配置变化的静态内容)
+     * dataLayer: 数据图层缓存(曲线、柱形图、坐标值等只随数据变化的内容), 默认不启用, 见 {@link #isEnabledDataLayerCache()}
+     * 滑动、闪烁点等交互内容绘制在图层之上({@link #onOverlayDraw(Canvas)})
+     */
+    private BitmapLayer baseLayer = new BitmapLayer(canvas -> drawLayerContent(canvas, true));
+    private BitmapLayer dataLayer = new BitmapLayer(canvas -> drawLayerContent(canvas, false));
+
     public StockView(Context context) {
         this(context, null);
     }
@@ -87,6 +108,7 @@ public class StockView extends View {
     }
 
     protected void init(AttributeSet attrs) {
+        palette = new StockPalette(context);
         initAttr(attrs);
         initPaint();
     }
@@ -101,7 +123,7 @@ public class StockView extends View {
 
     protected void initPaint() {
         linePaint = new Paint();
-        linePaint.setColor(getColor(R.color.stock_line));
+        linePaint.setColor(palette.lineColor);
         linePaint.setStrokeWidth(1f);
         linePaint.setStyle(Paint.Style.STROKE);
 
@@ -140,6 +162,26 @@ public class StockView extends View {
         xYTextMargin = xYTextSize / 5;
         textPaint.setTextSize(xYTextSize);
         lazyPaint.setTextSize(xYTextSize);
+
+        // 尺寸变化后需要重新绘制图层(尺寸不同时图层会重新创建)
+        invalidateLayer();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // 主题(如夜间模式)可能变化, 重新解析颜色
+        palette.resolve(context);
+        onPaletteChanged();
+    }
+
+    /**
+     * 颜色表变化时调用, 子类在此重新设置初始化时设置过颜色的画笔
+     */
+    protected void onPaletteChanged() {
+        linePaint.setColor(palette.lineColor);
+        invalidateBaseLayer();
+        invalidateDataLayer();
     }
 
     public boolean isEnabledTitleTable() {
@@ -160,18 +202,100 @@ public class StockView extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        // 基础绘制
+        if (isEnabledLayerCache()) {
+            baseLayer.draw(canvas, viewWidth, viewHeight);
+        } else {
+            releaseLayer(baseLayer);
+            drawLayerContent(canvas, true);
+        }
+
+        // 数据绘制
+        if (isEnabledLayerCache() && isEnabledDataLayerCache()) {
+            dataLayer.draw(canvas, viewWidth, viewHeight);
+        } else {
+            releaseLayer(dataLayer);
+            drawLayerContent(canvas, false);
+        }
+
         canvas.save();
         canvas.translate(getCircleX(), getCircleY());
 
-        // 基础绘制
-        onBaseDraw(canvas);
+        // 绘制交互内容
+        onOverlayDraw(canvas);
 
-        // 开放给子类自由绘制
-        onChildDraw(canvas);
+        canvas.restore();
+    }
 
+    /**
+     * 绘制图层内容
+     *
+     * @param isBaseLayer 是否是基础图层
+     */
+    private void drawLayerContent(Canvas canvas, boolean isBaseLayer) {
+        canvas.save();
+        canvas.translate(getCircleX(), getCircleY());
+        if (isBaseLayer) {
+            // 基础绘制
+            onBaseDraw(canvas);
+        } else {
+            // 开放给子类自由绘制
+            onChildDraw(canvas);
+        }
         canvas.restore();
     }
 
+    /**
+     * 是否缓存基础图层(默认不缓存)
+     * 缓存后 {@link #onBaseDraw(Canvas)} 仅在基础图层失效后调用
+     */
+    protected boolean isEnabledLayerCache() {
+        return false;
+    }
+
+    /**
+     * 是否缓存数据图层(默认不缓存, 需同时启用 {@link #isEnabledLayerCache()})
+     * 不缓存时数据直接绘制在硬件加速的显示列表中; 缓存时数据每次变化都要在 Bitmap 上软件重绘整个图层,
+     * 并多占用一张控件大小的 Bitmap, 只适合数据变化远少于交互重绘的控件(如分时的滑动、心跳)
+     * 缓存后 {@link #onChildDraw(Canvas)} 仅在数据图层失效后调用
+     */
+    protected boolean isEnabledDataLayerCache() {
+        return false;
+    }
+
+    /**
+     * 基础图层失效(基础图层内容变化时调用)，下一帧会重新绘制基础图层
+     */
+    public void invalidateBaseLayer() {
+        baseLayer.invalidate();
+        invalidate();
+    }
+
+    /**
+     * 数据图层失效(数据变化时调用)，下一帧会重新绘制数据图层
+     */
+    public void invalidateDataLayer() {
+        dataLayer.invalidate();
+        invalidate();
+    }
+
+    /**
+     * 图层失效
+     */
+    private void invalidateLayer() {
+        baseLayer.invalidate();
+        dataLayer.invalidate();
+    }
+
+    /**
+     * 释放不再使用的图层(如关闭缓存后)
+     */
+    private void releaseLayer(BitmapLayer layer) {
+        if (layer.isCreated()) {
+            layer.release();
+        }
+    }
+
     /**
      * 圆心X坐标
      */
@@ -187,7 +311,8 @@ public class StockView extends View {
     }
 
     /**
-     * 基础绘制
+     * 基础绘制(基础图层)
+     * 注意: 启用基础图层缓存时并不会每帧调用, 不要在这里设置后续绘制依赖的画笔状态
      */
     protected void onBaseDraw(Canvas canvas) {
         // 绘制标题文本
@@ -210,11 +335,18 @@ public class StockView extends View {
     }
 
     /**
-     * 开放给子类自由绘制
+     * 开放给子类自由绘制(数据图层)
+     * 注意: 启用数据图层缓存时仅在数据变化后调用，随交互变化的内容需要在 {@link #onOverlayDraw(Canvas)} 中绘制
      */
     protected void onChildDraw(Canvas canvas) {
     }
 
+    /**
+     * 绘制交互内容(滑动线等), 每一帧都会调用，绘制在图层之上
+     */
+    protected void onOverlayDraw(Canvas canvas) {
+    }
+
     /**
      * 获取上表格最小X
      */
@@ -447,6 +579,10 @@ public class StockView extends View {
         return xYTextMargin;
     }
 
+    public StockPalette getPalette() {
+        return palette;
+    }
+
     public Paint getTextPaint() {
         return textPaint;
     }
@@ -455,6 +591,18 @@ public class StockView extends View {
         return textRect;
     }
 
+    /**
+     * 使用 textPaint 测量文本(优先读取测量缓存), 结果写入 textRect
+     */
+    public Rect measureText(String text) {
+        textBoundsCache.getTextBounds(textPaint, text, textRect);
+        return textRect;
+    }
+
+    public TextBoundsCache getTextBoundsCache() {
+        return textBoundsCache;
+    }
+
     public int getTotalCount() {
         return totalCount;
     }
@@ -0,0 +1,117 @@
+package ysn.com.stock.bean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author yangsanning
+ * @ClassName ExtremumBenchmark
+ * @Description 资金数据(价格 + 三组流入)的极值计算: 原来逐点 convert(float...) 与批量 {@link Extremum#calculate(int, int, float[]...)}
+ * 运行: ./gradlew :stock:jmh -PjmhArgs="ExtremumBenchmark -prof gc"
+ * @Date 2020/8/30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtremumBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private float[] prices;
+    private float[] financeInFlows;
+    private float[] mainInFlows;
+    private float[] retailInFlows;
+
+    private Extremum extremum = new Extremum();
+    private Extremum priceExtremum = new Extremum();
+    private Extremum inFlowExtremum = new Extremum();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20200830L);
+        prices = new float[size];
+        financeInFlows = new float[size];
+        mainInFlows = new float[size];
+        retailInFlows = new float[size];
+        float price = 10;
+        for (int i = 0; i < size; i++) {
+            price += (random.nextFloat() - 0.5f) * 0.1f;
+            prices[i] = price;
+            financeInFlows[i] = (random.nextFloat() - 0.5f) * 1e6f;
+            mainInFlows[i] = (random.nextFloat() - 0.5f) * 1e6f;
+            retailInFlows[i] = (random.nextFloat() - 0.5f) * 1e6f;
+        }
+    }
+
+    /**
+     * 原 CapitalDataManager.setNewData: 每个点调用三次 convert(float...), 每次创建数组
+     */
+    @Benchmark
+    public void varargsPerPoint(Blackhole blackhole) {
+        extremum.init(prices[0]);
+        priceExtremum.init(prices[0]);
+        inFlowExtremum.init(financeInFlows[0]);
+        for (int i = 0; i < size; i++) {
+            float price = prices[i];
+            float financeInFlow = financeInFlows[i];
+            float mainInFlow = mainInFlows[i];
+            float retailInFlow = retailInFlows[i];
+            extremum.convert(financeInFlow, mainInFlow, price, retailInFlow);
+            priceExtremum.convert(price);
+            inFlowExtremum.convert(financeInFlow, mainInFlow, retailInFlow);
+        }
+        consume(blackhole);
+    }
+
+    /**
+     * 逐点比较, 不创建数组
+     */
+    @Benchmark
+    public void scalarPerPoint(Blackhole blackhole) {
+        priceExtremum.init(prices[0]);
+        inFlowExtremum.init(financeInFlows[0]);
+        for (int i = 0; i < size; i++) {
+            priceExtremum.convert(prices[i]);
+            inFlowExtremum.convert(financeInFlows[i]);
+            inFlowExtremum.convert(mainInFlows[i]);
+            inFlowExtremum.convert(retailInFlows[i]);
+        }
+        extremum.merge(priceExtremum, inFlowExtremum);
+        consume(blackhole);
+    }
+
+    /**
+     * 当前 CapitalDataManager 的方式: 按列批量计算后合并
+     */
+    @Benchmark
+    public void bulkColumns(Blackhole blackhole) {
+        priceExtremum.calculate(0, size, prices);
+        inFlowExtremum.calculate(0, size, financeInFlows, mainInFlows, retailInFlows);
+        extremum.merge(priceExtremum, inFlowExtremum);
+        consume(blackhole);
+    }
+
+    private void consume(Blackhole blackhole) {
+        blackhole.consume(extremum.getMaximum());
+        blackhole.consume(extremum.getMinimum());
+        blackhole.consume(priceExtremum.getMaximum());
+        blackhole.consume(inFlowExtremum.getMinimum());
+    }
+}
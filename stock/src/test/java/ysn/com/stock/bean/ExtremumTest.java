@@ -0,0 +1,70 @@
+package ysn.com.stock.bean;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Author yangsanning
+ * @ClassName ExtremumTest
+ * @Description {@link Extremum} 批量计算与逐个比较结果一致
+ * @Date 2020/8/30
+ */
+public class ExtremumTest {
+
+    @Test
+    public void bulkMatchesScalar() {
+        Random random = new Random(20200830L);
+        for (int round = 0; round < 200; round++) {
+            int length = random.nextInt(40) + 1;
+            float[] first = randomValues(random, length);
+            float[] second = randomValues(random, length);
+            int from = random.nextInt(length);
+            int to = from + 1 + random.nextInt(length - from);
+
+            Extremum expected = new Extremum();
+            expected.init(first[from]);
+            for (int i = from; i < to; i++) {
+                expected.convert(first[i]);
+                expected.convert(second[i]);
+            }
+            expected.calculatePeek();
+
+            Extremum actual = new Extremum();
+            actual.calculate(from, to, first, second);
+
+            assertEquals(expected.getMaximum(), actual.getMaximum(), 0);
+            assertEquals(expected.getMinimum(), actual.getMinimum(), 0);
+            assertEquals(expected.getPeek(), actual.getPeek(), 0);
+        }
+    }
+
+    @Test
+    public void maximumIsAlsoComparedWithMinimum() {
+        Extremum extremum = new Extremum();
+        extremum.init(5);
+        extremum.convert(new float[]{6, 4, 7, 1}, 0, 4);
+        assertEquals(7, extremum.getMaximum(), 0);
+        assertEquals(1, extremum.getMinimum(), 0);
+    }
+
+    @Test
+    public void emptyRangeResets() {
+        Extremum extremum = new Extremum();
+        extremum.init(5);
+        extremum.calculate(3, 3, new float[]{1, 2, 3, 4});
+        assertEquals(0, extremum.getMaximum(), 0);
+        assertEquals(0, extremum.getMinimum(), 0);
+        assertEquals(0, extremum.getPeek(), 0);
+    }
+
+    private static float[] randomValues(Random random, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (random.nextFloat() - 0.5f) * 1000;
+        }
+        return values;
+    }
+}
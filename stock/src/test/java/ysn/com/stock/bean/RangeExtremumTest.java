@@ -0,0 +1,92 @@
+package ysn.com.stock.bean;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Author yangsanning
+ * @ClassName RangeExtremumTest
+ * @Description {@link RangeExtremum} 在追加、覆盖、移除、截断后的区间查询与逐个比较结果一致
+ * @Date 2020/8/30
+ */
+public class RangeExtremumTest {
+
+    @Test
+    public void emptyRange() {
+        RangeExtremum rangeExtremum = new RangeExtremum(4);
+        assertEquals(0, rangeExtremum.getMaximum(0, 0), 0);
+        rangeExtremum.add(3);
+        assertEquals(0, rangeExtremum.getMinimum(1, 1), 0);
+
+        Extremum extremum = new Extremum();
+        extremum.init(7);
+        rangeExtremum.getExtremum(1, 1, extremum);
+        assertEquals(0, extremum.getPeek(), 0);
+    }
+
+    @Test
+    public void extremum() {
+        RangeExtremum rangeExtremum = new RangeExtremum(8);
+        float[] values = {3, -1, 4, 1, -5, 9, 2, 6};
+        for (float value : values) {
+            rangeExtremum.add(value);
+        }
+        Extremum extremum = new Extremum();
+        rangeExtremum.getExtremum(1, 5, extremum);
+        assertEquals(4, extremum.getMaximum(), 0);
+        assertEquals(-5, extremum.getMinimum(), 0);
+        assertEquals(9, extremum.getPeek(), 0);
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(20200830L);
+        // 初始容量很小, 同时覆盖扩容
+        RangeExtremum rangeExtremum = new RangeExtremum(1);
+        List<Float> values = new ArrayList<>();
+        for (int round = 0; round < 3000; round++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || values.isEmpty()) {
+                float value = (random.nextFloat() - 0.5f) * 100;
+                rangeExtremum.add(value);
+                values.add(value);
+            } else if (operation < 8) {
+                // 多数情况更新最后一个点
+                int position = random.nextBoolean() ? values.size() - 1 : random.nextInt(values.size());
+                float value = (random.nextFloat() - 0.5f) * 100;
+                rangeExtremum.set(position, value);
+                values.set(position, value);
+            } else if (operation == 8) {
+                int count = random.nextInt(values.size() / 2 + 1);
+                rangeExtremum.removeFirst(count);
+                values.subList(0, count).clear();
+            } else {
+                int newSize = values.size() - random.nextInt(values.size() / 4 + 1);
+                rangeExtremum.truncate(newSize);
+                values.subList(newSize, values.size()).clear();
+            }
+            assertEquals(values.size(), rangeExtremum.size());
+            assertRanges(rangeExtremum, values, random);
+        }
+    }
+
+    private static void assertRanges(RangeExtremum rangeExtremum, List<Float> values, Random random) {
+        for (int i = 0; i < 20 && !values.isEmpty(); i++) {
+            int from = random.nextInt(values.size());
+            int to = from + 1 + random.nextInt(values.size() - from);
+            float max = values.get(from), min = values.get(from);
+            for (int position = from; position < to; position++) {
+                max = Math.max(max, values.get(position));
+                min = Math.min(min, values.get(position));
+            }
+            String range = "[" + from + ", " + to + ") of " + values.size();
+            assertEquals(range, max, rangeExtremum.getMaximum(from, to), 0);
+            assertEquals(range, min, rangeExtremum.getMinimum(from, to), 0);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ysn.com.stock.bean;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ysn.com.stock.utils.TradingSession;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author yangsanning
+ * @ClassName TickRingBufferTest
+ * @Description {@link TickRingBuffer} 的合并、溢出与并发读写
+ * @Date 2020/8/30
+ */
+public class TickRingBufferTest {
+
+    @Test
+    public void coalesceSameSlot() {
+        TickRingBuffer buffer = new TickRingBuffer(16);
+        buffer.offer(0, 570, 10, 10, 1);
+        buffer.offer(0, 570, 11, 10, 2);
+        buffer.offer(1, 571, 12, 11, 3);
+        buffer.offer(1, 571, 13, 11, 4);
+        buffer.offer(2, 572, 14, 12, 5);
+
+        List<float[]> ticks = new ArrayList<>();
+        assertEquals(3, buffer.drain(collect(ticks)));
+        assertTick(ticks.get(0), 0, 570, 11);
+        assertTick(ticks.get(1), 1, 571, 13);
+        assertTick(ticks.get(2), 2, 572, 14);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getOverflowCount());
+    }
+
+    @Test
+    public void sharedSlotKeepsMinute() {
+        TickRingBuffer buffer = new TickRingBuffer(4);
+        int slot = TradingSession.getSlot(TradingSession.AFTERNOON_OPEN);
+        buffer.offer(slot, TradingSession.MORNING_CLOSE, 10, 10, 1);
+        buffer.offer(slot, TradingSession.AFTERNOON_OPEN, 11, 10, 2);
+
+        List<float[]> ticks = new ArrayList<>();
+        buffer.drain(collect(ticks));
+        assertEquals(1, ticks.size());
+        assertTick(ticks.get(0), slot, TradingSession.AFTERNOON_OPEN, 11);
+    }
+
+    /**
+     * 缓冲已满时每个位置都保留最新的 tick, 不会丢失整个位置
+     */
+    @Test
+    public void overflowKeepsLatestPerSlot() {
+        TickRingBuffer buffer = new TickRingBuffer(8);
+        int slotCount = TradingSession.SLOT_COUNT;
+        for (int slot = 0; slot < slotCount; slot++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.offer(slot, TradingSession.getMinuteOfSlot(slot), slot * 10 + i, 0, i);
+            }
+        }
+        // 位置无效的 tick 丢弃
+        buffer.offer(slotCount, TradingSession.INVALID, 1, 1, 1);
+        assertEquals(slotCount * 3 + 1 - buffer.capacity(), buffer.getOverflowCount());
+
+        List<float[]> ticks = new ArrayList<>();
+        buffer.drain(collect(ticks));
+        assertTrue(buffer.isEmpty());
+        int lastSlot = TradingSession.INVALID;
+        boolean[] isDelivered = new boolean[slotCount];
+        for (float[] tick : ticks) {
+            int slot = (int) tick[0];
+            assertTrue(slot >= lastSlot);
+            lastSlot = slot;
+            isDelivered[slot] = true;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            assertTrue("slot " + slot, isDelivered[slot]);
+        }
+        // 每个位置最后回调的是最新的 tick
+        float[] latest = new float[slotCount];
+        for (float[] tick : ticks) {
+            latest[(int) tick[0]] = tick[2];
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            assertEquals(slot * 10 + 2, latest[slot], 0);
+        }
+    }
+
+    /**
+     * 溢出记录与之后写入缓冲的 tick 保持时间顺序
+     */
+    @Test
+    public void overflowBeforeLaterTicks() {
+        TickRingBuffer buffer = new TickRingBuffer(2);
+        buffer.offer(0, 1, 0, 0);
+        buffer.offer(1, 2, 0, 0);
+        assertFalse(buffer.offer(1, 3, 0, 0));
+        assertFalse(buffer.offer(2, 4, 0, 0));
+
+        List<float[]> ticks = new ArrayList<>();
+        buffer.drain(collect(ticks));
+        buffer.offer(2, 5, 0, 0);
+        buffer.offer(3, 6, 0, 0);
+        buffer.drain(collect(ticks));
+
+        float[] prices = new float[ticks.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = ticks.get(i)[2];
+        }
+        assertEquals(6, prices.length);
+        float last = 0;
+        for (float price : prices) {
+            assertTrue(price > last);
+            last = price;
+        }
+        assertEquals(6, last, 0);
+    }
+
+    /**
+     * 生产者线程持续写入, 消费者读取到的 tick 按时间有序、没有读到写了一半的数据, 最后一个 tick 不会丢失
+     */
+    @Test
+    public void concurrentProducer() throws InterruptedException {
+        int tickCount = 500_000;
+        int ticksPerSlot = 2000;
+        for (int capacity : new int[]{2, 8, 1024}) {
+            TickRingBuffer buffer = new TickRingBuffer(capacity, tickCount / ticksPerSlot + 1);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < tickCount; i++) {
+                    buffer.offer(i / ticksPerSlot, i, i, i, i);
+                }
+            });
+            float[] last = {-1, -1};
+            TickRingBuffer.TickConsumer consumer = (slot, minuteOfDay, price, avePrice, volume) -> {
+                assertTrue(slot >= last[0]);
+                assertTrue(price > last[1]);
+                assertEquals(slot, (int) price / ticksPerSlot);
+                assertEquals(price, minuteOfDay, 0);
+                assertEquals(price, volume, 0);
+                last[0] = slot;
+                last[1] = price;
+            };
+            producer.start();
+            while (producer.isAlive()) {
+                buffer.drain(consumer);
+            }
+            producer.join();
+            buffer.drain(consumer);
+            assertEquals(tickCount - 1, last[1], 0);
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    private static TickRingBuffer.TickConsumer collect(List<float[]> ticks) {
+        return (slot, minuteOfDay, price, avePrice, volume) -> ticks.add(new float[]{slot, minuteOfDay, price, avePrice, volume});
+    }
+
+    private static void assertTick(float[] tick, int slot, int minuteOfDay, float price) {
+        assertEquals(slot, tick[0], 0);
+        assertEquals(minuteOfDay, tick[1], 0);
+        assertEquals(price, tick[2], 0);
+    }
+}
@@ -0,0 +1,197 @@
+package ysn.com.stock.helper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.TradingSession;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author yangsanning
+ * @ClassName TickStoreTest
+ * @Description {@link TickStore} 追加、重新打开(模拟进程被杀)、压缩以及压缩后继续追加的数据一致
+ * @Date 2020/8/30
+ */
+public class TickStoreTest {
+
+    private static final String SYMBOL = "sh600519";
+    private static final String DATE = "2020-05-11";
+    private static final String NEXT_DATE = "2020-05-12";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private TickStore tickStore;
+
+    /**
+     * 每个位置最后一个 tick: 位置、价格、均价、成交量
+     */
+    private List<float[]> expectedList = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot();
+        tickStore = new TickStore(directory);
+    }
+
+    @After
+    public void tearDown() {
+        tickStore.close();
+    }
+
+    @Test
+    public void appendAndReopen() throws IOException {
+        tickStore.setDayInfo(SYMBOL, DATE, 100, TradingSession.SLOT_COUNT);
+        appendRandom(3000);
+
+        assertTicks(tickStore.load(SYMBOL, DATE));
+        // 不关闭直接用新的实例读取(模拟进程被杀)
+        FenShiColumnData reopened = new TickStore(directory).load(SYMBOL, DATE);
+        assertTicks(reopened);
+        assertEquals(100, reopened.getFenShiLastClose(), 0);
+        assertEquals(TradingSession.SLOT_COUNT, reopened.getTotalCount());
+    }
+
+    @Test
+    public void compactAndAppend() throws IOException {
+        tickStore.setDayInfo(SYMBOL, DATE, 100, TradingSession.SLOT_COUNT);
+        appendRandom(1000);
+        tickStore.append(SYMBOL, NEXT_DATE, 0, 5, 5, 5);
+
+        tickStore.compactBefore(NEXT_DATE);
+        assertArrayEquals(new String[]{DATE + ".bin", NEXT_DATE + ".tick"}, listFiles());
+        FenShiColumnData compacted = tickStore.load(SYMBOL, DATE);
+        assertTicks(compacted);
+        assertEquals(100, compacted.getFenShiLastClose(), 0);
+        assertEquals(Arrays.asList(DATE, NEXT_DATE), tickStore.getDates(SYMBOL));
+
+        // 已压缩的交易日继续追加
+        int slot = (int) expectedList.get(expectedList.size() - 1)[0] + 1;
+        tickStore.append(SYMBOL, DATE, slot, 9, 9, 9);
+        expectedList.add(new float[]{slot, 9, 9, 9});
+        assertTicks(tickStore.load(SYMBOL, DATE));
+        assertArrayEquals(new String[]{DATE + ".tick", NEXT_DATE + ".tick"}, listFiles());
+    }
+
+    /**
+     * 11:30/13:00 共用一个位置, 时间文本取 tick 的实际时间
+     */
+    @Test
+    public void sharedSlotMinute() throws IOException {
+        int slot = TradingSession.getSlot(TradingSession.AFTERNOON_OPEN);
+        tickStore.append(SYMBOL, DATE, slot, TradingSession.MORNING_CLOSE, 1, 1, 1);
+        assertEquals("11:30", tickStore.load(SYMBOL, DATE).getTime(0));
+        tickStore.append(SYMBOL, DATE, slot, TradingSession.AFTERNOON_OPEN, 2, 2, 2);
+        assertEquals("13:00", tickStore.load(SYMBOL, DATE).getTime(0));
+    }
+
+    /**
+     * 没有设置总点数时按 A 股时段处理, 位置超出时(其它时段)取最大位置 + 1
+     */
+    @Test
+    public void missingTotalCount() throws IOException {
+        tickStore.append(SYMBOL, DATE, 0, 1, 1, 1);
+        tickStore.append(SYMBOL, DATE, 5, 2, 2, 2);
+        FenShiColumnData fenShi = tickStore.load(SYMBOL, DATE);
+        assertEquals(TradingSession.SLOT_COUNT, fenShi.getTotalCount());
+        assertEquals("09:35", fenShi.getTime(1));
+
+        tickStore.append(SYMBOL, DATE, 271, 21 * 60, 3, 3, 3);
+        fenShi = tickStore.load(SYMBOL, DATE);
+        assertEquals(272, fenShi.getTotalCount());
+        assertEquals(3, fenShi.size());
+        assertEquals("21:00", fenShi.getTime(2));
+    }
+
+    /**
+     * 其它时段(点数超过 A 股)的位置不会被丢弃, 超出总点数的位置忽略
+     */
+    @Test
+    public void otherSession() throws IOException {
+        tickStore.setDayInfo(SYMBOL, DATE, 3900, 272);
+        for (int slot = 0; slot < 273; slot++) {
+            tickStore.append(SYMBOL, DATE, slot, (21 * 60 + slot) % (24 * 60), slot, slot, slot);
+        }
+        FenShiColumnData fenShi = tickStore.load(SYMBOL, DATE);
+        assertEquals(272, fenShi.size());
+        assertEquals(271, fenShi.getPrice(271), 0);
+
+        tickStore.compact(SYMBOL, DATE);
+        tickStore.append(SYMBOL, DATE, 272, 0, 0, 0);
+        fenShi = tickStore.load(SYMBOL, DATE);
+        assertEquals(272, fenShi.size());
+        assertEquals("01:10", fenShi.getTime(250));
+    }
+
+    @Test
+    public void emptyDay() throws IOException {
+        FenShiColumnData fenShi = tickStore.load("sz/000001", DATE);
+        assertEquals(0, fenShi.size());
+        assertEquals("sz/000001", fenShi.getFenShiCode());
+        assertTrue(tickStore.getDates("sz/000001").isEmpty());
+    }
+
+    /**
+     * 随机追加 tick: 大多数停留在当前位置, 偶尔进入下一个位置, 偶尔写入过期的位置(忽略)
+     */
+    private void appendRandom(int count) throws IOException {
+        Random random = new Random(20200830L);
+        int slot = 0;
+        float[] current = null;
+        for (int i = 0; i < count; i++) {
+            int action = random.nextInt(20);
+            if (action == 0 && current != null) {
+                tickStore.append(SYMBOL, DATE, slot - 5, 1, 1, 1);
+                continue;
+            }
+            if (action == 1 && current != null) {
+                slot += 1 + random.nextInt(2);
+                if (slot >= TradingSession.SLOT_COUNT) {
+                    return;
+                }
+            }
+            float price = random.nextFloat() * 100;
+            tickStore.append(SYMBOL, DATE, slot, TradingSession.getMinuteOfSlot(slot), price, price / 2, i);
+            if (current != null && (int) current[0] == slot) {
+                current[1] = price;
+                current[2] = price / 2;
+                current[3] = i;
+            } else {
+                current = new float[]{slot, price, price / 2, i};
+                expectedList.add(current);
+            }
+        }
+    }
+
+    private void assertTicks(FenShiColumnData fenShi) {
+        assertEquals(expectedList.size(), fenShi.size());
+        for (int i = 0; i < fenShi.size(); i++) {
+            float[] expected = expectedList.get(i);
+            assertEquals((int) expected[0], TradingSession.getSlot(fenShi.getTime(i)));
+            assertEquals(expected[1], fenShi.getPrice(i), 0);
+            assertEquals(expected[2], fenShi.getAvePrice(i), 0);
+            assertEquals(expected[3], fenShi.getVolume(i), 0);
+        }
+    }
+
+    private String[] listFiles() {
+        String[] names = new File(directory, SYMBOL).list();
+        Arrays.sort(names);
+        return names;
+    }
+}
@@ -0,0 +1,122 @@
+package ysn.com.stock.manager;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.TradingSession;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author yangsanning
+ * @ClassName FiveDayFenShiDataManagerTest
+ * @Description 滚动(rollDay)、替换最后一天(setLastDay)与重新设置全部数据(setData)的结果一致
+ * @Date 2020/8/30
+ */
+public class FiveDayFenShiDataManagerTest {
+
+    private static final int DAY_COUNT = 5;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private Random random = new Random(20200830L);
+
+    @Test
+    public void rollDayAndSetLastDayMatchSetData() {
+        List<FenShiColumnData> fenShiList = new ArrayList<>();
+        for (int day = 0; day < 3; day++) {
+            fenShiList.add(newDay(random.nextInt(TradingSession.SLOT_COUNT), day));
+        }
+        FiveDayFenShiDataManager dataManager = newDataManager();
+        dataManager.setData(fenShiList);
+
+        for (int round = 0; round < 200; round++) {
+            FenShiColumnData fenShi = newDay(random.nextInt(TradingSession.SLOT_COUNT + 1), fenShiList.size());
+            if (random.nextBoolean()) {
+                fenShiList.add(fenShi);
+                dataManager.rollDay(fenShi);
+            } else {
+                fenShiList.set(fenShiList.size() - 1, fenShi);
+                dataManager.setLastDay(fenShi);
+            }
+            FiveDayFenShiDataManager expected = newDataManager();
+            expected.setData(fenShiList);
+            assertSameData(expected, dataManager);
+        }
+    }
+
+    @Test
+    public void setDataWithEmptyList() {
+        FiveDayFenShiDataManager dataManager = newDataManager();
+        dataManager.setData(Collections.<FenShiColumnData>emptyList());
+
+        assertTrue(dataManager.isEmpty());
+        assertEquals(DAY_COUNT, dataManager.dateList.size());
+        assertEquals(0, dataManager.lastClose, 0);
+    }
+
+    @Test
+    public void rollDayBeforeSetData() {
+        FenShiColumnData fenShi = newDay(100, 0);
+        FiveDayFenShiDataManager dataManager = newDataManager();
+        dataManager.rollDay(fenShi);
+
+        FiveDayFenShiDataManager expected = newDataManager();
+        expected.setData(Collections.singletonList(fenShi));
+        assertSameData(expected, dataManager);
+    }
+
+    @Test
+    public void setLastDayBeforeSetData() {
+        FenShiColumnData fenShi = newDay(100, 0);
+        FiveDayFenShiDataManager dataManager = newDataManager();
+        dataManager.setLastDay(fenShi);
+
+        FiveDayFenShiDataManager expected = newDataManager();
+        expected.setData(Collections.singletonList(fenShi));
+        assertSameData(expected, dataManager);
+    }
+
+    private static FiveDayFenShiDataManager newDataManager() {
+        return new FiveDayFenShiDataManager(DAY_COUNT, new DecimalFormat("0.00"));
+    }
+
+    private FenShiColumnData newDay(int size, int day) {
+        FenShiColumnData fenShi = new FenShiColumnData(size);
+        fenShi.setLastClose(10 + random.nextFloat());
+        fenShi.setTotalCount(TradingSession.SLOT_COUNT);
+        fenShi.setTime(1598227200000L + day * DAY_MILLIS);
+        for (int i = 0; i < size; i++) {
+            float price = 10 + random.nextFloat();
+            fenShi.add(TradingSession.formatSlot(i), price, price, random.nextInt(1000));
+        }
+        return fenShi;
+    }
+
+    private static void assertSameData(FiveDayFenShiDataManager expected, FiveDayFenShiDataManager actual) {
+        assertEquals(expected.columns.size(), actual.columns.size());
+        for (int day = 0; day < DAY_COUNT; day++) {
+            assertEquals(expected.getDayStart(day), actual.getDayStart(day));
+            assertEquals(expected.getDayTotalCount(day), actual.getDayTotalCount(day));
+        }
+        for (int i = 0; i < expected.columns.size(); i++) {
+            assertEquals(expected.getPrice(i), actual.getPrice(i), 0);
+            assertEquals(expected.getVolume(i), actual.getVolume(i), 0);
+            assertEquals(expected.isRising(i), actual.isRising(i));
+            assertEquals(expected.getTime(i), actual.getTime(i));
+        }
+        assertEquals(expected.maxPrice, actual.maxPrice, 0);
+        assertEquals(expected.minPrice, actual.minPrice, 0);
+        assertEquals(expected.maxVolume, actual.maxVolume, 0);
+        assertEquals(expected.lastClose, actual.lastClose, 0);
+        assertEquals(expected.lastMinute, actual.lastMinute);
+        assertEquals(expected.dateList, actual.dateList);
+        assertEquals(expected.dateTextList, actual.dateTextList);
+    }
+}
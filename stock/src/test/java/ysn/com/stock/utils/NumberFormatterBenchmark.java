@@ -0,0 +1,124 @@
+package ysn.com.stock.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author yangsanning
+ * @ClassName NumberFormatterBenchmark
+ * @Description {@link NumberFormatter} 与原 NumberUtils(DecimalFormat、String.format、字符串拼接)的对比, 每次格式化一天的 240 个点
+ * 运行: ./gradlew :stock:jmh -PjmhArgs="NumberFormatterBenchmark -prof gc"
+ * @Date 2020/8/30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberFormatterBenchmark {
+
+    private static final int COUNT = 240;
+
+    private float[] prices = new float[COUNT];
+    private float[] percents = new float[COUNT];
+    private int[] volumes = new int[COUNT];
+
+    private DecimalFormat decimalFormat = new DecimalFormat("0.00");
+    private NumberFormatter formatter = new NumberFormatter();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20200830L);
+        for (int i = 0; i < COUNT; i++) {
+            prices[i] = 5 + random.nextFloat() * 100;
+            percents[i] = (random.nextFloat() - 0.5f) * 20;
+            volumes[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    @Benchmark
+    public void priceDecimalFormat(Blackhole blackhole) {
+        for (float price : prices) {
+            blackhole.consume(decimalFormat.format(price));
+        }
+    }
+
+    @Benchmark
+    public void priceStringFormat(Blackhole blackhole) {
+        for (float price : prices) {
+            blackhole.consume(legacyNumberFormat(price, 2));
+        }
+    }
+
+    @Benchmark
+    public void priceFormatter(Blackhole blackhole) {
+        for (float price : prices) {
+            blackhole.consume(formatter.formatDecimal(price, 2).length());
+        }
+    }
+
+    @Benchmark
+    public void percentStringConcat(Blackhole blackhole) {
+        for (float percent : percents) {
+            blackhole.consume((percent > 0 ? "+" : "") + decimalFormat.format(percent) + "%");
+        }
+    }
+
+    @Benchmark
+    public void percentFormatter(Blackhole blackhole) {
+        for (float percent : percents) {
+            blackhole.consume(formatter.formatPercent(percent, 2).length());
+        }
+    }
+
+    @Benchmark
+    public void volumeStringConcat(Blackhole blackhole) {
+        for (int volume : volumes) {
+            blackhole.consume(legacyGetVolume(volume));
+        }
+    }
+
+    @Benchmark
+    public void volumeFormatter(Blackhole blackhole) {
+        for (int volume : volumes) {
+            blackhole.consume(formatter.formatVolume(volume).length());
+        }
+    }
+
+    /**
+     * 原 NumberUtils.numberFormat
+     */
+    private static String legacyNumberFormat(float value, int digits) {
+        double digit = Math.pow(10, digits);
+        return String.format("%." + digits + "f", (double) Math.round(value * digit) / digit);
+    }
+
+    /**
+     * 原 NumberUtils.getVolume
+     */
+    private static String legacyGetVolume(int volume) {
+        if (volume < 10000) {
+            return volume + "";
+        } else if (volume < Math.pow(10000, 2)) {
+            return volume / 10000 + "万";
+        }
+        if (volume < Math.pow(10000, 3)) {
+            return (int) (volume / Math.pow(10000, 2)) + "亿";
+        }
+        return (int) (volume / Math.pow(10000, 3)) + "万亿";
+    }
+}
@@ -0,0 +1,63 @@
+package ysn.com.stock.utils;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Author yangsanning
+ * @ClassName NumberFormatterTest
+ * @Description {@link NumberFormatter} 的格式化结果
+ * @Date 2020/8/30
+ */
+public class NumberFormatterTest {
+
+    private NumberFormatter formatter = new NumberFormatter();
+
+    @Test
+    public void decimalRoundsHalfAwayFromZero() {
+        assertEquals("788.88", formatter.formatDecimal(788.875f, 2).toString());
+        assertEquals("-788.88", formatter.formatDecimal(-788.875f, 2).toString());
+        assertEquals("-0.13", formatter.formatDecimal(-0.125f, 2).toString());
+        assertEquals("-1", formatter.formatDecimal(-0.5f, 0).toString());
+    }
+
+    @Test
+    public void decimalDropsSignOfZero() {
+        assertEquals("0.00", formatter.formatDecimal(-0.001f, 2).toString());
+        assertEquals("0.00", formatter.formatDecimal(-0f, 2).toString());
+    }
+
+    @Test
+    public void decimalMatchesBigDecimal() {
+        Random random = new Random(20200830L);
+        for (int i = 0; i < 100000; i++) {
+            float value = (random.nextFloat() - 0.5f) * 20000;
+            int digits = random.nextInt(4);
+            String expected = new BigDecimal(value).setScale(digits, RoundingMode.HALF_UP).toPlainString();
+            if (new BigDecimal(expected).signum() == 0) {
+                expected = expected.replace("-", "");
+            }
+            assertEquals(String.valueOf(value), expected, formatter.formatDecimal(value, digits).toString());
+        }
+    }
+
+    @Test
+    public void percent() {
+        assertEquals("+1.23%", formatter.formatPercent(1.234f, 2).toString());
+        assertEquals("-1.24%", formatter.formatPercent(-1.235f, 2).toString());
+        assertEquals("0.00%", formatter.formatPercent(0.001f, 2).toString());
+    }
+
+    @Test
+    public void volume() {
+        assertEquals("9999", formatter.formatVolume(9999).toString());
+        assertEquals("12万", formatter.formatVolume(123456).toString());
+        assertEquals("12亿", formatter.formatVolume(1234567890L).toString());
+        assertEquals("1万亿", formatter.formatVolume(1234567890123L).toString());
+    }
+}
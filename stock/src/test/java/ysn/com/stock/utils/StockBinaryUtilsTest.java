@@ -0,0 +1,143 @@
+package ysn.com.stock.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @Author yangsanning
+ * @ClassName StockBinaryUtilsTest
+ * @Description {@link StockBinaryUtils} 编码后解码与原数据完全一致(定点数列、原始 float 列、数字串及普通字符串时间列)
+ * @Date 2020/8/30
+ */
+public class StockBinaryUtilsTest {
+
+    @Test
+    public void fenShiRoundTrip() {
+        FenShiColumnData fenShi = newFenShi("sh000001", 2780.74f, 241, 1557072000000L);
+        Random random = new Random(20200830L);
+        float price = 2780.74f;
+        for (int i = 0; i < 240; i++) {
+            price = Math.round((price + random.nextFloat() - 0.5f) * 100) / 100f;
+            fenShi.add(String.valueOf(201905060930L + i), price, price - 0.5f, random.nextInt(10000000));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(StockBinaryUtils.encodeFenShi(fenShi));
+        assertEquals(StockBinaryUtils.TYPE_FEN_SHI, StockBinaryUtils.getType(buffer));
+        assertFenShiEquals(fenShi, StockBinaryUtils.decodeFenShi(buffer));
+    }
+
+    /**
+     * 不能用定点数表示的数值保存原始 float, 不等长或非数字的时间逐个保存
+     */
+    @Test
+    public void rawColumnsAndStringTimes() {
+        FenShiColumnData fenShi = newFenShi(null, 0, 0, 0);
+        Random random = new Random(20200830L);
+        String[] times = {"09:30", null, "0931", "2019-05-06 09:32", "", "09:33"};
+        for (String time : times) {
+            fenShi.add(time, random.nextFloat() * 100, -random.nextFloat(), Float.MAX_VALUE * random.nextFloat());
+        }
+
+        FenShiColumnData decoded = StockBinaryUtils.decodeFenShi(ByteBuffer.wrap(StockBinaryUtils.encodeFenShi(fenShi)));
+        assertNull(decoded.getFenShiCode());
+        assertFenShiEquals(fenShi, decoded);
+    }
+
+    @Test
+    public void fenShiListRoundTrip() {
+        List<FenShiColumnData> fenShiList = Arrays.asList(
+                newFenShi("IF2005", 3934.2f, 270, 1588694400000L),
+                newFenShi("IF2005", 3929.6f, 270, 1588780800000L),
+                newFenShi("IF2005", 0, 0, 0));
+        fenShiList.get(0).add("202005060930", 3934.2f, 3934.2f, 109);
+        fenShiList.get(0).add("202005060931", 3929.6f, 3931.9f, 62);
+        fenShiList.get(1).add("202005070930", 3940, 3940, 1);
+
+        List<FenShiColumnData> decodedList = StockBinaryUtils.decodeFenShiList(
+                ByteBuffer.wrap(StockBinaryUtils.encodeFenShiList(fenShiList)));
+        assertEquals(fenShiList.size(), decodedList.size());
+        for (int i = 0; i < fenShiList.size(); i++) {
+            assertFenShiEquals(fenShiList.get(i), decodedList.get(i));
+        }
+    }
+
+    @Test
+    public void capitalRoundTrip() {
+        CapitalColumnData capital = new CapitalColumnData(4);
+        capital.setCode("300188");
+        capital.setLastClose(15.8f);
+        capital.setTotalCount(241);
+        capital.setTime(1558627200000L);
+        Random random = new Random(20200830L);
+        for (int i = 0; i < 241; i++) {
+            capital.add(16 + random.nextInt(100) / 100f, random.nextInt() / 10f, -random.nextInt(10000000),
+                    random.nextFloat());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(StockBinaryUtils.encodeCapital(capital));
+        assertEquals(StockBinaryUtils.TYPE_CAPITAL, StockBinaryUtils.getType(buffer));
+        CapitalColumnData decoded = StockBinaryUtils.decodeCapital(buffer);
+        assertEquals("300188", decoded.getCode());
+        assertEquals(15.8f, decoded.getLastClose(), 0);
+        assertEquals(241, decoded.getTotalCount());
+        assertEquals(1558627200000L, decoded.getTime());
+        assertEquals(capital.size(), decoded.size());
+        int size = capital.size();
+        assertArrayEquals(Arrays.copyOf(capital.prices(), size), Arrays.copyOf(decoded.prices(), size), 0);
+        assertArrayEquals(Arrays.copyOf(capital.financeInFlows(), size), Arrays.copyOf(decoded.financeInFlows(), size), 0);
+        assertArrayEquals(Arrays.copyOf(capital.mainInFlows(), size), Arrays.copyOf(decoded.mainInFlows(), size), 0);
+        assertArrayEquals(Arrays.copyOf(capital.retailInFlows(), size), Arrays.copyOf(decoded.retailInFlows(), size), 0);
+    }
+
+    @Test
+    public void emptyCapital() {
+        CapitalColumnData decoded = StockBinaryUtils.decodeCapital(
+                ByteBuffer.wrap(StockBinaryUtils.encodeCapital(new CapitalColumnData())));
+        assertEquals(0, decoded.size());
+        assertNull(decoded.getCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongType() {
+        StockBinaryUtils.decodeCapital(ByteBuffer.wrap(StockBinaryUtils.encodeFenShi(newFenShi("sh000001", 1, 1, 1))));
+    }
+
+    @Test
+    public void notBinary() {
+        assertEquals(0, StockBinaryUtils.getType(ByteBuffer.wrap("{\"data\": []}".getBytes())));
+    }
+
+    private static FenShiColumnData newFenShi(String code, float lastClose, int totalCount, long time) {
+        FenShiColumnData fenShi = new FenShiColumnData(4);
+        fenShi.setCode(code);
+        fenShi.setLastClose(lastClose);
+        fenShi.setTotalCount(totalCount);
+        fenShi.setTime(time);
+        return fenShi;
+    }
+
+    private static void assertFenShiEquals(FenShiColumnData expected, FenShiColumnData actual) {
+        assertEquals(expected.getFenShiCode(), actual.getFenShiCode());
+        assertEquals(expected.getFenShiLastClose(), actual.getFenShiLastClose(), 0);
+        assertEquals(expected.getTotalCount(), actual.getTotalCount());
+        assertEquals(expected.getFenShiTime(), actual.getFenShiTime());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTime(i), actual.getTime(i));
+            assertEquals(expected.getPrice(i), actual.getPrice(i), 0);
+            assertEquals(expected.getAvePrice(i), actual.getAvePrice(i), 0);
+            assertEquals(expected.getVolume(i), actual.getVolume(i), 0);
+        }
+    }
+}
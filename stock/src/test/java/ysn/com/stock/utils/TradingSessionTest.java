@@ -0,0 +1,94 @@
+package ysn.com.stock.utils;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author yangsanning
+ * @ClassName TradingSessionTest
+ * @Description {@link TradingSession} 分钟、时间与位置的转换
+ * @Date 2020/8/30
+ */
+public class TradingSessionTest {
+
+    @Test
+    public void slotCount() {
+        assertEquals(241, TradingSession.SLOT_COUNT);
+    }
+
+    @Test
+    public void slotOfMinute() {
+        assertEquals(TradingSession.INVALID, TradingSession.getSlot(9 * 60 + 29));
+        assertEquals(0, TradingSession.getSlot(9 * 60 + 30));
+        assertEquals(120, TradingSession.getSlot(11 * 60 + 30));
+        // 午休以及 13:00 归入 11:30/13:00 所在的位置
+        assertEquals(120, TradingSession.getSlot(12 * 60));
+        assertEquals(120, TradingSession.getSlot(13 * 60));
+        assertEquals(121, TradingSession.getSlot(13 * 60 + 1));
+        assertEquals(240, TradingSession.getSlot(15 * 60));
+        assertEquals(TradingSession.INVALID, TradingSession.getSlot(15 * 60 + 1));
+        assertEquals(TradingSession.INVALID, TradingSession.getSlot(-1));
+        assertEquals(TradingSession.INVALID, TradingSession.getSlot(24 * 60));
+    }
+
+    @Test
+    public void minuteOfSlot() {
+        assertEquals(9 * 60 + 30, TradingSession.getMinuteOfSlot(0));
+        assertEquals(11 * 60 + 30, TradingSession.getMinuteOfSlot(120));
+        assertEquals(13 * 60 + 1, TradingSession.getMinuteOfSlot(121));
+        assertEquals(15 * 60, TradingSession.getMinuteOfSlot(240));
+        assertEquals(TradingSession.INVALID, TradingSession.getMinuteOfSlot(241));
+        for (int slot = 0; slot < TradingSession.SLOT_COUNT; slot++) {
+            assertEquals(slot, TradingSession.getSlot(TradingSession.getMinuteOfSlot(slot)));
+        }
+    }
+
+    @Test
+    public void parseMinute() {
+        assertEquals(9 * 60 + 30, TradingSession.parseMinute("09:30"));
+        assertEquals(9 * 60 + 30, TradingSession.parseMinute("0930"));
+        assertEquals(11 * 60 + 30, TradingSession.parseMinute("202008241130"));
+        assertEquals(13 * 60 + 1, TradingSession.parseMinute("2020-08-24 13:01"));
+        assertEquals(TradingSession.INVALID, TradingSession.parseMinute(null));
+        assertEquals(TradingSession.INVALID, TradingSession.parseMinute("930"));
+        assertEquals(TradingSession.INVALID, TradingSession.parseMinute("ab:cd"));
+        assertEquals(TradingSession.INVALID, TradingSession.parseMinute("24:00"));
+        assertEquals(120, TradingSession.getSlot("13:00"));
+    }
+
+    @Test
+    public void slotOfTimestamp() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT+08:00"));
+        calendar.clear();
+        calendar.set(2020, Calendar.AUGUST, 24, 9, 30, 59);
+        assertEquals(0, TradingSession.getSlot(calendar.getTimeInMillis()));
+        calendar.set(Calendar.HOUR_OF_DAY, 14);
+        calendar.set(Calendar.MINUTE, 59);
+        assertEquals(239, TradingSession.getSlot(calendar.getTimeInMillis()));
+        assertEquals(14 * 60 + 59, TradingSession.getMinute(calendar.getTimeInMillis()));
+    }
+
+    @Test
+    public void formatSlot() {
+        assertEquals("09:30", TradingSession.formatSlot(0));
+        assertEquals("11:30", TradingSession.formatSlot(120));
+        assertEquals("13:01", TradingSession.formatSlot(121));
+        assertEquals("15:00", TradingSession.formatSlot(240));
+        assertEquals("", TradingSession.formatSlot(241));
+        // 缓存的文本
+        assertTrue(TradingSession.formatSlot(5) == TradingSession.formatSlot(5));
+    }
+
+    @Test
+    public void closeMinute() {
+        assertTrue(TradingSession.isCloseMinute(11 * 60 + 30));
+        assertTrue(TradingSession.isCloseMinute(15 * 60));
+        assertFalse(TradingSession.isCloseMinute(13 * 60));
+    }
+}
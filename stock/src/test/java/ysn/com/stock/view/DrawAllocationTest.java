@@ -0,0 +1,163 @@
+package ysn.com.stock.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ysn.com.stock.bean.CapitalColumnData;
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.TradingSession;
+import ysn.com.stock.view.base.FrameAllocations;
+import ysn.com.stock.view.base.NoOpShadowPath;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Author yangsanning
+ * @ClassName DrawAllocationTest
+ * @Description 数据不变时 onDraw 不能创建对象(每帧分配字节数必须为 0)
+ * @Date 2020/8/30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, shadows = NoOpShadowPath.class)
+public class DrawAllocationTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 720;
+    private static final int FRAMES = 60;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void fenShiView() {
+        FenShiView view = new FenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        view.setData(newFenShi(TradingSession.SLOT_COUNT, 0));
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+    }
+
+    @Test
+    public void fenShiViewPartialDay() {
+        FenShiView view = new FenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        view.setData(newFenShi(100, 0));
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+    }
+
+    /**
+     * 开启下表格(柱形图、中间表格成交量), 同时单独统计数据图层的绘制
+     */
+    @Test
+    public void fenShiViewBottomTable() {
+        BottomTableFenShiView view = new BottomTableFenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        view.setData(newFenShi(TradingSession.SLOT_COUNT, 0));
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+        assertEquals(0, FrameAllocations.measure(view::drawDataLayer, FRAMES));
+    }
+
+    @Test
+    public void fiveDayFenShiView() {
+        FiveDayFenShiView view = new FiveDayFenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        List<FenShiColumnData> fenShiList = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            fenShiList.add(newFenShi(TradingSession.SLOT_COUNT, day));
+        }
+        view.setData(fenShiList);
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+    }
+
+    @Test
+    public void miniFenShiView() {
+        MiniFenShiView view = new MiniFenShiView(context);
+        FrameAllocations.layout(view, WIDTH / 4, HEIGHT / 8);
+        view.setNewData(newFenShi(TradingSession.SLOT_COUNT, 0));
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+    }
+
+    @Test
+    public void capitalView() {
+        CapitalView view = new CapitalView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        CapitalColumnData capital = new CapitalColumnData();
+        for (int i = 0; i < TradingSession.SLOT_COUNT; i++) {
+            capital.add(10 + wave(i), 1000 * wave(i), 800 * wave(i + 7), -500 * wave(i + 13));
+        }
+        view.setNewData(capital);
+
+        assertEquals(0, FrameAllocations.measure(view, FRAMES));
+    }
+
+    @Test
+    public void profitLossView() {
+        ProfitLossView view = new ProfitLossView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        List<Float> valueList = new ArrayList<>();
+        List<String> timesList = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            valueList.add(100 * wave(i));
+            timesList.add("2020-08-" + (i < 9 ? "0" : "") + (i + 1));
+        }
+        view.setData(valueList, timesList);
+
+        assertEquals(0, FrameAllocations.measure(view::onDraw, FRAMES));
+    }
+
+    /**
+     * @param size 点数
+     * @param day  第几天(用于区分五日分时的日期)
+     */
+    private static FenShiColumnData newFenShi(int size, int day) {
+        FenShiColumnData fenShi = new FenShiColumnData(size);
+        fenShi.setCode("000001");
+        fenShi.setLastClose(10);
+        fenShi.setTotalCount(TradingSession.SLOT_COUNT);
+        fenShi.setTime(1598227200000L + day * DAY_MILLIS);
+        for (int i = 0; i < size; i++) {
+            float price = 10 + wave(i + day);
+            fenShi.add(TradingSession.formatSlot(i), price, 10 + wave(i + day) / 2, 1000 + 500 * wave(i * 3));
+        }
+        return fenShi;
+    }
+
+    private static float wave(int i) {
+        return (float) Math.sin(i / 10.0);
+    }
+
+    /**
+     * 开启下表格, 并可以直接绘制数据图层的内容(不经过图层缓存)
+     */
+    private static class BottomTableFenShiView extends FenShiView {
+
+        BottomTableFenShiView(Context context) {
+            super(context);
+            enabledBottomTable = true;
+        }
+
+        void drawDataLayer(Canvas canvas) {
+            onChildDraw(canvas);
+        }
+    }
+}
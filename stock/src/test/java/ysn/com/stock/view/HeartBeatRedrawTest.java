@@ -0,0 +1,209 @@
+package ysn.com.stock.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ysn.com.stock.bean.FenShiColumnData;
+import ysn.com.stock.utils.TradingSession;
+import ysn.com.stock.view.base.FrameAllocations;
+import ysn.com.stock.view.base.NoOpCanvas;
+import ysn.com.stock.view.base.NoOpShadowPath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author yangsanning
+ * @ClassName HeartBeatRedrawTest
+ * @Description 心跳闪烁的每一帧只绘制缓存的图层, 不会重新执行 onChildDraw(曲线、柱形图等数据内容)
+ * @Date 2020/8/30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, shadows = NoOpShadowPath.class)
+public class HeartBeatRedrawTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 720;
+
+    /**
+     * 每帧间隔(毫秒)以及模拟的帧数(覆盖多次心跳)
+     */
+    private static final int FRAME_MILLIS = 16;
+    private static final int FRAMES = 400;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private Context context;
+    private Canvas canvas = new NoOpCanvas();
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        // 主线程的任务(心跳动画的每一帧)只在推进时间时执行
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @Test
+    public void fenShiView() {
+        CountingFenShiView view = new CountingFenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        view.setData(newFenShi(0));
+        view.drawFrame(canvas);
+        assertEquals(1, view.childDrawCount);
+
+        int pulseFrames = runPulseFrames(view);
+        assertTrue(pulseFrames > 0);
+        assertEquals(1, view.childDrawCount);
+
+        // 数据变化后才重新绘制数据图层
+        view.setData(newFenShi(1));
+        view.drawFrame(canvas);
+        assertEquals(2, view.childDrawCount);
+    }
+
+    @Test
+    public void fiveDayFenShiView() {
+        CountingFiveDayFenShiView view = new CountingFiveDayFenShiView(context);
+        FrameAllocations.layout(view, WIDTH, HEIGHT);
+        List<FenShiColumnData> fenShiList = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            fenShiList.add(newFenShi(day));
+        }
+        view.setData(fenShiList);
+        view.drawFrame(canvas);
+        assertEquals(1, view.childDrawCount);
+
+        int pulseFrames = runPulseFrames(view);
+        assertTrue(pulseFrames > 0);
+        assertEquals(1, view.childDrawCount);
+    }
+
+    /**
+     * 推进主线程时间, 心跳使宿主失效时绘制一帧(与显示列表的刷新一致)
+     *
+     * @return 心跳触发的帧数
+     */
+    private int runPulseFrames(Redrawable view) {
+        int pulseFrames = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+            if (view.consumeInvalidated()) {
+                view.drawFrame(canvas);
+                pulseFrames++;
+            }
+        }
+        return pulseFrames;
+    }
+
+    /**
+     * 上午的前 100 个点(未收盘, 会开启心跳)
+     *
+     * @param day 第几天(用于区分五日分时的日期)
+     */
+    private static FenShiColumnData newFenShi(int day) {
+        FenShiColumnData fenShi = new FenShiColumnData(100);
+        fenShi.setCode("000001");
+        fenShi.setLastClose(10);
+        fenShi.setTotalCount(TradingSession.SLOT_COUNT);
+        fenShi.setTime(1598227200000L + day * DAY_MILLIS);
+        for (int i = 0; i < 100; i++) {
+            float price = 10 + (float) Math.sin((i + day) / 10.0);
+            fenShi.add(TradingSession.formatSlot(i), price, 10, 1000);
+        }
+        return fenShi;
+    }
+
+    private interface Redrawable {
+
+        void drawFrame(Canvas canvas);
+
+        /**
+         * 上一帧之后是否失效过
+         */
+        boolean consumeInvalidated();
+    }
+
+    private static class CountingFenShiView extends FenShiView implements Redrawable {
+
+        private int childDrawCount;
+        private boolean isInvalidated;
+
+        CountingFenShiView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onChildDraw(Canvas canvas) {
+            super.onChildDraw(canvas);
+            childDrawCount++;
+        }
+
+        /**
+         * ViewOverlay 上的 Drawable 刷新时通过该方法使宿主失效
+         */
+        @Override
+        public void invalidate(Rect dirty) {
+            super.invalidate(dirty);
+            isInvalidated = true;
+        }
+
+        @Override
+        public void drawFrame(Canvas canvas) {
+            onDraw(canvas);
+        }
+
+        @Override
+        public boolean consumeInvalidated() {
+            boolean isInvalidated = this.isInvalidated;
+            this.isInvalidated = false;
+            return isInvalidated;
+        }
+    }
+
+    private static class CountingFiveDayFenShiView extends FiveDayFenShiView implements Redrawable {
+
+        private int childDrawCount;
+        private boolean isInvalidated;
+
+        CountingFiveDayFenShiView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onChildDraw(Canvas canvas) {
+            super.onChildDraw(canvas);
+            childDrawCount++;
+        }
+
+        @Override
+        public void invalidate(Rect dirty) {
+            super.invalidate(dirty);
+            isInvalidated = true;
+        }
+
+        @Override
+        public void drawFrame(Canvas canvas) {
+            onDraw(canvas);
+        }
+
+        @Override
+        public boolean consumeInvalidated() {
+            boolean isInvalidated = this.isInvalidated;
+            this.isInvalidated = false;
+            return isInvalidated;
+        }
+    }
+}
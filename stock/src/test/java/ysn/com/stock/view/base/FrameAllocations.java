@@ -0,0 +1,89 @@
+package ysn.com.stock.view.base;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import java.lang.management.ManagementFactory;
+
+import ysn.com.stock.function.OnSomeOneCallBack;
+
+/**
+ * @Author yangsanning
+ * @ClassName FrameAllocations
+ * @Description 统计控件每帧 onDraw 在当前线程分配的字节数(基于 com.sun.management.ThreadMXBean)
+ * @Date 2020/8/30
+ */
+public class FrameAllocations {
+
+    /**
+     * 预热帧数(首帧创建图层、测量缓存等)
+     * Robolectric 通过 invokedynamic 调用影子方法, 同一调用点执行约 30 次后 JDK 会重新生成方法句柄(一次性分配)
+     */
+    private static final int WARM_UP_FRAMES = 50;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * 按指定尺寸测量并布局控件
+     */
+    public static void layout(View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    /**
+     * 预热后连续绘制 frames 帧
+     *
+     * @return 单帧最多分配的字节数(已扣除统计本身的分配)
+     */
+    public static long measure(StockView view, int frames) {
+        return measure(view::onDraw, frames);
+    }
+
+    /**
+     * 统计两轮, 取较少的一轮: 绘制中的分配每轮都会出现, JIT 反优化等偶发的一次性分配只会出现在其中一轮
+     *
+     * @param onDraw 绘制一帧(如控件的 onDraw)
+     * @return 单帧最多分配的字节数(已扣除统计本身的分配)
+     */
+    public static long measure(OnSomeOneCallBack<Canvas> onDraw, int frames) {
+        Canvas canvas = new NoOpCanvas();
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            onDraw.onCallBack(canvas);
+        }
+        return Math.min(measureFrames(onDraw, canvas, frames), measureFrames(onDraw, canvas, frames));
+    }
+
+    /**
+     * @return 单帧最多分配的字节数(已扣除统计本身的分配)
+     */
+    private static long measureFrames(OnSomeOneCallBack<Canvas> onDraw, Canvas canvas, int frames) {
+        long overhead = measureOverhead();
+        long max = 0;
+        for (int i = 0; i < frames; i++) {
+            long start = allocatedBytes();
+            onDraw.onCallBack(canvas);
+            long allocated = allocatedBytes() - start - overhead;
+            max = Math.max(max, allocated);
+        }
+        return max;
+    }
+
+    /**
+     * 两次读取分配字节数之间的固有分配
+     */
+    private static long measureOverhead() {
+        long overhead = 0;
+        for (int i = 0; i < 10; i++) {
+            long start = allocatedBytes();
+            overhead = Math.max(overhead, allocatedBytes() - start);
+        }
+        return overhead;
+    }
+
+    private static long allocatedBytes() {
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,73 @@
+package ysn.com.stock.view.base;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * @Author yangsanning
+ * @ClassName NoOpCanvas
+ * @Description 不做任何绘制的画布, 统计分配时排除 Robolectric 画布记录绘制指令产生的对象
+ * @Date 2020/8/30
+ */
+public class NoOpCanvas extends Canvas {
+
+    @Override
+    public int save() {
+        return 1;
+    }
+
+    @Override
+    public void restore() {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+    }
+}
@@ -0,0 +1,43 @@
+package ysn.com.stock.view.base;
+
+import android.graphics.Path;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowPath;
+
+/**
+ * @Author yangsanning
+ * @ClassName NoOpShadowPath
+ * @Description 不记录路径点的 Path 影子类
+ * Robolectric 默认的 ShadowPath 用 java.awt 路径记录每个点(每次 lineTo 都会创建对象), 真机上 Path 的点保存在 native 层
+ * 继承 ShadowPath, 图层 Bitmap 上的画布绘制路径时会把影子类转换为 ShadowPath
+ * @Date 2020/8/30
+ */
+@Implements(Path.class)
+public class NoOpShadowPath extends ShadowPath {
+
+    @Implementation
+    protected void moveTo(float x, float y) {
+    }
+
+    @Implementation
+    protected void lineTo(float x, float y) {
+    }
+
+    @Implementation
+    protected void close() {
+    }
+
+    @Implementation
+    protected void reset() {
+    }
+
+    @Implementation
+    protected void rewind() {
+    }
+
+    @Implementation
+    protected void set(Path src) {
+    }
+}